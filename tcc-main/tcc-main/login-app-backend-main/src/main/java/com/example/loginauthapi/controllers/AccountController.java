@@ -2,13 +2,22 @@ package com.example.loginauthapi.controllers;
 
 import com.example.loginauthapi.domain.Account;
 import com.example.loginauthapi.dto.*;
+import com.example.loginauthapi.services.AccountReadCache;
 import com.example.loginauthapi.services.AccountService;
+import com.example.loginauthapi.services.BalanceCheckpointService;
+import com.example.loginauthapi.services.LedgerReconciliationService;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
-import java.util.List;
+import java.time.LocalDateTime;
+import java.util.concurrent.CompletableFuture;
 
 @RestController
 @RequestMapping("/account")
@@ -17,6 +26,12 @@ public class AccountController {
     @Autowired
     private AccountService service;
 
+    @Autowired
+    private BalanceCheckpointService balanceCheckpointService;
+
+    @Autowired
+    private LedgerReconciliationService reconciliationService;
+
     //cadastra uma conta
     @PostMapping
     public ResponseEntity<Account> insert(@RequestBody @Valid AccountRequestDTO account) {
@@ -24,18 +39,49 @@ public class AccountController {
         return ResponseEntity.ok(newAccount);
     }
 
-    //lista as contas cadastradas
+    //lista as contas cadastradas (List<AccountResponseDTO>)
     @GetMapping
-    public ResponseEntity<List<AccountResponseDTO>> getAccounts() {
-        List<AccountResponseDTO> allAccounts = service.getAccounts();
-        return ResponseEntity.ok(allAccounts);
+    public ResponseEntity<byte[]> getAccounts(WebRequest request) {
+        return cached(service.getAccounts(), request);
     }
 
-    //lista conta por id
+    //lista conta por id (AccountResponseFullDTO)
     @GetMapping("/{id}")
-    public ResponseEntity<AccountResponseFullDTO> findById(@PathVariable Long id) {
-        AccountResponseFullDTO responseFullDTO = service.findById(id);
-        return ResponseEntity.ok(responseFullDTO);
+    public ResponseEntity<byte[]> findById(@PathVariable Long id, WebRequest request) {
+        return cached(service.findById(id), request);
+    }
+
+    //JSON já serializado com ETag; If-None-Match com o ETag atual responde 304 sem corpo
+    private ResponseEntity<byte[]> cached(AccountReadCache.CachedJson json, WebRequest request) {
+        if (request.checkNotModified(json.etag())) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(json.etag()).build();
+        }
+        // no-cache: o navegador guarda a resposta, mas sempre revalida o saldo com o ETag
+        return ResponseEntity.ok()
+                .eTag(json.etag())
+                .cacheControl(CacheControl.noCache().cachePrivate())
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(json.json());
+    }
+
+    //saldo da conta em uma data (ISO date-time), calculado a partir do checkpoint mais próximo
+    @GetMapping("/{id}/balance")
+    public ResponseEntity<AccountBalanceDTO> balanceAt(@PathVariable Long id,
+                                                       @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime at) {
+        return ResponseEntity.ok(balanceCheckpointService.balanceAt(id, at));
+    }
+
+    //confere saldo x movimentações de todas as contas agora (somente ROLE_ADMIN)
+    @PostMapping("/reconciliation")
+    public ResponseEntity<ReconciliationReportDTO> reconcile() {
+        return ResponseEntity.ok(reconciliationService.reconcile());
+    }
+
+    //resultado da última reconciliação (somente ROLE_ADMIN)
+    @GetMapping("/reconciliation")
+    public ResponseEntity<ReconciliationReportDTO> lastReconciliation() {
+        ReconciliationReportDTO report = reconciliationService.lastReport();
+        return report != null ? ResponseEntity.ok(report) : ResponseEntity.noContent().build();
     }
 
     //atualiza a conta
@@ -54,15 +100,13 @@ public class AccountController {
 
     //realiza depósito
     @PatchMapping("/{id}/deposito")
-    public ResponseEntity<Account> deposito(@PathVariable Long id, @RequestBody @Valid DepositoRequestDTO dto) {
-        Account account = service.realizaDeposito(id, dto.value());
-        return ResponseEntity.ok(account);
+    public CompletableFuture<ResponseEntity<Account>> deposito(@PathVariable Long id, @RequestBody @Valid DepositoRequestDTO dto) {
+        return service.depositoAsync(id, dto.value()).thenApply(ResponseEntity::ok);
     }
 
     //realiza saque
     @PatchMapping("/{id}/saque")
-    public ResponseEntity<Account> saque(@PathVariable Long id, @RequestBody @Valid SaqueRequestDTO dto) {
-        Account account = service.realizaSaque(id, dto.value());
-        return ResponseEntity.ok(account);
+    public CompletableFuture<ResponseEntity<Account>> saque(@PathVariable Long id, @RequestBody @Valid SaqueRequestDTO dto) {
+        return service.saqueAsync(id, dto.value()).thenApply(ResponseEntity::ok);
     }
 }
@@ -1,15 +1,14 @@
 package com.example.loginauthapi.controllers;
 
-import com.example.loginauthapi.dto.CategoryDTO;
 import com.example.loginauthapi.domain.Category;
 import com.example.loginauthapi.services.CategoryService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 
 import java.net.URI;
-import java.util.List;
 
 @RestController
 @RequestMapping(value = "/categories")
@@ -25,10 +24,10 @@ public class CategoryController {
         return ResponseEntity.created(uri).body(obj);
     }
 
+    //lista de CategoryDTO já serializada pelo cache de dados de referência
     @GetMapping
-    public ResponseEntity<List<CategoryDTO>> findAll(){
-        List<CategoryDTO> list = service.findAllDto();
-        return ResponseEntity.ok().body(list);
+    public ResponseEntity<byte[]> findAll(WebRequest request){
+        return SerializedResponses.of(service.findAllJson(), request);
     }
 
     @DeleteMapping(value = "/{id}")
@@ -0,0 +1,41 @@
+package com.example.loginauthapi.controllers;
+
+import com.example.loginauthapi.domain.User;
+import com.example.loginauthapi.dto.CategoryRuleDTO;
+import com.example.loginauthapi.dto.CategoryRuleRequestDTO;
+import com.example.loginauthapi.services.CategoryRuleService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
+
+import java.net.URI;
+import java.util.List;
+
+@RestController
+@RequestMapping(value = "/categories/rules")
+public class CategoryRuleController {
+
+    @Autowired
+    private CategoryRuleService service;
+
+    //regras do sistema e do usuário logado
+    @GetMapping
+    public ResponseEntity<List<CategoryRuleDTO>> findAll(@AuthenticationPrincipal User user) {
+        return ResponseEntity.ok().body(service.findAllDto(user));
+    }
+
+    @PostMapping
+    public ResponseEntity<CategoryRuleDTO> insert(@AuthenticationPrincipal User user, @RequestBody CategoryRuleRequestDTO dto) {
+        CategoryRuleDTO rule = service.newRule(user, dto);
+        URI uri = ServletUriComponentsBuilder.fromCurrentRequest().path("/{id}").buildAndExpand(rule.id()).toUri();
+        return ResponseEntity.created(uri).body(rule);
+    }
+
+    @DeleteMapping(value = "/{id}")
+    public ResponseEntity<Void> delete(@AuthenticationPrincipal User user, @PathVariable Long id) {
+        service.delete(user, id);
+        return ResponseEntity.noContent().build();
+    }
+}
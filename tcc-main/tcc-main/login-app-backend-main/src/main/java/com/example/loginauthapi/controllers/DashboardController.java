@@ -0,0 +1,31 @@
+package com.example.loginauthapi.controllers;
+
+import com.example.loginauthapi.domain.User;
+import com.example.loginauthapi.dto.DashboardSummaryDTO;
+import com.example.loginauthapi.services.DashboardService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.time.LocalDate;
+
+@RestController
+@RequestMapping("/dashboard")
+public class DashboardController {
+
+    @Autowired
+    private DashboardService dashboardService;
+
+    //totais, resumo por categoria, últimas transações e saldos das contas em uma única resposta
+    @GetMapping("/summary")
+    public ResponseEntity<DashboardSummaryDTO> getSummary(@AuthenticationPrincipal User user,
+                                                          @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+                                                          @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        return ResponseEntity.ok(dashboardService.getSummary(user, from, to));
+    }
+}
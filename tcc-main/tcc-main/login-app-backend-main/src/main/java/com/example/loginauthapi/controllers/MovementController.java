@@ -1,14 +1,34 @@
 package com.example.loginauthapi.controllers;
 
-import com.example.loginauthapi.domain.Movement;
+import com.example.loginauthapi.domain.User;
+import com.example.loginauthapi.dto.ConsolidatedMovementDTO;
+import com.example.loginauthapi.dto.ConsolidatedStatementPageDTO;
+import com.example.loginauthapi.dto.MovementArchiveDTO;
+import com.example.loginauthapi.dto.MovementDTO;
+import com.example.loginauthapi.dto.MovementPageDTO;
+import com.example.loginauthapi.dto.MovementPartitionDTO;
+import com.example.loginauthapi.dto.StatementLineDTO;
+import com.example.loginauthapi.dto.StatementPageDTO;
+import com.example.loginauthapi.services.ConsolidatedStatementService;
+import com.example.loginauthapi.services.ExportService;
+import com.example.loginauthapi.services.MovementPartitionService;
 import com.example.loginauthapi.services.MovementService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
 import java.util.List;
 
 @RestController
@@ -18,16 +38,138 @@ public class MovementController {
     @Autowired
     private MovementService movementService;
 
+    @Autowired
+    private ExportService exportService;
+
+    @Autowired
+    private ConsolidatedStatementService consolidatedStatementService;
+
+    @Autowired
+    private MovementPartitionService movementPartitionService;
+
+    //extrato consolidado das contas informadas (padrão: contas com o CPF do usuário), em ordem cronológica
+    @GetMapping("/consolidated")
+    public ResponseEntity<List<ConsolidatedMovementDTO>> getConsolidated(@AuthenticationPrincipal User user,
+                                                                         @RequestParam(required = false) List<Long> accountIds,
+                                                                         @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+                                                                         @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+                                                                         @RequestParam(required = false) String cursor,
+                                                                         @RequestParam(required = false) Integer limit) {
+        List<Long> accounts = consolidatedStatementService.resolveAccounts(user, accountIds);
+        ConsolidatedStatementPageDTO page = consolidatedStatementService.getPage(accounts, from, to, cursor, limit);
+
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (page.nextCursor() != null) {
+            response.header(TransactionController.NEXT_CURSOR_HEADER, page.nextCursor());
+        }
+        return response.body(page.content());
+    }
+
+    //extrato consolidado do período inteiro em CSV ou NDJSON
+    @GetMapping("/consolidated/export")
+    public ResponseEntity<StreamingResponseBody> exportConsolidated(@AuthenticationPrincipal User user,
+                                                                    @RequestParam(required = false) List<Long> accountIds,
+                                                                    @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+                                                                    @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+                                                                    @RequestParam(defaultValue = "csv") String format) {
+        ExportService.Format exportFormat = ExportService.Format.of(format);
+        List<Long> accounts = consolidatedStatementService.resolveAccounts(user, accountIds);
+        LocalDateTime start = MovementService.rangeStart(from, to);
+        LocalDateTime end = MovementService.rangeEnd(to);
+        StreamingResponseBody body = out -> exportService.exportConsolidated(accounts, start, end, exportFormat, out);
+        return ResponseEntity.ok()
+                .contentType(exportFormat.getMediaType())
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"consolidated." + exportFormat.getExtension() + "\"")
+                .body(body);
+    }
+
+    //partições mensais de tb_movements (somente PostgreSQL)
+    @GetMapping("/partitions")
+    public ResponseEntity<List<MovementPartitionDTO>> listPartitions() {
+        return ResponseEntity.ok(movementPartitionService.listPartitions());
+    }
+
+    //cria agora as partições dos próximos meses (o mesmo que o job diário faz; somente ROLE_ADMIN)
+    @PostMapping("/partitions/maintain")
+    public ResponseEntity<List<String>> maintainPartitions() {
+        return ResponseEntity.ok(movementPartitionService.maintain());
+    }
+
+    //desanexa a partição do mês (yyyy-MM), exporta para CSV gzip e remove a tabela (somente ROLE_ADMIN)
+    @PostMapping("/partitions/{month}/archive")
+    public ResponseEntity<MovementArchiveDTO> archivePartition(@PathVariable @DateTimeFormat(pattern = "yyyy-MM") YearMonth month) {
+        return ResponseEntity.ok(movementPartitionService.archive(month));
+    }
+
+    //mantido por compatibilidade; mesmo extrato de /account/{id}
     @GetMapping("/{id}")
-    public ResponseEntity<List<Movement>> getMovements(@PathVariable Long id) {
-        List<Movement> movements = movementService.getMovementsByAccount(id);
-        return ResponseEntity.ok(movements);
+    public ResponseEntity<List<MovementDTO>> getMovements(@PathVariable Long id,
+                                                          @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+                                                          @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+                                                          @RequestParam(required = false) String cursor,
+                                                          @RequestParam(required = false) Integer limit) {
+        return getMovementsByAccount(id, from, to, cursor, limit);
     }
 
+    //extrato paginado da conta; a próxima página vem no header X-Next-Cursor
     @GetMapping("/account/{id}")
-    public ResponseEntity<List<Movement>> getMovementsByAccount(@PathVariable Long id) {
-        List<Movement> movements = movementService.getMovementsByAccount(id);
-        return ResponseEntity.ok(movements);
+    public ResponseEntity<List<MovementDTO>> getMovementsByAccount(@PathVariable Long id,
+                                                                   @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+                                                                   @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+                                                                   @RequestParam(required = false) String cursor,
+                                                                   @RequestParam(required = false) Integer limit) {
+        MovementPageDTO page = movementService.getStatement(id, from, to, cursor, limit);
+
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (page.nextCursor() != null) {
+            response.header(TransactionController.NEXT_CURSOR_HEADER, page.nextCursor());
+        }
+        return response.body(page.content());
     }
-}
 
+    //extrato com o saldo após cada movimentação, paginado pelo header X-Next-Cursor
+    @GetMapping("/account/{id}/statement")
+    public ResponseEntity<List<StatementLineDTO>> getRunningStatement(@PathVariable Long id,
+                                                                      @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+                                                                      @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+                                                                      @RequestParam(required = false) String cursor,
+                                                                      @RequestParam(required = false) Integer limit) {
+        StatementPageDTO page = movementService.getRunningStatement(id, from, to, cursor, limit);
+
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (page.nextCursor() != null) {
+            response.header(TransactionController.NEXT_CURSOR_HEADER, page.nextCursor());
+        }
+        return response.body(page.content());
+    }
+
+    //extrato com saldo do período inteiro em CSV ou NDJSON, gerado página a página
+    @GetMapping("/account/{id}/statement/export")
+    public ResponseEntity<StreamingResponseBody> exportRunningStatement(@PathVariable Long id,
+                                                                        @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+                                                                        @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+                                                                        @RequestParam(defaultValue = "csv") String format) {
+        ExportService.Format exportFormat = ExportService.Format.of(format);
+        exportService.checkAccountExists(id);
+        LocalDateTime start = MovementService.rangeStart(from, to);
+        LocalDateTime end = MovementService.rangeEnd(to);
+        StreamingResponseBody body = out -> exportService.exportStatement(id, start, end, exportFormat, out);
+        return ResponseEntity.ok()
+                .contentType(exportFormat.getMediaType())
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"statement-" + id + "." + exportFormat.getExtension() + "\"")
+                .body(body);
+    }
+
+    //exporta o extrato completo da conta em CSV ou NDJSON, sem montar a lista em memória
+    @GetMapping("/account/{id}/export")
+    public ResponseEntity<StreamingResponseBody> export(@PathVariable Long id,
+                                                        @RequestParam(defaultValue = "csv") String format) {
+        ExportService.Format exportFormat = ExportService.Format.of(format);
+        exportService.checkAccountExists(id);
+        StreamingResponseBody body = out -> exportService.exportMovements(id, exportFormat, out);
+        return ResponseEntity.ok()
+                .contentType(exportFormat.getMediaType())
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"movements-" + id + "." + exportFormat.getExtension() + "\"")
+                .body(body);
+    }
+}
@@ -0,0 +1,58 @@
+package com.example.loginauthapi.controllers;
+
+import com.example.loginauthapi.domain.User;
+import com.example.loginauthapi.dto.PeriodReportDTO;
+import com.example.loginauthapi.dto.RollupDriftDTO;
+import com.example.loginauthapi.services.ReportService;
+import com.example.loginauthapi.services.RollupService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.time.YearMonth;
+import java.util.List;
+
+@RestController
+@RequestMapping("/reports")
+public class ReportController {
+
+    @Autowired
+    private ReportService reportService;
+
+    @Autowired
+    private RollupService rollupService;
+
+    //totais por mês (from/to no formato yyyy-MM), padrão: últimos 12 meses
+    @GetMapping("/monthly")
+    public ResponseEntity<List<PeriodReportDTO>> monthly(@AuthenticationPrincipal User user,
+                                                         @RequestParam(required = false) @DateTimeFormat(pattern = "yyyy-MM") YearMonth from,
+                                                         @RequestParam(required = false) @DateTimeFormat(pattern = "yyyy-MM") YearMonth to) {
+        return ResponseEntity.ok(reportService.monthly(user, from, to));
+    }
+
+    //totais por ano, padrão: ano corrente
+    @GetMapping("/yearly")
+    public ResponseEntity<List<PeriodReportDTO>> yearly(@AuthenticationPrincipal User user,
+                                                        @RequestParam(required = false) Integer from,
+                                                        @RequestParam(required = false) Integer to) {
+        return ResponseEntity.ok(reportService.yearly(user, from, to));
+    }
+
+    //compara o rollup com as transações sem alterar nada (somente ROLE_ADMIN)
+    @GetMapping("/rollup/drift")
+    public ResponseEntity<RollupDriftDTO> checkDrift() {
+        return ResponseEntity.ok(rollupService.checkDrift());
+    }
+
+    //recalcula o rollup do zero e retorna as diferenças encontradas antes da reconstrução (somente ROLE_ADMIN)
+    @PostMapping("/rollup/rebuild")
+    public ResponseEntity<RollupDriftDTO> rebuild() {
+        return ResponseEntity.ok(rollupService.rebuild());
+    }
+}
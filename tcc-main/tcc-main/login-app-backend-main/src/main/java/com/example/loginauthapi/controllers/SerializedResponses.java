@@ -0,0 +1,52 @@
+package com.example.loginauthapi.controllers;
+
+import com.example.loginauthapi.services.ReferenceDataCache;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.context.request.WebRequest;
+
+import java.util.Locale;
+
+/**
+ * Escreve uma lista já serializada pelo ReferenceDataCache: gzip quando o cliente aceita,
+ * ETag forte da forma enviada e 304 sem corpo quando If-None-Match traz o ETag atual.
+ */
+final class SerializedResponses {
+
+    private SerializedResponses() {
+    }
+
+    static ResponseEntity<byte[]> of(ReferenceDataCache.SerializedList list, WebRequest request) {
+        boolean gzip = acceptsGzip(request.getHeader(HttpHeaders.ACCEPT_ENCODING));
+        String etag = gzip ? list.gzipEtag() : list.etag();
+        if (request.checkNotModified(etag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).varyBy(HttpHeaders.ACCEPT_ENCODING).build();
+        }
+        // no-cache: o navegador guarda a lista, mas revalida a cada uso (uma categoria nova aparece na hora)
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .eTag(etag)
+                .cacheControl(CacheControl.noCache().cachePrivate())
+                .varyBy(HttpHeaders.ACCEPT_ENCODING)
+                .contentType(MediaType.APPLICATION_JSON);
+        if (gzip) {
+            // Com Content-Encoding já definido, a compressão do Tomcat não comprime de novo
+            response.header(HttpHeaders.CONTENT_ENCODING, "gzip");
+        }
+        return response.body(gzip ? list.gzip() : list.identity());
+    }
+
+    //gzip listado em Accept-Encoding e não recusado com q=0
+    static boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null) return false;
+        for (String coding : acceptEncoding.toLowerCase(Locale.ROOT).split(",")) {
+            String[] parts = coding.split(";");
+            if (parts[0].trim().equals("gzip")) {
+                return parts.length < 2 || !parts[1].replace(" ", "").matches("q=0(\\.0*)?");
+            }
+        }
+        return false;
+    }
+}
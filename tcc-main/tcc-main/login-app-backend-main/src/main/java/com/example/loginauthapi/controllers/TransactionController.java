@@ -1,33 +1,144 @@
 package com.example.loginauthapi.controllers;
 
+import com.example.loginauthapi.dto.TransactionArchiveDTO;
+import com.example.loginauthapi.dto.TransactionBatchResultDTO;
+import com.example.loginauthapi.dto.TransactionChangesDTO;
 import com.example.loginauthapi.dto.TransactionDTO;
+import com.example.loginauthapi.dto.TransactionFilterDTO;
+import com.example.loginauthapi.dto.TransactionPageDTO;
 import com.example.loginauthapi.dto.TransactionRequestDTO;
 import com.example.loginauthapi.domain.Transaction;
+import com.example.loginauthapi.domain.User;
+import com.example.loginauthapi.services.ExportService;
+import com.example.loginauthapi.services.StatementImportService;
+import com.example.loginauthapi.services.TransactionArchiveService;
+import com.example.loginauthapi.services.TransactionBatchService;
+import com.example.loginauthapi.services.TransactionChangeService;
+import jakarta.servlet.http.HttpServletRequest;
 import com.example.loginauthapi.services.TransactionService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.LocalDate;
 import java.util.List;
 
 @RestController
 @RequestMapping(value = "/transactions")
 public class TransactionController {
 
+    public static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+
     @Autowired
     private TransactionService service;
 
+    @Autowired
+    private ExportService exportService;
+
+    @Autowired
+    private TransactionArchiveService transactionArchiveService;
+
+    @Autowired
+    private TransactionBatchService transactionBatchService;
+
+    @Autowired
+    private StatementImportService statementImportService;
+
+    @Autowired
+    private TransactionChangeService transactionChangeService;
+
     @PostMapping
     public ResponseEntity<Transaction> insert(@RequestBody TransactionRequestDTO dto) {
         Transaction transaction = service.newTransaction(dto);
         return ResponseEntity.status(HttpStatus.CREATED).body(transaction);
     }
 
+    //inclui várias transações de uma vez; a resposta traz o status de cada item na ordem enviada
+    @PostMapping(value = "/batch", consumes = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<TransactionBatchResultDTO> insertBatch(@RequestBody List<TransactionRequestDTO> dtos) {
+        return ResponseEntity.ok(transactionBatchService.insertAll(dtos));
+    }
+
+    //mesmo lote em NDJSON (uma transação por linha), lido do corpo em streaming
+    @PostMapping(value = "/batch", consumes = "application/x-ndjson")
+    public ResponseEntity<TransactionBatchResultDTO> insertBatchNdjson(HttpServletRequest request) throws IOException {
+        return ResponseEntity.ok(transactionBatchService.insertAll(request.getInputStream()));
+    }
+
+    //importa um extrato CSV/OFX para a conta; a resposta é NDJSON com uma linha de progresso por bloco gravado
+    @PostMapping(value = "/import", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    public ResponseEntity<StreamingResponseBody> importStatement(@AuthenticationPrincipal User user,
+                                                                 @RequestParam MultipartFile file,
+                                                                 @RequestParam Long accountId,
+                                                                 @RequestParam(required = false) String format,
+                                                                 @RequestParam(required = false) Long categoryId) {
+        StatementImportService.Plan plan = statementImportService.prepare(user, accountId, format, file.getOriginalFilename(), categoryId);
+        StreamingResponseBody body = out -> {
+            try (InputStream in = file.getInputStream()) {
+                statementImportService.run(plan, in, out);
+            }
+        };
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType("application/x-ndjson"))
+                .body(body);
+    }
+
+    //lista as transações do usuário autenticado; com limit ou cursor pagina e o cursor da próxima página vai no header X-Next-Cursor
     @GetMapping
-    public ResponseEntity<List<TransactionDTO>> findAll(){
-        List<TransactionDTO> list = service.findAllDto();
-        return ResponseEntity.ok().body(list);
+    public ResponseEntity<List<TransactionDTO>> findAll(@AuthenticationPrincipal User user,
+                                                        @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+                                                        @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+                                                        @RequestParam(required = false) Long transactionTypeId,
+                                                        @RequestParam(required = false) Long categoryId,
+                                                        @RequestParam(required = false) Long accountId,
+                                                        @RequestParam(required = false) String description,
+                                                        @RequestParam(required = false) String cursor,
+                                                        @RequestParam(required = false) Integer limit){
+        TransactionFilterDTO filter = new TransactionFilterDTO(from, to, transactionTypeId, categoryId, accountId, description);
+        TransactionPageDTO page = service.findPageDto(user, filter, cursor, limit);
+
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (page.nextCursor() != null) {
+            response.header(NEXT_CURSOR_HEADER, page.nextCursor());
+        }
+        return response.body(page.content());
+    }
+
+    //exporta o histórico completo do usuário em CSV ou NDJSON, sem montar a lista em memória
+    @GetMapping(value = "/export")
+    public ResponseEntity<StreamingResponseBody> export(@AuthenticationPrincipal User user,
+                                                        @RequestParam(defaultValue = "csv") String format){
+        ExportService.Format exportFormat = ExportService.Format.of(format);
+        Long userId = user.getId();
+        StreamingResponseBody body = out -> exportService.exportTransactions(userId, exportFormat, out);
+        return ResponseEntity.ok()
+                .contentType(exportFormat.getMediaType())
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"transactions." + exportFormat.getExtension() + "\"")
+                .body(body);
+    }
+
+    //inclusões, alterações e exclusões do usuário depois do cursor since, em ordem; o cursor da resposta vai no próximo since
+    //transações já arquivadas não aparecem no feed, nem com since=0: são lidas por GET /transactions com o período
+    @GetMapping(value = "/changes")
+    public ResponseEntity<TransactionChangesDTO> changes(@AuthenticationPrincipal User user,
+                                                         @RequestParam(required = false) Long since,
+                                                         @RequestParam(required = false) Integer limit){
+        return ResponseEntity.ok(transactionChangeService.findChangesSince(user, since, limit));
+    }
+
+    //executa agora o arquivamento das transações anteriores ao horizonte configurado (somente ROLE_ADMIN)
+    @PostMapping(value = "/archive")
+    public ResponseEntity<List<TransactionArchiveDTO>> archive(){
+        return ResponseEntity.ok(transactionArchiveService.archiveAll());
     }
 
     @DeleteMapping(value = "/{id}")
@@ -38,8 +149,7 @@ public class TransactionController {
 
     @GetMapping(value = "/{id}")
     public ResponseEntity<TransactionDTO> findById(@PathVariable Long id){
-        Transaction transaction = service.findById(id);
-        TransactionDTO transactionDTO = new TransactionDTO(transaction);
+        TransactionDTO transactionDTO = service.findDtoById(id);
         return ResponseEntity.ok().body(transactionDTO);
     }
 
@@ -5,10 +5,10 @@ import com.example.loginauthapi.services.TransactionTypeService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 
 import java.net.URI;
-import java.util.List;
 
 @RestController
 @RequestMapping(value = "/transaction-types")
@@ -24,10 +24,10 @@ public class TransactionTypeController {
         return ResponseEntity.created(uri).body(obj);
     }
 
+    //lista de TransactionTypeDTO já serializada pelo cache de dados de referência
     @GetMapping
-    public ResponseEntity<List<TransactionType>> findAll(){
-        List<TransactionType> list = service.findAll();
-        return ResponseEntity.ok().body(list);
+    public ResponseEntity<byte[]> findAll(WebRequest request){
+        return SerializedResponses.of(service.findAllJson(), request);
     }
 
     @GetMapping(value = "/{id}")
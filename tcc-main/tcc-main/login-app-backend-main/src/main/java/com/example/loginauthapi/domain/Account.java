@@ -1,5 +1,7 @@
 package com.example.loginauthapi.domain;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import jakarta.persistence.*;
 import lombok.*;
 
@@ -11,11 +13,12 @@ import java.time.LocalDate;
 @Getter
 @Setter
 @NoArgsConstructor
-@AllArgsConstructor
+@JsonIgnoreProperties({"hibernateLazyInitializer", "handler"})
 public class Account {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "tb_account_seq")
+    @SequenceGenerator(name = "tb_account_seq", sequenceName = "tb_account_seq", allocationSize = 50)
     private Long id;
 
     @Column(nullable = false)
@@ -32,4 +35,32 @@ public class Account {
 
     @Column(precision = 10, scale = 2)
     private BigDecimal balance;
+
+    // Base do razão: o saldo deve ser sempre openingBalance + soma das movimentações
+    @JsonIgnore
+    @Column(name = "opening_balance", nullable = false, precision = 19, scale = 2)
+    private BigDecimal openingBalance;
+
+    // Incrementada a cada alteração da conta, inclusive pelos UPDATEs nativos de saldo; vira o ETag em GET /account
+    @JsonIgnore
+    @Version
+    @Column(nullable = false)
+    private Long version;
+
+    public Account(Long id, String name, String cpf, LocalDate dateOfBirth, String bank, BigDecimal balance) {
+        this.id = id;
+        this.name = name;
+        this.cpf = cpf;
+        this.dateOfBirth = dateOfBirth;
+        this.bank = bank;
+        this.balance = balance;
+    }
+
+    //conta nova: o saldo inicial ainda não tem movimentação, então é todo saldo de abertura
+    @PrePersist
+    void prePersist() {
+        if (openingBalance == null) {
+            openingBalance = balance != null ? balance : BigDecimal.ZERO;
+        }
+    }
 }
@@ -0,0 +1,30 @@
+package com.example.loginauthapi.domain;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@Entity
+@Table(name = "category_rules")
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+public class CategoryRule {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "category_rules_seq")
+    @SequenceGenerator(name = "category_rules_seq", sequenceName = "category_rules_seq", allocationSize = 50)
+    private Long id;
+
+    @Column(nullable = false)
+    private String keyword; // procurada no início das palavras da descrição, sem diferenciar caixa e acentos
+
+    @Column(name = "category_id", nullable = false)
+    private Long categoryId;
+
+    @Column(name = "user_id")
+    private Long userId; // nulo para regras do sistema
+}
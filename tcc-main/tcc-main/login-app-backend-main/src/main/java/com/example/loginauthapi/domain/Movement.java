@@ -14,7 +14,8 @@ import java.time.LocalDateTime;
 public class Movement {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "tb_movements_seq")
+    @SequenceGenerator(name = "tb_movements_seq", sequenceName = "tb_movements_seq", allocationSize = 50)
     private Long id;
 
     @ManyToOne(fetch = FetchType.LAZY)
@@ -27,6 +28,11 @@ public class Movement {
 
     private LocalDateTime movementDate;
 
+    // Transação que originou a movimentação; nulo para depósitos e saques diretos na conta
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "transaction_id")
+    private Transaction transaction;
+
     public Movement(){}
 
     public Movement(Account account, String type, BigDecimal amount, LocalDateTime movementDate) {
@@ -35,4 +41,9 @@ public class Movement {
         this.amount = amount;
         this.movementDate = movementDate;
     }
+
+    public Movement(Account account, String type, BigDecimal amount, LocalDateTime movementDate, Transaction transaction) {
+        this(account, type, amount, movementDate);
+        this.transaction = transaction;
+    }
 }
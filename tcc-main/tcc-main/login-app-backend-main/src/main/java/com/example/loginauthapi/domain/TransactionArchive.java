@@ -0,0 +1,44 @@
+package com.example.loginauthapi.domain;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "transaction_archive")
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+public class TransactionArchive {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "transaction_archive_seq")
+    @SequenceGenerator(name = "transaction_archive_seq", sequenceName = "transaction_archive_seq", allocationSize = 50)
+    private Long id;
+
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+
+    @Column(name = "archive_year", nullable = false)
+    private Integer archiveYear;
+
+    @Column(name = "file_path", nullable = false, length = 500)
+    private String filePath;
+
+    @Column(name = "row_count", nullable = false)
+    private Integer rowCount;
+
+    @Column(name = "min_date", nullable = false)
+    private LocalDateTime minDate; // data da transação mais antiga do arquivo
+
+    @Column(name = "max_date", nullable = false)
+    private LocalDateTime maxDate; // data da transação mais recente do arquivo
+
+    @Column(name = "archived_at", nullable = false)
+    private LocalDateTime archivedAt;
+}
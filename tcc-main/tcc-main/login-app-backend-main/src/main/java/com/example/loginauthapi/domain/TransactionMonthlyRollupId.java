@@ -0,0 +1,40 @@
+package com.example.loginauthapi.domain;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Embeddable;
+import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.io.Serializable;
+
+@Embeddable
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@EqualsAndHashCode
+public class TransactionMonthlyRollupId implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    // Conta usada para transações sem conta vinculada
+    public static final Long NO_ACCOUNT = 0L;
+
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+
+    @Column(name = "year_month", nullable = false)
+    private Integer yearMonth; // yyyyMM
+
+    @Column(name = "category_id", nullable = false)
+    private Long categoryId;
+
+    @Column(name = "transaction_type_id", nullable = false)
+    private Long transactionTypeId;
+
+    @Column(name = "account_id", nullable = false)
+    private Long accountId;
+}
@@ -0,0 +1,10 @@
+package com.example.loginauthapi.dto;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+public record AccountBalanceDTO(Long accountId,
+                                LocalDateTime at,
+                                BigDecimal balance,
+                                LocalDateTime checkpointAt) {
+}
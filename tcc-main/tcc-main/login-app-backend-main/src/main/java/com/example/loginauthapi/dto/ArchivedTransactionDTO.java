@@ -0,0 +1,13 @@
+package com.example.loginauthapi.dto;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+public record ArchivedTransactionDTO(Long id,
+                                     String description,
+                                     BigDecimal amount,
+                                     LocalDateTime date,
+                                     Long categoryId,
+                                     Long transactionTypeId,
+                                     Long accountId) {
+}
@@ -15,6 +15,11 @@ public class CategoryDTO {
     public CategoryDTO(){
     }
 
+    public CategoryDTO(Long id, String categoryName){
+        this.id = id;
+        this.categoryName = categoryName;
+    }
+
     public CategoryDTO(Category entity){
         BeanUtils.copyProperties(entity, this);
     }
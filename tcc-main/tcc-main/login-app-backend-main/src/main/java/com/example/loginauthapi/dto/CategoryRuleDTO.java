@@ -0,0 +1,13 @@
+package com.example.loginauthapi.dto;
+
+import com.example.loginauthapi.domain.CategoryRule;
+
+public record CategoryRuleDTO(Long id,
+                              String keyword,
+                              Long categoryId,
+                              boolean system) { // regra padrão, que o usuário não pode excluir
+
+    public CategoryRuleDTO(CategoryRule rule) {
+        this(rule.getId(), rule.getKeyword(), rule.getCategoryId(), rule.getUserId() == null);
+    }
+}
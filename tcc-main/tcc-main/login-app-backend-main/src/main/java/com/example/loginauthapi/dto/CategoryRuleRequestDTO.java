@@ -0,0 +1,4 @@
+package com.example.loginauthapi.dto;
+
+public record CategoryRuleRequestDTO(String keyword, Long categoryId) {
+}
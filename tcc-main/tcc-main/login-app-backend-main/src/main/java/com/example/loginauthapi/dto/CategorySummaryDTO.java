@@ -0,0 +1,11 @@
+package com.example.loginauthapi.dto;
+
+import java.math.BigDecimal;
+
+public record CategorySummaryDTO(Long categoryId,
+                                 String categoryName,
+                                 Long transactionTypeId,
+                                 String transactionType,
+                                 BigDecimal total,
+                                 Long count) {
+}
@@ -0,0 +1,11 @@
+package com.example.loginauthapi.dto;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+public record ConsolidatedMovementDTO(Long accountId,
+                                      Long id,
+                                      String type,
+                                      BigDecimal amount,
+                                      LocalDateTime movementDate) {
+}
@@ -0,0 +1,7 @@
+package com.example.loginauthapi.dto;
+
+import java.util.List;
+
+public record ConsolidatedStatementPageDTO(List<ConsolidatedMovementDTO> content,
+                                           String nextCursor) {
+}
@@ -0,0 +1,18 @@
+package com.example.loginauthapi.dto;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+public record DashboardSummaryDTO(LocalDate from,
+                                  LocalDate to,
+                                  BigDecimal totalIncome,
+                                  BigDecimal totalExpense,
+                                  BigDecimal currentMonthIncome,
+                                  BigDecimal currentMonthExpense,
+                                  List<CategorySummaryDTO> categories,
+                                  TransactionDTO lastIncome,
+                                  TransactionDTO lastExpense,
+                                  List<AccountResponseDTO> accounts,
+                                  BigDecimal totalBalance) {
+}
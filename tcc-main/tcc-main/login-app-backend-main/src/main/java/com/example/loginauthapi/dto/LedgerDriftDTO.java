@@ -0,0 +1,10 @@
+package com.example.loginauthapi.dto;
+
+import java.math.BigDecimal;
+
+public record LedgerDriftDTO(Long accountId,
+                             BigDecimal balance,
+                             BigDecimal openingBalance,
+                             BigDecimal movementsTotal,
+                             BigDecimal difference) {
+}
@@ -0,0 +1,9 @@
+package com.example.loginauthapi.dto;
+
+import java.time.YearMonth;
+
+public record MovementArchiveDTO(YearMonth month,
+                                 String partition,
+                                 String file,
+                                 long rows) {
+}
@@ -0,0 +1,10 @@
+package com.example.loginauthapi.dto;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+public record MovementDTO(Long id,
+                          String type,
+                          BigDecimal amount,
+                          LocalDateTime movementDate) {
+}
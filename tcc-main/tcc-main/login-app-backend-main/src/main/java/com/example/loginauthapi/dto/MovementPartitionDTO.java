@@ -0,0 +1,9 @@
+package com.example.loginauthapi.dto;
+
+import java.time.YearMonth;
+
+public record MovementPartitionDTO(String name,
+                                   YearMonth month,
+                                   String bounds,
+                                   long estimatedRows) {
+}
@@ -0,0 +1,11 @@
+package com.example.loginauthapi.dto;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+public record PeriodReportDTO(String period,
+                              BigDecimal income,
+                              BigDecimal expense,
+                              Long count,
+                              List<CategorySummaryDTO> categories) {
+}
@@ -0,0 +1,12 @@
+package com.example.loginauthapi.dto;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public record ReconciliationReportDTO(LocalDateTime startedAt,
+                                      LocalDateTime finishedAt,
+                                      long accountsChecked,
+                                      int ranges,
+                                      double accountsPerSecond,
+                                      List<LedgerDriftDTO> drift) {
+}
@@ -0,0 +1,14 @@
+package com.example.loginauthapi.dto;
+
+import java.math.BigDecimal;
+
+public record RollupDiffDTO(Long userId,
+                            Integer yearMonth,
+                            Long categoryId,
+                            Long transactionTypeId,
+                            Long accountId,
+                            BigDecimal expectedTotal,
+                            BigDecimal actualTotal,
+                            Long expectedCount,
+                            Long actualCount) {
+}
@@ -0,0 +1,9 @@
+package com.example.loginauthapi.dto;
+
+import java.util.List;
+
+public record RollupDriftDTO(int expectedRows,
+                             int actualRows,
+                             List<RollupDiffDTO> differences,
+                             boolean rebuilt) {
+}
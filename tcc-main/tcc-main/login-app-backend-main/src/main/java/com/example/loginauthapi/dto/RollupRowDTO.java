@@ -0,0 +1,12 @@
+package com.example.loginauthapi.dto;
+
+import java.math.BigDecimal;
+
+public record RollupRowDTO(Long userId,
+                           Integer yearMonth,
+                           Long categoryId,
+                           Long transactionTypeId,
+                           Long accountId,
+                           BigDecimal total,
+                           Long count) {
+}
@@ -0,0 +1,10 @@
+package com.example.loginauthapi.dto;
+
+import java.math.BigDecimal;
+
+public record RollupTotalDTO(Integer yearMonth,
+                             Long categoryId,
+                             Long transactionTypeId,
+                             BigDecimal total,
+                             Long count) {
+}
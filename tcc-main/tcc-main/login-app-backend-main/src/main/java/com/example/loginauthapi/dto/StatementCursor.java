@@ -0,0 +1,32 @@
+package com.example.loginauthapi.dto;
+
+import com.example.loginauthapi.services.exceptions.BusinessException;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+//última linha retornada no extrato com saldo: (movementDate, id) e o saldo após ela, que abre a próxima página
+public record StatementCursor(LocalDateTime date, Long id, BigDecimal balance) {
+
+    public String encode() {
+        String raw = date + "|" + id + "|" + balance.toPlainString();
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static StatementCursor decode(String cursor) {
+        if (cursor == null || cursor.isBlank()) return null;
+        try {
+            String[] parts = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8).split("\\|");
+            return new StatementCursor(LocalDateTime.parse(parts[0]), Long.valueOf(parts[1]), new BigDecimal(parts[2]));
+        } catch (IllegalArgumentException | IndexOutOfBoundsException | DateTimeParseException e) {
+            throw new BusinessException("Cursor inválido.");
+        }
+    }
+
+    public static StatementCursor after(StatementLineDTO line) {
+        return new StatementCursor(line.movementDate(), line.id(), line.balance());
+    }
+}
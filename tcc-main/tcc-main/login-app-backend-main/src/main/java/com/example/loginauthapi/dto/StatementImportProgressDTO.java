@@ -0,0 +1,12 @@
+package com.example.loginauthapi.dto;
+
+import java.util.List;
+
+public record StatementImportProgressDTO(long read,
+                                         long imported,
+                                         long duplicates,
+                                         long rejected,
+                                         boolean finished,
+                                         String error,
+                                         List<TransactionBatchItemDTO> rejections) { // index = linha do arquivo
+}
@@ -0,0 +1,11 @@
+package com.example.loginauthapi.dto;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+public record StatementLineDTO(Long id,
+                               String type,
+                               BigDecimal amount,
+                               LocalDateTime movementDate,
+                               BigDecimal balance) { // saldo logo após a movimentação
+}
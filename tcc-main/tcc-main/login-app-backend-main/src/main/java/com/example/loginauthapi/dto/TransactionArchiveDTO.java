@@ -0,0 +1,8 @@
+package com.example.loginauthapi.dto;
+
+public record TransactionArchiveDTO(Long userId,
+                                    Integer year,
+                                    int archivedRows,
+                                    int totalRows,
+                                    String file) {
+}
@@ -0,0 +1,15 @@
+package com.example.loginauthapi.dto;
+
+public record TransactionBatchItemDTO(int index,
+                                      String status, // "CREATED" ou "REJECTED"
+                                      Long transactionId,
+                                      String error) {
+
+    public static TransactionBatchItemDTO created(int index, Long transactionId) {
+        return new TransactionBatchItemDTO(index, "CREATED", transactionId, null);
+    }
+
+    public static TransactionBatchItemDTO rejected(int index, String error) {
+        return new TransactionBatchItemDTO(index, "REJECTED", null, error);
+    }
+}
@@ -0,0 +1,9 @@
+package com.example.loginauthapi.dto;
+
+import java.util.List;
+
+public record TransactionBatchResultDTO(int received,
+                                        int created,
+                                        int rejected,
+                                        List<TransactionBatchItemDTO> items) {
+}
@@ -0,0 +1,23 @@
+package com.example.loginauthapi.dto;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+public record TransactionChangeDTO(long seq,
+                                   String type, // "UPSERT" ou "DELETE"
+                                   Long transactionId,
+                                   TransactionDTO transaction) {
+
+    //usado na consulta do feed com constructor expression, sem carregar as entidades associadas
+    public TransactionChangeDTO(Long seq, Long id, String description, BigDecimal amount, LocalDateTime date,
+                                Long categoryId, String categoryName,
+                                Long transactionTypeId, String transactionType,
+                                Long userId, String userName, String userEmail) {
+        this(seq, "UPSERT", id, new TransactionDTO(id, description, amount, date, categoryId, categoryName,
+                transactionTypeId, transactionType, userId, userName, userEmail));
+    }
+
+    public static TransactionChangeDTO deleted(long seq, Long transactionId) {
+        return new TransactionChangeDTO(seq, "DELETE", transactionId, null);
+    }
+}
@@ -0,0 +1,8 @@
+package com.example.loginauthapi.dto;
+
+import java.util.List;
+
+public record TransactionChangesDTO(List<TransactionChangeDTO> changes,
+                                    long cursor, // maior seq entregue; enviar como since na próxima chamada
+                                    boolean hasMore) {
+}
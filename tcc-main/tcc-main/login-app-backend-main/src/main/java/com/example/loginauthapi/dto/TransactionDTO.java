@@ -31,4 +31,18 @@ public class TransactionDTO {
         this.transactionType = new TransactionTypeDTO(transaction.getTransactionType());
         this.user = new UserDTO(transaction.getUser());
     }
+
+    //usado nas consultas com constructor expression, sem carregar as entidades associadas
+    public TransactionDTO(Long id, String description, BigDecimal amount, LocalDateTime date,
+                          Long categoryId, String categoryName,
+                          Long transactionTypeId, String transactionType,
+                          Long userId, String userName, String userEmail) {
+        this.id = id;
+        this.description = description;
+        this.amount = amount;
+        this.date = date;
+        this.category = new CategoryDTO(categoryId, categoryName);
+        this.transactionType = new TransactionTypeDTO(transactionTypeId, transactionType);
+        this.user = new UserDTO(userId, userName, userEmail);
+    }
 }
@@ -0,0 +1,11 @@
+package com.example.loginauthapi.dto;
+
+import java.time.LocalDate;
+
+public record TransactionFilterDTO(LocalDate from,
+                                   LocalDate to,
+                                   Long transactionTypeId,
+                                   Long categoryId,
+                                   Long accountId,
+                                   String description) {
+}
@@ -0,0 +1,9 @@
+package com.example.loginauthapi.dto;
+
+import java.math.BigDecimal;
+
+public record TransactionTotalDTO(Long categoryId,
+                                  Long transactionTypeId,
+                                  BigDecimal total,
+                                  Long count) {
+}
@@ -14,6 +14,11 @@ public class TransactionTypeDTO {
     public TransactionTypeDTO(){
     }
 
+    public TransactionTypeDTO(Long id, String transactionType) {
+        this.id = id;
+        this.transactionType = transactionType;
+    }
+
     public TransactionTypeDTO(TransactionType transactionType) {
         this.id = transactionType.getId();
         this.transactionType = transactionType.getTransactionType();
@@ -15,6 +15,12 @@ public class UserDTO {
     public UserDTO(){
     }
 
+    public UserDTO(Long id, String name, String email) {
+        this.id = id;
+        this.name = name;
+        this.email = email;
+    }
+
     public UserDTO(User user) {
         this.id = user.getId();
         this.name = user.getName();
@@ -0,0 +1,78 @@
+package com.example.loginauthapi.infra.security;
+
+import com.example.loginauthapi.domain.User;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.function.Function;
+
+/**
+ * Cache dos usuários autenticados, indexado pelo subject (email) do token.
+ * Cada entrada expira junto com o token que a carregou, limitada por um TTL máximo,
+ * evitando um SELECT em users a cada requisição autenticada.
+ */
+@Component
+public class PrincipalCache {
+
+    private final Cache<String, Entry> cache;
+
+    public PrincipalCache(MeterRegistry meterRegistry,
+                          @Value("${api.security.principal-cache.max-size:10000}") long maxSize,
+                          @Value("${api.security.principal-cache.ttl:PT5M}") Duration maxTtl) {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfter(new TokenExpiry(maxTtl))
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "principalCache");
+    }
+
+    //busca o usuário no cache ou carrega pelo loader, expirando junto com o token
+    public User get(String subject, Instant tokenExpiresAt, Function<String, User> loader) {
+        Entry entry = cache.get(subject, key -> new Entry(loader.apply(key), tokenExpiresAt));
+        return entry.user();
+    }
+
+    public void evict(String subject) {
+        cache.invalidate(subject);
+    }
+
+    //remove todas as entradas do usuário, inclusive as indexadas por um email antigo
+    public void evictUser(Long userId) {
+        cache.asMap().values().removeIf(entry -> entry.user().getId().equals(userId));
+    }
+
+    private record Entry(User user, Instant expiresAt) { }
+
+    private static class TokenExpiry implements Expiry<String, Entry> {
+        private final long maxTtlNanos;
+
+        TokenExpiry(Duration maxTtl) {
+            this.maxTtlNanos = maxTtl.toNanos();
+        }
+
+        @Override
+        public long expireAfterCreate(String key, Entry entry, long currentTime) {
+            if (entry.expiresAt() == null) return maxTtlNanos;
+            long untilTokenExpires = Duration.between(Instant.now(), entry.expiresAt()).toNanos();
+            return Math.max(0, Math.min(maxTtlNanos, untilTokenExpires));
+        }
+
+        @Override
+        public long expireAfterUpdate(String key, Entry entry, long currentTime, long currentDuration) {
+            return expireAfterCreate(key, entry, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(String key, Entry entry, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+}
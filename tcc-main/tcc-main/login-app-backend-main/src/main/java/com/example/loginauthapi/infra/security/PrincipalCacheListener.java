@@ -0,0 +1,21 @@
+package com.example.loginauthapi.infra.security;
+
+import com.example.loginauthapi.domain.User;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+//invalida o cache de autenticação quando email ou senha do usuário mudam
+@Component
+public class PrincipalCacheListener {
+
+    @Autowired
+    private PrincipalCache principalCache;
+
+    @PostUpdate
+    @PostRemove
+    public void evict(User user) {
+        principalCache.evictUser(user.getId());
+    }
+}
@@ -1,5 +1,6 @@
 package com.example.loginauthapi.infra.security;
 
+import jakarta.servlet.DispatcherType;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -38,6 +39,8 @@ public class SecurityConfig {
                         .requestMatchers(HttpMethod.POST, "/auth/register").permitAll()
                         .requestMatchers(HttpMethod.POST, "/account").permitAll()
                         .requestMatchers(HttpMethod.OPTIONS, "/**").permitAll()
+                        // Dispatch assíncrono das exportações (já autorizadas no request original)
+                        .dispatcherTypeMatchers(DispatcherType.ASYNC).permitAll()
 
                         // Documentação Swagger
                         .requestMatchers(
@@ -46,6 +49,14 @@ public class SecurityConfig {
                                 "/swagger-ui.html"
                         ).permitAll()
 
+                        // Manutenção e conferências que cobrem os dados de todos os usuários: só administradores
+                        .requestMatchers(HttpMethod.POST, "/transactions/archive").hasRole("ADMIN")
+                        .requestMatchers(HttpMethod.POST, "/movements/partitions/**").hasRole("ADMIN")
+                        .requestMatchers(HttpMethod.POST, "/account/reconciliation").hasRole("ADMIN")
+                        .requestMatchers(HttpMethod.GET, "/account/reconciliation").hasRole("ADMIN")
+                        .requestMatchers(HttpMethod.POST, "/reports/rollup/rebuild").hasRole("ADMIN")
+                        .requestMatchers(HttpMethod.GET, "/reports/rollup/drift").hasRole("ADMIN")
+
                         // Demais endpoints protegidos
                         .anyRequest().authenticated()
                 )
@@ -61,6 +72,7 @@ public class SecurityConfig {
         configuration.setAllowedOrigins(Arrays.asList("http://localhost:3000"));
         configuration.setAllowedMethods(Arrays.asList("GET", "POST", "PUT", "DELETE", "PATCH", "OPTIONS"));
         configuration.setAllowedHeaders(Arrays.asList("Authorization", "Content-Type", "Accept"));
+        configuration.setExposedHeaders(Arrays.asList("X-Next-Cursor"));
         configuration.setAllowCredentials(true);
         configuration.setMaxAge(3600L);
 
@@ -1,7 +1,29 @@
 package com.example.loginauthapi.repositories;
 
 import com.example.loginauthapi.domain.Account;
+import com.example.loginauthapi.dto.AccountResponseDTO;
+import jakarta.persistence.LockModeType;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
 
-public interface AccountRepository extends JpaRepository<Account, Long> {
+import java.util.Collection;
+import java.util.List;
+
+public interface AccountRepository extends JpaRepository<Account, Long>, AccountRepositoryCustom {
+
+    @Query("select new com.example.loginauthapi.dto.AccountResponseDTO(a.id, a.name, a.bank, a.balance) from Account a order by a.id")
+    List<AccountResponseDTO> findAllBalances();
+
+    @Query("select a.id from Account a order by a.id")
+    List<Long> findAllIds();
+
+    //contas do titular, identificadas pelo CPF
+    @Query("select a.id from Account a where a.cpf = :cpf order by a.id")
+    List<Long> findIdsByCpf(String cpf);
+
+    //bloqueia as contas (SELECT ... FOR UPDATE) sempre na mesma ordem, evitando deadlock
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select a from Account a where a.id in :ids order by a.id")
+    List<Account> findAllForUpdate(Collection<Long> ids);
 }
@@ -0,0 +1,21 @@
+package com.example.loginauthapi.repositories;
+
+import com.example.loginauthapi.domain.Account;
+
+import java.math.BigDecimal;
+import java.util.Optional;
+
+public interface AccountRepositoryCustom {
+
+    /**
+     * Soma o valor ao saldo com um único UPDATE no banco, incrementando a versão.
+     * Retorna a conta já com o novo saldo e a nova versão (desanexada) ou vazio se a conta não existir.
+     */
+    Optional<Account> addToBalance(Long id, BigDecimal value);
+
+    /**
+     * Subtrai o valor do saldo somente se houver saldo suficiente, com um único UPDATE condicional.
+     * Retorna vazio se nenhuma linha foi afetada (conta inexistente ou saldo insuficiente).
+     */
+    Optional<Account> subtractFromBalance(Long id, BigDecimal value);
+}
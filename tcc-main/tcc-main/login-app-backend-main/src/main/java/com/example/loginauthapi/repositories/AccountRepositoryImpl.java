@@ -0,0 +1,82 @@
+package com.example.loginauthapi.repositories;
+
+import com.example.loginauthapi.domain.Account;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.hibernate.dialect.PostgreSQLDialect;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+
+public class AccountRepositoryImpl implements AccountRepositoryCustom {
+
+    private static final String COLUMNS = "id, name, cpf, date_of_birth, bank, balance, version";
+
+    private static final String DEPOSIT = "UPDATE tb_account SET balance = COALESCE(balance, 0) + :value, version = version + 1 WHERE id = :id";
+
+    // A condição no WHERE garante o saldo sem lock explícito: se não houver saldo, nenhuma linha é afetada
+    private static final String WITHDRAW = "UPDATE tb_account SET balance = COALESCE(balance, 0) - :value, version = version + 1 " +
+            "WHERE id = :id AND COALESCE(balance, 0) >= :value";
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private volatile Boolean postgres;
+
+    @Override
+    public Optional<Account> addToBalance(Long id, BigDecimal value) {
+        return updateReturning(DEPOSIT, id, value);
+    }
+
+    @Override
+    public Optional<Account> subtractFromBalance(Long id, BigDecimal value) {
+        return updateReturning(WITHDRAW, id, value);
+    }
+
+    //executa o UPDATE e lê a linha resultante no mesmo comando
+    private Optional<Account> updateReturning(String update, Long id, BigDecimal value) {
+        // PostgreSQL usa UPDATE ... RETURNING; H2 usa a tabela delta FINAL TABLE
+        String sql = isPostgres()
+                ? update + " RETURNING " + COLUMNS
+                : "SELECT " + COLUMNS + " FROM FINAL TABLE (" + update + ")";
+
+        @SuppressWarnings("unchecked")
+        List<Object[]> rows = entityManager.createNativeQuery(sql)
+                .setParameter("id", id)
+                .setParameter("value", value)
+                .getResultList();
+        return rows.stream().findFirst().map(this::toAccount);
+    }
+
+    private Account toAccount(Object[] row) {
+        Account account = new Account(
+                ((Number) row[0]).longValue(),
+                (String) row[1],
+                (String) row[2],
+                toLocalDate(row[3]),
+                (String) row[4],
+                (BigDecimal) row[5]
+        );
+        account.setVersion(((Number) row[6]).longValue());
+        return account;
+    }
+
+    private LocalDate toLocalDate(Object value) {
+        if (value instanceof Date date) return date.toLocalDate();
+        return (LocalDate) value;
+    }
+
+    private boolean isPostgres() {
+        if (postgres == null) {
+            postgres = entityManager.getEntityManagerFactory()
+                    .unwrap(SessionFactoryImplementor.class)
+                    .getJdbcServices()
+                    .getDialect() instanceof PostgreSQLDialect;
+        }
+        return postgres;
+    }
+}
@@ -0,0 +1,31 @@
+package com.example.loginauthapi.repositories;
+
+import com.example.loginauthapi.domain.BalanceCheckpoint;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+public interface BalanceCheckpointRepository extends JpaRepository<BalanceCheckpoint, Long> {
+
+    //checkpoint mais próximo antes (ou no) instante informado
+    Optional<BalanceCheckpoint> findFirstByAccountIdAndCheckpointAtLessThanEqualOrderByCheckpointAtDesc(Long accountId, LocalDateTime at);
+
+    //checkpoint mais próximo depois do instante informado
+    Optional<BalanceCheckpoint> findFirstByAccountIdAndCheckpointAtGreaterThanOrderByCheckpointAtAsc(Long accountId, LocalDateTime at);
+
+    Optional<BalanceCheckpoint> findFirstByAccountIdOrderByCheckpointAtDesc(Long accountId);
+
+    boolean existsByAccountIdAndCheckpointAt(Long accountId, LocalDateTime checkpointAt);
+
+    //checkpoints a partir do instante informado, do mais antigo ao mais recente
+    List<BalanceCheckpoint> findByAccountIdAndCheckpointAtGreaterThanEqualOrderByCheckpointAtAsc(Long accountId, LocalDateTime from);
+
+    @Modifying
+    @Query("update BalanceCheckpoint c set c.balance = c.balance + :delta where c.accountId = :accountId and c.checkpointAt >= :from")
+    int shiftFrom(Long accountId, LocalDateTime from, BigDecimal delta);
+}
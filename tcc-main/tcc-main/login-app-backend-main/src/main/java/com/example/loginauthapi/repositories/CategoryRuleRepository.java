@@ -0,0 +1,14 @@
+package com.example.loginauthapi.repositories;
+
+import com.example.loginauthapi.domain.CategoryRule;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+
+import java.util.List;
+
+public interface CategoryRuleRepository extends JpaRepository<CategoryRule, Long> {
+
+    //regras do sistema e as do usuário
+    @Query("select r from CategoryRule r where r.userId is null or r.userId = :userId order by r.id")
+    List<CategoryRule> findVisibleTo(Long userId);
+}
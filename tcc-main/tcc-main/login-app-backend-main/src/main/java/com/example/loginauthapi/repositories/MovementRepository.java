@@ -1,14 +1,75 @@
 package com.example.loginauthapi.repositories;
 
 import com.example.loginauthapi.domain.Movement;
-import com.example.loginauthapi.domain.Account;
+import com.example.loginauthapi.dto.ConsolidatedMovementDTO;
+import com.example.loginauthapi.dto.MovementDTO;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE;
+import static org.hibernate.jpa.HibernateHints.HINT_READ_ONLY;
 
 @Repository
-public interface MovementRepository extends JpaRepository<Movement, Long> {
-    List<Movement> findByAccount(Account account);
-}
+public interface MovementRepository extends JpaRepository<Movement, Long>, MovementRepositoryCustom {
+    String DTO_SELECT = "select new com.example.loginauthapi.dto.MovementDTO(m.id, m.type, m.amount, m.movementDate) from Movement m";
+
+    //primeira página do extrato no período [from, to), ordenada por (movementDate, id)
+    @Query(DTO_SELECT + """
+             where m.account.id = :accountId and m.movementDate >= :from and m.movementDate < :to
+            order by m.movementDate, m.id""")
+    List<MovementDTO> findStatementPage(Long accountId, LocalDateTime from, LocalDateTime to, Pageable pageable);
+
+    //páginas seguintes: continua depois do último (movementDate, id) retornado
+    @Query(DTO_SELECT + """
+             where m.account.id = :accountId and m.movementDate >= :from and m.movementDate < :to
+              and (m.movementDate > :cursorDate or (m.movementDate = :cursorDate and m.id > :cursorId))
+            order by m.movementDate, m.id""")
+    List<MovementDTO> findStatementPageAfter(Long accountId, LocalDateTime from, LocalDateTime to,
+                                             LocalDateTime cursorDate, Long cursorId, Pageable pageable);
+
+    //cursor somente-leitura para exportação, sem carregar o histórico inteiro em memória
+    @QueryHints({@QueryHint(name = HINT_FETCH_SIZE, value = "500"), @QueryHint(name = HINT_READ_ONLY, value = "true")})
+    @Query("""
+            select new com.example.loginauthapi.dto.MovementDTO(m.id, m.type, m.amount, m.movementDate)
+            from Movement m
+            where m.account.id = :accountId
+            order by m.movementDate, m.id""")
+    Stream<MovementDTO> streamByAccount(Long accountId);
 
+    //cursor ordenado de uma conta para o extrato consolidado, continuando depois de (cursorDate, cursorId)
+    @QueryHints({@QueryHint(name = HINT_FETCH_SIZE, value = "100"), @QueryHint(name = HINT_READ_ONLY, value = "true")})
+    @Query("""
+            select new com.example.loginauthapi.dto.ConsolidatedMovementDTO(m.account.id, m.id, m.type, m.amount, m.movementDate)
+            from Movement m
+            where m.account.id = :accountId and m.movementDate >= :from and m.movementDate < :to
+              and (m.movementDate > :cursorDate or (m.movementDate = :cursorDate and m.id > :cursorId))
+            order by m.movementDate, m.id""")
+    Stream<ConsolidatedMovementDTO> streamStatement(Long accountId, LocalDateTime from, LocalDateTime to,
+                                                    LocalDateTime cursorDate, Long cursorId);
+
+    //variação do saldo (depósitos - saques) no intervalo (from, to]
+    @Query("""
+            select coalesce(sum(case when m.type = 'WITHDRAW' then -m.amount else m.amount end), 0)
+            from Movement m
+            where m.account.id = :accountId and m.movementDate > :from and m.movementDate <= :to""")
+    BigDecimal sumBetween(Long accountId, LocalDateTime from, LocalDateTime to);
+
+    //variação do saldo (depósitos - saques) depois do instante informado
+    @Query("""
+            select coalesce(sum(case when m.type = 'WITHDRAW' then -m.amount else m.amount end), 0)
+            from Movement m
+            where m.account.id = :accountId and m.movementDate > :from""")
+    BigDecimal sumAfter(Long accountId, LocalDateTime from);
+
+    //existe movimentação no intervalo (from, to]
+    boolean existsByAccountIdAndMovementDateGreaterThanAndMovementDateLessThanEqual(Long accountId, LocalDateTime from, LocalDateTime to);
+}
@@ -0,0 +1,13 @@
+package com.example.loginauthapi.repositories;
+
+import com.example.loginauthapi.dto.StatementCursor;
+import com.example.loginauthapi.dto.StatementLineDTO;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+public interface MovementRepositoryCustom {
+    List<StatementLineDTO> findStatementWithBalance(Long accountId, LocalDateTime from, LocalDateTime to,
+                                                    StatementCursor after, BigDecimal openingBalance, int limit);
+}
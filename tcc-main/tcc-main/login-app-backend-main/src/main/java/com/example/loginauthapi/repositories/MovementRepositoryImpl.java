@@ -0,0 +1,65 @@
+package com.example.loginauthapi.repositories;
+
+import com.example.loginauthapi.dto.StatementCursor;
+import com.example.loginauthapi.dto.StatementLineDTO;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.Query;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+
+public class MovementRepositoryImpl implements MovementRepositoryCustom {
+
+    // Saldo corrente calculado no banco, partindo do saldo de abertura da página
+    private static final String STATEMENT_SELECT = """
+            SELECT id, type, amount, movement_date,
+                   CAST(:opening AS NUMERIC(19,2)) + SUM(CASE WHEN type = 'WITHDRAW' THEN -amount ELSE amount END)
+                       OVER (ORDER BY movement_date, id ROWS BETWEEN UNBOUNDED PRECEDING AND CURRENT ROW) AS balance
+            FROM tb_movements
+            WHERE account_id = :accountId AND movement_date >= :from AND movement_date < :to""";
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    //uma página do extrato com o saldo após cada movimentação, ordenada por (movement_date, id)
+    @Override
+    public List<StatementLineDTO> findStatementWithBalance(Long accountId, LocalDateTime from, LocalDateTime to,
+                                                           StatementCursor after, BigDecimal openingBalance, int limit) {
+        String sql = STATEMENT_SELECT;
+        if (after != null) {
+            // A janela só enxerga as linhas depois do cursor, por isso a abertura é o saldo do cursor
+            sql += " AND (movement_date > :cursorDate OR (movement_date = :cursorDate AND id > :cursorId))";
+        }
+        sql += " ORDER BY movement_date, id";
+
+        Query query = entityManager.createNativeQuery(sql)
+                .setParameter("opening", openingBalance)
+                .setParameter("accountId", accountId)
+                .setParameter("from", from)
+                .setParameter("to", to)
+                .setMaxResults(limit);
+        if (after != null) {
+            query.setParameter("cursorDate", after.date());
+            query.setParameter("cursorId", after.id());
+        }
+
+        @SuppressWarnings("unchecked")
+        List<Object[]> rows = query.getResultList();
+        return rows.stream()
+                .map(row -> new StatementLineDTO(
+                        ((Number) row[0]).longValue(),
+                        (String) row[1],
+                        (BigDecimal) row[2],
+                        toLocalDateTime(row[3]),
+                        (BigDecimal) row[4]))
+                .toList();
+    }
+
+    private LocalDateTime toLocalDateTime(Object value) {
+        if (value instanceof Timestamp timestamp) return timestamp.toLocalDateTime();
+        return (LocalDateTime) value;
+    }
+}
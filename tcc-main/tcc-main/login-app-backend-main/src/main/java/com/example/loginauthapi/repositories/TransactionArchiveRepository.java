@@ -0,0 +1,23 @@
+package com.example.loginauthapi.repositories;
+
+import com.example.loginauthapi.domain.TransactionArchive;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+public interface TransactionArchiveRepository extends JpaRepository<TransactionArchive, Long> {
+
+    Optional<TransactionArchive> findByUserIdAndArchiveYear(Long userId, Integer archiveYear);
+
+    List<TransactionArchive> findByUserId(Long userId);
+
+    //arquivos do usuário com alguma transação no período [from, to), do ano mais recente para o mais antigo
+    @Query("""
+            select a from TransactionArchive a
+            where a.userId = :userId and a.minDate < :to and a.maxDate >= :from
+            order by a.archiveYear desc""")
+    List<TransactionArchive> findOverlapping(Long userId, LocalDateTime from, LocalDateTime to);
+}
@@ -0,0 +1,65 @@
+package com.example.loginauthapi.repositories;
+
+import com.example.loginauthapi.domain.TransactionMonthlyRollup;
+import com.example.loginauthapi.domain.TransactionMonthlyRollupId;
+import com.example.loginauthapi.dto.RollupRowDTO;
+import com.example.loginauthapi.dto.RollupTotalDTO;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+
+import java.util.List;
+
+public interface TransactionMonthlyRollupRepository extends JpaRepository<TransactionMonthlyRollup, TransactionMonthlyRollupId>,
+        TransactionMonthlyRollupRepositoryCustom {
+
+    //totais do usuário por mês, categoria e tipo entre dois meses (yyyyMM, inclusive)
+    @Query("""
+            select new com.example.loginauthapi.dto.RollupTotalDTO(
+                r.id.yearMonth, r.id.categoryId, r.id.transactionTypeId, sum(r.totalAmount), sum(r.transactionCount))
+            from TransactionMonthlyRollup r
+            where r.id.userId = :userId and r.id.yearMonth >= :fromYearMonth and r.id.yearMonth <= :toYearMonth
+            group by r.id.yearMonth, r.id.categoryId, r.id.transactionTypeId
+            order by r.id.yearMonth""")
+    List<RollupTotalDTO> sumByMonth(Long userId, Integer fromYearMonth, Integer toYearMonth);
+
+    @Query("""
+            select new com.example.loginauthapi.dto.RollupRowDTO(
+                r.id.userId, r.id.yearMonth, r.id.categoryId, r.id.transactionTypeId, r.id.accountId,
+                r.totalAmount, r.transactionCount)
+            from TransactionMonthlyRollup r""")
+    List<RollupRowDTO> findAllRows();
+
+    //valores esperados, recalculados direto da tabela transactions
+    @Query("""
+            select new com.example.loginauthapi.dto.RollupRowDTO(
+                t.user.id, year(t.date) * 100 + month(t.date), t.category.id, t.transactionType.id,
+                coalesce(t.account.id, 0L), sum(t.amount), count(t))
+            from Transaction t
+            group by t.user.id, year(t.date) * 100 + month(t.date), t.category.id, t.transactionType.id,
+                coalesce(t.account.id, 0L)""")
+    List<RollupRowDTO> computeRowsFromTransactions();
+
+    @Modifying
+    @Query(value = "DELETE FROM transaction_monthly_rollup", nativeQuery = true)
+    int deleteAllRows();
+
+    @Modifying
+    @Query(value = """
+            INSERT INTO transaction_monthly_rollup
+                (user_id, year_month, category_id, transaction_type_id, account_id, total_amount, transaction_count)
+            SELECT user_id,
+                   CAST(EXTRACT(YEAR FROM date) AS INTEGER) * 100 + CAST(EXTRACT(MONTH FROM date) AS INTEGER),
+                   category_id,
+                   transaction_type_id,
+                   COALESCE(account_id, 0),
+                   SUM(amount),
+                   COUNT(*)
+            FROM transactions
+            GROUP BY user_id,
+                     CAST(EXTRACT(YEAR FROM date) AS INTEGER) * 100 + CAST(EXTRACT(MONTH FROM date) AS INTEGER),
+                     category_id,
+                     transaction_type_id,
+                     COALESCE(account_id, 0)""", nativeQuery = true)
+    int insertRowsFromTransactions();
+}
@@ -0,0 +1,12 @@
+package com.example.loginauthapi.repositories;
+
+import com.example.loginauthapi.domain.TransactionMonthlyRollupId;
+
+import java.math.BigDecimal;
+
+public interface TransactionMonthlyRollupRepositoryCustom {
+    void applyDelta(TransactionMonthlyRollupId id, BigDecimal amount, long count);
+
+    //bloqueia escritas no rollup até o fim da transação corrente (usado pela reconstrução)
+    void lockForRebuild();
+}
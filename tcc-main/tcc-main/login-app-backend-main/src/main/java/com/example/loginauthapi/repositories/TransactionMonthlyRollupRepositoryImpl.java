@@ -0,0 +1,75 @@
+package com.example.loginauthapi.repositories;
+
+import com.example.loginauthapi.domain.TransactionMonthlyRollupId;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.hibernate.dialect.PostgreSQLDialect;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+
+import java.math.BigDecimal;
+
+public class TransactionMonthlyRollupRepositoryImpl implements TransactionMonthlyRollupRepositoryCustom {
+
+    // Upsert atômico: soma o delta à linha existente ou cria a linha
+    private static final String POSTGRES_UPSERT = """
+            INSERT INTO transaction_monthly_rollup
+                (user_id, year_month, category_id, transaction_type_id, account_id, total_amount, transaction_count)
+            VALUES (:userId, :yearMonth, :categoryId, :typeId, :accountId, :amount, :count)
+            ON CONFLICT (user_id, year_month, category_id, transaction_type_id, account_id) DO UPDATE
+            SET total_amount = transaction_monthly_rollup.total_amount + EXCLUDED.total_amount,
+                transaction_count = transaction_monthly_rollup.transaction_count + EXCLUDED.transaction_count""";
+
+    // H2 (perfil de testes/local) não tem ON CONFLICT ... DO UPDATE, mas suporta MERGE padrão
+    private static final String STANDARD_MERGE = """
+            MERGE INTO transaction_monthly_rollup r
+            USING (VALUES (CAST(:userId AS BIGINT), CAST(:yearMonth AS INTEGER), CAST(:categoryId AS BIGINT),
+                           CAST(:typeId AS BIGINT), CAST(:accountId AS BIGINT), CAST(:amount AS NUMERIC(19,2)), CAST(:count AS BIGINT)))
+                AS d (user_id, year_month, category_id, transaction_type_id, account_id, total_amount, transaction_count)
+            ON r.user_id = d.user_id AND r.year_month = d.year_month AND r.category_id = d.category_id
+               AND r.transaction_type_id = d.transaction_type_id AND r.account_id = d.account_id
+            WHEN MATCHED THEN UPDATE SET total_amount = r.total_amount + d.total_amount,
+                                         transaction_count = r.transaction_count + d.transaction_count
+            WHEN NOT MATCHED THEN INSERT (user_id, year_month, category_id, transaction_type_id, account_id, total_amount, transaction_count)
+                VALUES (d.user_id, d.year_month, d.category_id, d.transaction_type_id, d.account_id, d.total_amount, d.transaction_count)""";
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private volatile String upsertSql;
+
+    @Override
+    public void applyDelta(TransactionMonthlyRollupId id, BigDecimal amount, long count) {
+        entityManager.createNativeQuery(upsertSql())
+                .setParameter("userId", id.getUserId())
+                .setParameter("yearMonth", id.getYearMonth())
+                .setParameter("categoryId", id.getCategoryId())
+                .setParameter("typeId", id.getTransactionTypeId())
+                .setParameter("accountId", id.getAccountId())
+                .setParameter("amount", amount)
+                .setParameter("count", count)
+                .executeUpdate();
+    }
+
+    @Override
+    public void lockForRebuild() {
+        // EXCLUSIVE espera os lançamentos em andamento e bloqueia novos applyDelta até o commit, mas não as leituras.
+        // O H2 (perfil de testes/local) não tem LOCK TABLE; lá a reconstrução não é protegida contra escritas concorrentes
+        if (isPostgres()) {
+            entityManager.createNativeQuery("LOCK TABLE transaction_monthly_rollup IN EXCLUSIVE MODE").executeUpdate();
+        }
+    }
+
+    private String upsertSql() {
+        if (upsertSql == null) {
+            upsertSql = isPostgres() ? POSTGRES_UPSERT : STANDARD_MERGE;
+        }
+        return upsertSql;
+    }
+
+    private boolean isPostgres() {
+        return entityManager.getEntityManagerFactory()
+                .unwrap(SessionFactoryImplementor.class)
+                .getJdbcServices()
+                .getDialect() instanceof PostgreSQLDialect;
+    }
+}
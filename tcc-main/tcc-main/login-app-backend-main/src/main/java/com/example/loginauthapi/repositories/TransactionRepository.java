@@ -1,7 +1,105 @@
 package com.example.loginauthapi.repositories;
 
 import com.example.loginauthapi.domain.Transaction;
+import com.example.loginauthapi.dto.ArchivedTransactionDTO;
+import com.example.loginauthapi.dto.TransactionChangeDTO;
+import com.example.loginauthapi.dto.TransactionDTO;
+import com.example.loginauthapi.dto.TransactionTotalDTO;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 
-public interface TransactionRepository extends JpaRepository<Transaction, Long> {
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE;
+import static org.hibernate.jpa.HibernateHints.HINT_READ_ONLY;
+
+public interface TransactionRepository extends JpaRepository<Transaction, Long>, TransactionRepositoryCustom {
+
+    //monta o TransactionDTO direto na consulta, em um único SELECT com joins
+    String DTO_SELECT = """
+            select new com.example.loginauthapi.dto.TransactionDTO(
+                t.id, t.description, t.amount, t.date,
+                c.id, c.categoryName,
+                tt.id, tt.transactionType,
+                u.id, u.name, u.email)
+            from Transaction t
+            join t.category c
+            join t.transactionType tt
+            join t.user u""";
+
+    @Query(DTO_SELECT + " where t.id = :id")
+    Optional<TransactionDTO> findDtoById(Long id);
+
+    //cursor somente-leitura para exportação, sem carregar o histórico inteiro em memória
+    @QueryHints({@QueryHint(name = HINT_FETCH_SIZE, value = "500"), @QueryHint(name = HINT_READ_ONLY, value = "true")})
+    @Query(DTO_SELECT + " where t.user.id = :userId order by t.date, t.id")
+    Stream<TransactionDTO> streamByUser(Long userId);
+
+    //soma e contagem por categoria e tipo no período [from, to)
+    @Query("""
+            select new com.example.loginauthapi.dto.TransactionTotalDTO(
+                t.category.id, t.transactionType.id, sum(t.amount), count(t))
+            from Transaction t
+            where t.user.id = :userId and t.date >= :from and t.date < :to
+            group by t.category.id, t.transactionType.id""")
+    List<TransactionTotalDTO> sumByCategoryAndType(Long userId, LocalDateTime from, LocalDateTime to);
+
+    //transações mais recentes dos tipos informados no período [from, to)
+    @Query(DTO_SELECT + " where t.user.id = :userId and tt.id in :typeIds and t.date >= :from and t.date < :to"
+            + " order by t.date desc, t.id desc")
+    List<TransactionDTO> findLatestByTypes(Long userId, Collection<Long> typeIds, LocalDateTime from, LocalDateTime to, Pageable pageable);
+
+    //usuários com transações anteriores à data de corte do arquivamento
+    @Query("select distinct t.user.id from Transaction t where t.date < :cutoff")
+    List<Long> findUserIdsWithTransactionsBefore(LocalDateTime cutoff);
+
+    @Query("select distinct year(t.date) from Transaction t where t.user.id = :userId and t.date < :cutoff")
+    List<Integer> findYearsBefore(Long userId, LocalDateTime cutoff);
+
+    //linhas a arquivar do usuário no período [from, to), só com os ids das associações
+    @Query("""
+            select new com.example.loginauthapi.dto.ArchivedTransactionDTO(
+                t.id, t.description, t.amount, t.date, t.category.id, t.transactionType.id, a.id)
+            from Transaction t
+            left join t.account a
+            where t.user.id = :userId and t.date >= :from and t.date < :to
+            order by t.date, t.id""")
+    List<ArchivedTransactionDTO> findArchivable(Long userId, LocalDateTime from, LocalDateTime to);
+
+    @Modifying
+    @Query("delete from Transaction t where t.id in :ids")
+    int deleteAllByIdIn(Collection<Long> ids);
+
+    //transações do usuário incluídas ou alteradas depois do cursor, na ordem da sequência
+    @Query("""
+            select new com.example.loginauthapi.dto.TransactionChangeDTO(
+                t.changeSeq, t.id, t.description, t.amount, t.date,
+                c.id, c.categoryName,
+                tt.id, tt.transactionType,
+                u.id, u.name, u.email)
+            from Transaction t
+            join t.category c
+            join t.transactionType tt
+            join t.user u
+            where u.id = :userId and t.changeSeq > :since
+            order by t.changeSeq""")
+    List<TransactionChangeDTO> findChangesSince(Long userId, long since, Pageable pageable);
+
+    @Modifying
+    @Query(value = "INSERT INTO transaction_tombstones (user_id, change_seq, transaction_id, deleted_at)"
+            + " VALUES (:userId, :changeSeq, :transactionId, :deletedAt)", nativeQuery = true)
+    int insertTombstone(Long userId, long changeSeq, Long transactionId, LocalDateTime deletedAt);
+
+    //exclusões do usuário depois do cursor, na ordem da sequência: [change_seq, transaction_id]
+    @Query(value = "SELECT change_seq, transaction_id FROM transaction_tombstones"
+            + " WHERE user_id = :userId AND change_seq > :since ORDER BY change_seq", nativeQuery = true)
+    List<Object[]> findTombstonesSince(Long userId, long since, Pageable pageable);
 }
@@ -0,0 +1,11 @@
+package com.example.loginauthapi.repositories;
+
+import com.example.loginauthapi.dto.TransactionCursor;
+import com.example.loginauthapi.dto.TransactionDTO;
+import com.example.loginauthapi.dto.TransactionFilterDTO;
+
+import java.util.List;
+
+public interface TransactionRepositoryCustom {
+    List<TransactionDTO> findPage(Long userId, TransactionFilterDTO filter, TransactionCursor after, int limit);
+}
@@ -0,0 +1,66 @@
+package com.example.loginauthapi.repositories;
+
+import com.example.loginauthapi.dto.TransactionCursor;
+import com.example.loginauthapi.dto.TransactionDTO;
+import com.example.loginauthapi.dto.TransactionFilterDTO;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.TypedQuery;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+public class TransactionRepositoryImpl implements TransactionRepositoryCustom {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    //monta a consulta apenas com os filtros informados, ordenada por (date desc, id desc)
+    @Override
+    public List<TransactionDTO> findPage(Long userId, TransactionFilterDTO filter, TransactionCursor after, int limit) {
+        StringBuilder jpql = new StringBuilder(TransactionRepository.DTO_SELECT + " where t.user.id = :userId");
+        Map<String, Object> params = new HashMap<>();
+        params.put("userId", userId);
+
+        if (filter.from() != null) {
+            jpql.append(" and t.date >= :from");
+            params.put("from", filter.from().atStartOfDay());
+        }
+        if (filter.to() != null) {
+            jpql.append(" and t.date < :to");
+            params.put("to", filter.to().plusDays(1).atStartOfDay());
+        }
+        if (filter.transactionTypeId() != null) {
+            jpql.append(" and tt.id = :typeId");
+            params.put("typeId", filter.transactionTypeId());
+        }
+        if (filter.categoryId() != null) {
+            jpql.append(" and c.id = :categoryId");
+            params.put("categoryId", filter.categoryId());
+        }
+        if (filter.accountId() != null) {
+            jpql.append(" and t.account.id = :accountId");
+            params.put("accountId", filter.accountId());
+        }
+        if (filter.description() != null && !filter.description().isBlank()) {
+            // % e _ digitados pelo usuário são literais, como no filtro do arquivo frio
+            jpql.append(" and lower(t.description) like :description escape '\\'");
+            params.put("description", "%" + escapeLike(filter.description().trim().toLowerCase()) + "%");
+        }
+        if (after != null) {
+            jpql.append(" and (t.date < :cursorDate or (t.date = :cursorDate and t.id < :cursorId))");
+            params.put("cursorDate", after.date());
+            params.put("cursorId", after.id());
+        }
+        jpql.append(" order by t.date desc, t.id desc");
+
+        TypedQuery<TransactionDTO> query = entityManager.createQuery(jpql.toString(), TransactionDTO.class);
+        params.forEach(query::setParameter);
+        return query.setMaxResults(limit).getResultList();
+    }
+
+    private static String escapeLike(String value) {
+        return value.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+    }
+}
@@ -2,11 +2,27 @@ package com.example.loginauthapi.repositories;
 
 import com.example.loginauthapi.domain.User;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface UserRepository extends JpaRepository<User, Long> {
     Optional<User> findByEmail(String email);
+
+    //ids que existem entre os informados, em uma única consulta
+    @Query("select u.id from User u where u.id in :ids")
+    List<Long> findExistingIds(Collection<Long> ids);
+
+    //avança a sequência de alterações do usuário; a linha fica bloqueada até o commit
+    @Modifying
+    @Query(value = "UPDATE users SET change_seq = change_seq + :count WHERE id = :userId", nativeQuery = true)
+    int advanceChangeSeq(Long userId, long count);
+
+    @Query(value = "SELECT change_seq FROM users WHERE id = :userId", nativeQuery = true)
+    Long findChangeSeq(Long userId);
 }
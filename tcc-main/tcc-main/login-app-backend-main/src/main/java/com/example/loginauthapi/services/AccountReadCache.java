@@ -0,0 +1,117 @@
+package com.example.loginauthapi.services;
+
+import com.example.loginauthapi.domain.Account;
+import com.example.loginauthapi.dto.AccountResponseDTO;
+import com.example.loginauthapi.dto.AccountResponseFullDTO;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Cache de leitura das contas com o JSON já serializado (GET /account/{id} e GET /account).
+ * As escritas do AccountService, do motor de lançamentos e do lote de transações gravam o novo
+ * estado aqui após o commit (write-through), então leituras repetidas não vão ao banco nem
+ * serializam de novo. Cada entrada guarda a versão da conta: uma gravação só substitui a entrada
+ * se for mais nova, o que mantém o cache correto quando commits concorrentes chegam fora de ordem.
+ */
+@Component
+public class AccountReadCache {
+
+    private final Cache<Long, Entry> accounts;
+    private final ObjectMapper objectMapper;
+
+    // Muda a cada escrita; começa no relógio para um ETag da lista não se repetir após reiniciar a aplicação
+    private final AtomicLong generation = new AtomicLong(System.currentTimeMillis());
+    private volatile Entry list;
+
+    // Representação pronta para a resposta: ETag e corpo JSON
+    public record CachedJson(String etag, byte[] json) { }
+
+    // version é a versão da conta, ou a geração em que a lista foi carregada
+    private record Entry(long version, CachedJson json) { }
+
+    public AccountReadCache(ObjectMapper objectMapper, MeterRegistry meterRegistry,
+                            @Value("${api.accounts.cache.max-size:10000}") long maxSize) {
+        this.objectMapper = objectMapper;
+        this.accounts = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, accounts, "accountCache");
+    }
+
+    //conta pelo cache ou carregada pelo loader, que deve lançar ResourceNotFoundException se ela não existir
+    public CachedJson get(Long id, Function<Long, Account> loader) {
+        return accounts.get(id, key -> toEntry(loader.apply(key))).json();
+    }
+
+    //lista de contas pelo cache, recarregada pelo loader se alguma conta mudou desde a última leitura
+    public CachedJson list(Supplier<List<AccountResponseDTO>> loader) {
+        // A geração é lida antes da consulta: uma escrita durante a carga deixa a lista já vencida
+        long current = generation.get();
+        Entry cached = list;
+        if (cached != null && cached.version() == current) {
+            return cached.json();
+        }
+        Entry fresh = new Entry(current, new CachedJson("\"" + current + "\"", serialize(loader.get())));
+        list = fresh;
+        return fresh.json();
+    }
+
+    //grava o estado da conta após o commit da transação corrente (ou na hora, sem transação)
+    public void put(Account account) {
+        afterCommit(() -> {
+            Entry next = toEntry(account);
+            accounts.asMap().merge(account.getId(), next, (current, candidate) ->
+                    candidate.version() > current.version() ? candidate : current);
+            generation.incrementAndGet();
+        });
+    }
+
+    public void evict(Long id) {
+        afterCommit(() -> {
+            accounts.invalidate(id);
+            generation.incrementAndGet();
+        });
+    }
+
+    private void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+
+    private Entry toEntry(Account account) {
+        long version = account.getVersion() != null ? account.getVersion() : 0;
+        AccountResponseFullDTO dto = new AccountResponseFullDTO(account.getName(), account.getCpf(),
+                account.getDateOfBirth(), account.getBank(), account.getBalance());
+        return new Entry(version, new CachedJson("\"" + version + "\"", serialize(dto)));
+    }
+
+    private byte[] serialize(Object value) {
+        try {
+            return objectMapper.writeValueAsBytes(value);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -2,27 +2,33 @@ package com.example.loginauthapi.services;
 
 import com.example.loginauthapi.domain.Account;
 import com.example.loginauthapi.domain.Movement;
+import com.example.loginauthapi.domain.Transaction;
 import com.example.loginauthapi.dto.AccountDTO;
 import com.example.loginauthapi.dto.AccountRequestDTO;
-import com.example.loginauthapi.dto.AccountResponseDTO;
-import com.example.loginauthapi.dto.AccountResponseFullDTO;
 import com.example.loginauthapi.repositories.AccountRepository;
 import com.example.loginauthapi.repositories.MovementRepository;
 import com.example.loginauthapi.services.exceptions.BusinessException;
 import com.example.loginauthapi.services.exceptions.DatabaseException;
 import com.example.loginauthapi.services.exceptions.ResourceNotFoundException;
+import jakarta.persistence.EntityManager;
 import jakarta.persistence.EntityNotFoundException;
+import jakarta.persistence.PersistenceContext;
 import jakarta.transaction.Transactional;
+import org.hibernate.Hibernate;
+import org.hibernate.Session;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.dao.EmptyResultDataAccessException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.Period;
-import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
 
 @Service
 public class AccountService {
@@ -33,6 +39,15 @@ public class AccountService {
     @Autowired
     private MovementRepository movementRepository;
 
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Autowired
+    private BalanceCheckpointService balanceCheckpointService;
+
+    @Autowired
+    private AccountReadCache accountReadCache;
+
     public Account newAccount(AccountRequestDTO dto) {
         Account account = new Account();
         account.setName(dto.name());
@@ -50,32 +65,23 @@ public class AccountService {
             account.setBalance(BigDecimal.valueOf(0.00));
         }
 
-        return repository.save(account);
+        Account saved = repository.save(account);
+        accountReadCache.put(saved);
+        return saved;
     }
 
     private boolean isMaiorDeIdade(LocalDate dataNascimento) {
         return Period.between(dataNascimento, LocalDate.now()).getYears() >= 18;
     }
 
-    //lista todos as contas criadas
-    public List<AccountResponseDTO> getAccounts() {
-        List<Account> accounts = repository.findAll();
-        return accounts.stream().map(account -> new AccountResponseDTO(account.getId(), account.getName(), account.getBank(), account.getBalance()))
-                .toList();
+    //lista todos as contas criadas (JSON em cache, recarregado só depois de alguma alteração)
+    public AccountReadCache.CachedJson getAccounts() {
+        return accountReadCache.list(repository::findAllBalances);
     }
 
-    //lista a conta criada pelo ID passado na URL
-    public AccountResponseFullDTO findById(Long id) {
-        Account account = repository.findById(id)
-                .orElseThrow(() -> new ResourceNotFoundException(id));
-
-        return new AccountResponseFullDTO(
-                account.getName(),
-                account.getCpf(),
-                account.getDateOfBirth(),
-                account.getBank(),
-                account.getBalance()
-        );
+    //lista a conta criada pelo ID passado na URL (JSON de AccountResponseFullDTO em cache, com a versão como ETag)
+    public AccountReadCache.CachedJson findById(Long id) {
+        return accountReadCache.get(id, this::findAccountById);
     }
 
     // Novo método: Retorna a entidade Account diretamente pelo ID
@@ -107,8 +113,15 @@ public class AccountService {
         try {
             Account account = repository.getReferenceById(id);
             Account newData = convertDTOToAccount(dto);
+            BigDecimal previous = account.getBalance() != null ? account.getBalance() : BigDecimal.ZERO;
             updateData(account, newData);
-            return repository.save(account);
+            // Ajuste direto não tem movimentação: a diferença entra no saldo de abertura para manter o razão fechado
+            account.setOpeningBalance(account.getOpeningBalance().add(account.getBalance().subtract(previous)));
+            Account saved = repository.saveAndFlush(account);
+            // Ajuste direto de saldo não gera movimentação, então vira um novo checkpoint
+            balanceCheckpointService.record(saved.getId(), saved.getBalance());
+            accountReadCache.put(saved);
+            return saved;
         } catch (EntityNotFoundException e) {
             throw new ResourceNotFoundException(id);
         }
@@ -129,6 +142,7 @@ public class AccountService {
     public void deleteAccount(Long id) {
         try {
             repository.deleteById(id);
+            accountReadCache.evict(id);
         } catch (EmptyResultDataAccessException e) {
             throw new ResourceNotFoundException(id);
         } catch (DataIntegrityViolationException e) {
@@ -136,53 +150,106 @@ public class AccountService {
         }
     }
 
+    // Presente apenas com api.posting.engine.enabled=true
+    @Autowired(required = false)
+    private PostingEngine postingEngine;
+
+    private final TransactionTemplate transactionTemplate;
+
     @Autowired
-    public AccountService(AccountRepository accountRepository, MovementRepository movementRepository) {
+    public AccountService(AccountRepository accountRepository, MovementRepository movementRepository,
+                          PlatformTransactionManager transactionManager) {
         this.repository = accountRepository;
         this.movementRepository = movementRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    //depósito pela fila da conta quando o motor de lançamentos está habilitado, senão na hora
+    public CompletableFuture<Account> depositoAsync(Long id, BigDecimal value) {
+        if (postingEngine != null) {
+            return postingEngine.deposit(id, value);
+        }
+        return CompletableFuture.completedFuture(transactionTemplate.execute(status -> realizaDeposito(id, value)));
+    }
+
+    //saque pela fila da conta quando o motor de lançamentos está habilitado, senão na hora
+    public CompletableFuture<Account> saqueAsync(Long id, BigDecimal value) {
+        if (postingEngine != null) {
+            return postingEngine.withdraw(id, value);
+        }
+        return CompletableFuture.completedFuture(transactionTemplate.execute(status -> realizaSaque(id, value)));
     }
 
-    //realiza depósito
+    //realiza depósito com um UPDATE atômico no banco
     @Transactional
     public Account realizaDeposito(Long id, BigDecimal value) {
-        Account account = repository.findById(id)
+        Account updated = repository.addToBalance(id, value)
                 .orElseThrow(() -> new ResourceNotFoundException(id));
+        return registerMovement(updated, "DEPOSIT", value);
+    }
 
-        account.setBalance(account.getBalance().add(value));
-        repository.save(account);
+    //realiza saque com um UPDATE condicional; saldo insuficiente é detectado pelas linhas afetadas
+    @Transactional
+    public Account realizaSaque(Long id, BigDecimal value) {
+        Account updated = repository.subtractFromBalance(id, value)
+                .orElseThrow(() -> withdrawalFailure(id));
+        return registerMovement(updated, "WITHDRAW", value);
+    }
 
-        Movement movement = new Movement(
-                account,
-                "DEPOSIT",
-                value,
-                LocalDateTime.now()
-        );
-        movementRepository.save(movement);
+    //aplica uma diferença líquida de saldo (positiva ou negativa) com um único UPDATE e uma movimentação
+    @Transactional
+    public Account aplicaAjuste(Long id, BigDecimal delta, Transaction transaction) {
+        String type = delta.signum() >= 0 ? "DEPOSIT" : "WITHDRAW";
+        return lanca(id, type, delta.abs(), LocalDateTime.now(), transaction);
+    }
 
+    //lança a transação na conta: uma movimentação ligada a ela, na data da transação, e um UPDATE de saldo
+    @Transactional
+    public Account lancaTransacao(Transaction transaction, String type) {
+        LocalDateTime date = transaction.getDate() != null ? transaction.getDate() : LocalDateTime.now();
+        Account account = lanca(transaction.getAccount().getId(), type, transaction.getAmount(), date, transaction);
+        balanceCheckpointService.shiftFrom(account.getId(), date,
+                type.equals("WITHDRAW") ? transaction.getAmount().negate() : transaction.getAmount());
         return account;
     }
 
-    //realiza saque
-    @Transactional
-    public Account realizaSaque(Long id, BigDecimal value) {
-        Account account = repository.findById(id)
-                .orElseThrow(() -> new ResourceNotFoundException(id));
+    private Account lanca(Long id, String type, BigDecimal value, LocalDateTime date, Transaction transaction) {
+        // A movimentação é persistida antes do UPDATE nativo: o flush automático que precede o
+        // UPDATE grava a transação e a movimentação juntas, sem um flush a mais no commit
+        Account account = repository.getReferenceById(id);
+        movementRepository.save(new Movement(account, type, value, date, transaction));
+        Account updated = type.equals("WITHDRAW")
+                ? repository.subtractFromBalance(id, value).orElseThrow(() -> withdrawalFailure(id))
+                : repository.addToBalance(id, value).orElseThrow(() -> new ResourceNotFoundException(id));
+        return syncBalance(account, updated);
+    }
 
-        if (account.getBalance().compareTo(value) < 0) {
-            throw new BusinessException("Saldo insuficiente para saque.");
+    private RuntimeException withdrawalFailure(Long id) {
+        if (!repository.existsById(id)) {
+            return new ResourceNotFoundException(id);
         }
+        return new BusinessException("Saldo insuficiente para saque.");
+    }
 
-        account.setBalance(account.getBalance().subtract(value));
-        repository.save(account);
-
-        Movement movement = new Movement(
-                account,
-                "WITHDRAW",
-                value,
-                LocalDateTime.now()
-        );
-        movementRepository.save(movement);
+    private Account registerMovement(Account updated, String type, BigDecimal value) {
+        // Referência sem SELECT: devolve a instância gerenciada se ela já estiver carregada
+        Account account = repository.getReferenceById(updated.getId());
+        movementRepository.save(new Movement(account, type, value, LocalDateTime.now()));
+        return syncBalance(account, updated);
+    }
 
+    private Account syncBalance(Account account, Account updated) {
+        accountReadCache.put(updated);
+        if (!Hibernate.isInitialized(account)) {
+            return updated;
+        }
+        // A instância gerenciada ainda tem o saldo antigo. Atualiza o valor em memória sem
+        // gerar outro UPDATE: ao voltar de read-only, o Hibernate adota o estado atual como snapshot
+        Session session = entityManager.unwrap(Session.class);
+        session.setReadOnly(account, true);
+        account.setBalance(updated.getBalance());
+        account.setVersion(updated.getVersion());
+        session.setReadOnly(account, false);
         return account;
     }
 
@@ -0,0 +1,146 @@
+package com.example.loginauthapi.services;
+
+import com.example.loginauthapi.domain.Account;
+import com.example.loginauthapi.domain.BalanceCheckpoint;
+import com.example.loginauthapi.domain.Movement;
+import com.example.loginauthapi.dto.AccountBalanceDTO;
+import com.example.loginauthapi.repositories.AccountRepository;
+import com.example.loginauthapi.repositories.BalanceCheckpointRepository;
+import com.example.loginauthapi.repositories.MovementRepository;
+import com.example.loginauthapi.services.exceptions.ResourceNotFoundException;
+import jakarta.transaction.Transactional;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Checkpoints de saldo por conta. O saldo em uma data passada é calculado a partir do
+ * checkpoint mais próximo, somando apenas as movimentações entre ele e a data consultada.
+ */
+@Service
+public class BalanceCheckpointService {
+
+    private static final Logger log = LoggerFactory.getLogger(BalanceCheckpointService.class);
+
+    @Autowired
+    private BalanceCheckpointRepository checkpointRepository;
+
+    @Autowired
+    private AccountRepository accountRepository;
+
+    @Autowired
+    private MovementRepository movementRepository;
+
+    private final TransactionTemplate transactionTemplate;
+
+    public BalanceCheckpointService(PlatformTransactionManager transactionManager) {
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    //saldo da conta no instante informado (agora, se nulo)
+    @Transactional
+    public AccountBalanceDTO balanceAt(Long accountId, LocalDateTime at) {
+        Account account = accountRepository.findById(accountId)
+                .orElseThrow(() -> new ResourceNotFoundException(accountId));
+        LocalDateTime when = at != null ? at : LocalDateTime.now();
+
+        Optional<BalanceCheckpoint> before = checkpointRepository
+                .findFirstByAccountIdAndCheckpointAtLessThanEqualOrderByCheckpointAtDesc(accountId, when);
+        if (before.isPresent()) {
+            BalanceCheckpoint checkpoint = before.get();
+            BigDecimal delta = movementRepository.sumBetween(accountId, checkpoint.getCheckpointAt(), when);
+            return new AccountBalanceDTO(accountId, when, checkpoint.getBalance().add(delta), checkpoint.getCheckpointAt());
+        }
+
+        // Data anterior ao primeiro checkpoint: volta a partir do checkpoint seguinte
+        Optional<BalanceCheckpoint> after = checkpointRepository
+                .findFirstByAccountIdAndCheckpointAtGreaterThanOrderByCheckpointAtAsc(accountId, when);
+        if (after.isPresent()) {
+            BalanceCheckpoint checkpoint = after.get();
+            BigDecimal delta = movementRepository.sumBetween(accountId, when, checkpoint.getCheckpointAt());
+            return new AccountBalanceDTO(accountId, when, checkpoint.getBalance().subtract(delta), checkpoint.getCheckpointAt());
+        }
+
+        // Conta ainda sem checkpoint: volta a partir do saldo atual
+        BigDecimal current = account.getBalance() != null ? account.getBalance() : BigDecimal.ZERO;
+        return new AccountBalanceDTO(accountId, when, current.subtract(movementRepository.sumAfter(accountId, when)), null);
+    }
+
+    //grava o saldo atual da conta como checkpoint; deve rodar com a linha da conta bloqueada
+    public void record(Long accountId, BigDecimal balance) {
+        // O instante é tomado depois do bloqueio, então toda movimentação anterior já está no saldo
+        LocalDateTime now = LocalDateTime.now();
+        // Transações com data futura já estão no saldo, mas suas movimentações ficam depois do checkpoint
+        // e são somadas de novo por balanceAt: saem do valor gravado
+        BigDecimal current = balance != null ? balance : BigDecimal.ZERO;
+        checkpointRepository.save(new BalanceCheckpoint(null, accountId, now,
+                current.subtract(movementRepository.sumAfter(accountId, now))));
+    }
+
+    //fixa o saldo calculado no instante informado como checkpoint (usado antes de arquivar movimentações)
+    public void pin(Long accountId, LocalDateTime at) {
+        if (checkpointRepository.existsByAccountIdAndCheckpointAt(accountId, at)) return;
+        BigDecimal balance = balanceAt(accountId, at).balance();
+        checkpointRepository.save(new BalanceCheckpoint(null, accountId, at, balance));
+    }
+
+    //uma movimentação retroativa muda pelo mesmo valor o saldo de todos os checkpoints a partir da sua data;
+    //eles são corrigidos em vez de apagados porque os fixados por pin cobrem movimentações já arquivadas
+    public void shiftFrom(Long accountId, LocalDateTime movementDate, BigDecimal signedAmount) {
+        checkpointRepository.shiftFrom(accountId, movementDate, signedAmount);
+    }
+
+    //mesma correção para as movimentações de um bloco da conta, lendo os checkpoints afetados uma única vez
+    public void shiftFrom(Long accountId, List<Movement> movements) {
+        List<Movement> sorted = movements.stream().sorted(Comparator.comparing(Movement::getMovementDate)).toList();
+        if (sorted.isEmpty()) return;
+        List<BalanceCheckpoint> checkpoints = checkpointRepository
+                .findByAccountIdAndCheckpointAtGreaterThanEqualOrderByCheckpointAtAsc(accountId, sorted.get(0).getMovementDate());
+        // Cada checkpoint recebe a soma das movimentações com data até o seu instante
+        BigDecimal delta = BigDecimal.ZERO;
+        int next = 0;
+        for (BalanceCheckpoint checkpoint : checkpoints) {
+            while (next < sorted.size() && !sorted.get(next).getMovementDate().isAfter(checkpoint.getCheckpointAt())) {
+                Movement movement = sorted.get(next++);
+                delta = delta.add(movement.getType().equals("WITHDRAW") ? movement.getAmount().negate() : movement.getAmount());
+            }
+            checkpoint.setBalance(checkpoint.getBalance().add(delta));
+        }
+    }
+
+    //grava um checkpoint para cada conta que teve movimentações desde o último
+    @Scheduled(cron = "${api.balance.checkpoint.cron:0 0 3 * * *}")
+    public int checkpointAll() {
+        int written = 0;
+        for (Long accountId : accountRepository.findAllIds()) {
+            Boolean recorded = transactionTemplate.execute(status -> checkpoint(accountId));
+            if (Boolean.TRUE.equals(recorded)) written++;
+        }
+        log.info("Checkpoints de saldo gravados: {}", written);
+        return written;
+    }
+
+    private boolean checkpoint(Long accountId) {
+        List<Account> locked = accountRepository.findAllForUpdate(List.of(accountId));
+        if (locked.isEmpty()) return false;
+
+        Optional<BalanceCheckpoint> latest = checkpointRepository.findFirstByAccountIdOrderByCheckpointAtDesc(accountId);
+        // Movimentações com data futura não mudam o valor do checkpoint até a data chegar
+        if (latest.isPresent() && !movementRepository.existsByAccountIdAndMovementDateGreaterThanAndMovementDateLessThanEqual(
+                accountId, latest.get().getCheckpointAt(), LocalDateTime.now())) {
+            return false;
+        }
+        record(accountId, locked.get(0).getBalance());
+        return true;
+    }
+}
@@ -0,0 +1,229 @@
+package com.example.loginauthapi.services;
+
+import com.example.loginauthapi.domain.CategoryRule;
+import com.example.loginauthapi.repositories.CategoryRuleRepository;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Categorização automática pela descrição da transação. Todas as regras (do sistema e dos
+ * usuários) são compiladas em um único autômato Aho–Corasick, então cada descrição é percorrida
+ * uma vez, em tempo linear no seu tamanho, qualquer que seja o número de regras. O autômato é
+ * imutável e trocado atomicamente quando as regras mudam; as leituras nunca esperam a recompilação.
+ * <p>
+ * A palavra-chave casa com o início de uma palavra da descrição (sem diferenciar caixa e acentos):
+ * "uber" casa com "PAG*UBERTRIP", mas "posto" não casa com "imposto". Entre as regras que casam,
+ * as do usuário vencem as do sistema e, dentro de cada grupo, a palavra-chave mais longa vence.
+ */
+@Component
+public class CategorizationEngine {
+
+    private static final Logger log = LoggerFactory.getLogger(CategorizationEngine.class);
+
+    @Autowired
+    private CategoryRuleRepository categoryRuleRepository;
+
+    @Autowired
+    private ReferenceDataCache referenceDataCache;
+
+    private final AtomicReference<Automaton> automaton = new AtomicReference<>();
+
+    //recompila todas as regras; sincronizado para uma recompilação mais antiga não sobrescrever uma mais nova
+    @PostConstruct
+    public synchronized void reload() {
+        long started = System.nanoTime();
+        List<CategoryRule> rules = categoryRuleRepository.findAll(Sort.by("id"));
+        Automaton compiled = Automaton.compile(rules);
+        automaton.set(compiled);
+        log.info("Regras de categorização compiladas: {} regras, {} estados em {} ms", rules.size(), compiled.size(),
+                (System.nanoTime() - started) / 1_000_000);
+    }
+
+    //recompila após o commit da transação corrente, ou imediatamente se não houver transação
+    public void invalidate() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    reload();
+                }
+            });
+        } else {
+            reload();
+        }
+    }
+
+    //categoria sugerida pelas regras do sistema e do usuário, se alguma casar com a descrição
+    public Optional<Long> categorize(Long userId, String description) {
+        if (description == null) return Optional.empty();
+        // Mesma normalização do hash da importação de extratos; o espaço inicial marca o início da primeira palavra
+        Long categoryId = automaton.get().match(userId, " " + StatementImportService.normalize(description));
+        // Categoria excluída depois da última recompilação não é sugerida
+        return Optional.ofNullable(categoryId).filter(id -> referenceDataCache.findCategory(id).isPresent());
+    }
+
+    //palavra-chave no formato procurado pelo autômato, ou nulo se não sobrar nenhum caractere válido
+    static String pattern(String keyword) {
+        String normalized = StatementImportService.normalize(keyword);
+        return normalized.isEmpty() ? null : " " + normalized;
+    }
+
+    // Categorias de uma palavra-chave: a da regra do sistema e as das regras de cada usuário
+    private record Keyword(int length, Long systemCategory, Map<Long, Long> userCategories) { }
+
+    private static final class Automaton {
+
+        private final char[][] labels;      // caracteres das transições de cada estado, em ordem
+        private final int[][] targets;      // estado de destino de cada transição
+        private final int[] fail;           // maior sufixo próprio que também é prefixo de alguma palavra-chave
+        private final int[] output;         // palavra-chave que termina no estado, ou -1
+        private final int[] outputLink;     // próximo estado no caminho de falha com palavra-chave, ou -1
+        private final Keyword[] keywords;
+
+        private Automaton(char[][] labels, int[][] targets, int[] fail, int[] output, int[] outputLink, Keyword[] keywords) {
+            this.labels = labels;
+            this.targets = targets;
+            this.fail = fail;
+            this.output = output;
+            this.outputLink = outputLink;
+            this.keywords = keywords;
+        }
+
+        static Automaton compile(List<CategoryRule> rules) {
+            // Regras com a mesma palavra-chave viram um único padrão; na repetição vale a de menor id
+            Map<String, Long> systemCategories = new LinkedHashMap<>();
+            Map<String, Map<Long, Long>> userCategories = new LinkedHashMap<>();
+            for (CategoryRule rule : rules) {
+                String pattern = pattern(rule.getKeyword());
+                if (pattern == null) continue;
+                if (rule.getUserId() == null) {
+                    systemCategories.putIfAbsent(pattern, rule.getCategoryId());
+                } else {
+                    userCategories.computeIfAbsent(pattern, p -> new HashMap<>()).putIfAbsent(rule.getUserId(), rule.getCategoryId());
+                }
+            }
+            List<String> patterns = new ArrayList<>(systemCategories.keySet());
+            userCategories.keySet().stream().filter(p -> !systemCategories.containsKey(p)).forEach(patterns::add);
+
+            // Trie das palavras-chave
+            List<Map<Character, Integer>> children = new ArrayList<>();
+            children.add(new HashMap<>());
+            List<Integer> outputs = new ArrayList<>();
+            outputs.add(-1);
+            Keyword[] keywords = new Keyword[patterns.size()];
+            for (int k = 0; k < patterns.size(); k++) {
+                String pattern = patterns.get(k);
+                int state = 0;
+                for (int i = 0; i < pattern.length(); i++) {
+                    Integer next = children.get(state).get(pattern.charAt(i));
+                    if (next == null) {
+                        next = children.size();
+                        children.add(new HashMap<>());
+                        outputs.add(-1);
+                        children.get(state).put(pattern.charAt(i), next);
+                    }
+                    state = next;
+                }
+                outputs.set(state, k);
+                keywords[k] = new Keyword(pattern.length(), systemCategories.get(pattern),
+                        userCategories.getOrDefault(pattern, Map.of()));
+            }
+
+            // Ligações de falha em largura: o estado de falha de um filho sempre tem profundidade menor
+            int size = children.size();
+            int[] fail = new int[size];
+            int[] output = outputs.stream().mapToInt(Integer::intValue).toArray();
+            int[] outputLink = new int[size];
+            outputLink[0] = -1;
+            ArrayDeque<Integer> queue = new ArrayDeque<>();
+            children.get(0).values().forEach(child -> {
+                outputLink[child] = -1;
+                queue.add(child);
+            });
+            while (!queue.isEmpty()) {
+                int state = queue.poll();
+                for (Map.Entry<Character, Integer> edge : children.get(state).entrySet()) {
+                    int child = edge.getValue();
+                    int f = fail[state];
+                    while (f != 0 && !children.get(f).containsKey(edge.getKey())) {
+                        f = fail[f];
+                    }
+                    fail[child] = children.get(f).getOrDefault(edge.getKey(), 0);
+                    outputLink[child] = output[fail[child]] >= 0 ? fail[child] : outputLink[fail[child]];
+                    queue.add(child);
+                }
+            }
+
+            // Transições em arrays ordenados: menos memória que um mapa por estado e busca binária no casamento
+            char[][] labels = new char[size][];
+            int[][] targets = new int[size][];
+            for (int state = 0; state < size; state++) {
+                Character[] keys = children.get(state).keySet().toArray(new Character[0]);
+                Arrays.sort(keys);
+                labels[state] = new char[keys.length];
+                targets[state] = new int[keys.length];
+                for (int i = 0; i < keys.length; i++) {
+                    labels[state][i] = keys[i];
+                    targets[state][i] = children.get(state).get(keys[i]);
+                }
+            }
+            return new Automaton(labels, targets, fail, output, outputLink, keywords);
+        }
+
+        int size() {
+            return fail.length;
+        }
+
+        Long match(Long userId, String text) {
+            Long best = null;
+            boolean bestIsUser = false;
+            int bestLength = 0;
+            int state = 0;
+            for (int i = 0; i < text.length(); i++) {
+                char c = text.charAt(i);
+                int next;
+                while ((next = next(state, c)) < 0 && state != 0) {
+                    state = fail[state];
+                }
+                state = Math.max(next, 0);
+                // Palavras-chave que terminam nesta posição: no máximo uma por comprimento
+                for (int s = output[state] >= 0 ? state : outputLink[state]; s >= 0; s = outputLink[s]) {
+                    Keyword keyword = keywords[output[s]];
+                    Long userCategory = userId != null ? keyword.userCategories().get(userId) : null;
+                    if (userCategory != null) {
+                        if (!bestIsUser || keyword.length() > bestLength) {
+                            best = userCategory;
+                            bestIsUser = true;
+                            bestLength = keyword.length();
+                        }
+                    } else if (keyword.systemCategory() != null && !bestIsUser && keyword.length() > bestLength) {
+                        best = keyword.systemCategory();
+                        bestLength = keyword.length();
+                    }
+                }
+            }
+            return best;
+        }
+
+        private int next(int state, char c) {
+            int i = Arrays.binarySearch(labels[state], c);
+            return i >= 0 ? targets[state][i] : -1;
+        }
+    }
+}
@@ -0,0 +1,54 @@
+package com.example.loginauthapi.services;
+
+import com.example.loginauthapi.domain.CategoryRule;
+import com.example.loginauthapi.domain.User;
+import com.example.loginauthapi.dto.CategoryRuleDTO;
+import com.example.loginauthapi.dto.CategoryRuleRequestDTO;
+import com.example.loginauthapi.repositories.CategoryRuleRepository;
+import com.example.loginauthapi.services.exceptions.BusinessException;
+import com.example.loginauthapi.services.exceptions.ResourceNotFoundException;
+import jakarta.transaction.Transactional;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+
+@Service
+public class CategoryRuleService {
+
+    @Autowired
+    private CategoryRuleRepository categoryRuleRepository;
+
+    @Autowired
+    private ReferenceDataCache referenceDataCache;
+
+    @Autowired
+    private CategorizationEngine categorizationEngine;
+
+    public List<CategoryRuleDTO> findAllDto(User user) {
+        return categoryRuleRepository.findVisibleTo(user.getId()).stream().map(CategoryRuleDTO::new).toList();
+    }
+
+    @Transactional
+    public CategoryRuleDTO newRule(User user, CategoryRuleRequestDTO dto) {
+        if (dto.keyword() == null || CategorizationEngine.pattern(dto.keyword()) == null) {
+            throw new BusinessException("Palavra-chave deve ter ao menos uma letra ou número.");
+        }
+        if (referenceDataCache.findCategory(dto.categoryId()).isEmpty()) {
+            throw new ResourceNotFoundException(dto.categoryId());
+        }
+        CategoryRule rule = categoryRuleRepository.save(new CategoryRule(null, dto.keyword().trim(), dto.categoryId(), user.getId()));
+        categorizationEngine.invalidate();
+        return new CategoryRuleDTO(rule);
+    }
+
+    //o usuário só exclui as próprias regras; as do sistema e as de outros usuários aparecem como inexistentes
+    @Transactional
+    public void delete(User user, Long id) {
+        CategoryRule rule = categoryRuleRepository.findById(id)
+                .filter(r -> user.getId().equals(r.getUserId()))
+                .orElseThrow(() -> new ResourceNotFoundException(id));
+        categoryRuleRepository.delete(rule);
+        categorizationEngine.invalidate();
+    }
+}
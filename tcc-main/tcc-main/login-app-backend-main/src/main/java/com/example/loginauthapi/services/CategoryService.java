@@ -1,6 +1,5 @@
 package com.example.loginauthapi.services;
 
-import com.example.loginauthapi.dto.CategoryDTO;
 import com.example.loginauthapi.domain.Category;
 import com.example.loginauthapi.repositories.CategoryRepository;
 import com.example.loginauthapi.services.exceptions.DatabaseException;
@@ -12,30 +11,35 @@ import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.dao.EmptyResultDataAccessException;
 import org.springframework.stereotype.Service;
 
-import java.util.List;
-import java.util.Optional;
-import java.util.stream.Collectors;
-
 @Service
 public class CategoryService {
 
     @Autowired
     private CategoryRepository categoryRepository;
 
+    @Autowired
+    private ReferenceDataCache referenceDataCache;
+
+    @Autowired
+    private CategorizationEngine categorizationEngine;
+
     public Category newCategory(Category category){
-        return categoryRepository.save(category);
+        Category saved = categoryRepository.save(category);
+        referenceDataCache.invalidate();
+        return saved;
     }
 
-    public List<CategoryDTO> findAllDto(){
-        List<Category> categories = categoryRepository.findAll();
-        return categories.stream()
-                .map(category -> new CategoryDTO(category))
-                .collect(Collectors.toList());
+    //GET /categories pronto para escrita, refeito só quando as categorias mudam
+    public ReferenceDataCache.SerializedList findAllJson(){
+        return referenceDataCache.getCategoriesJson();
     }
 
     public void delete(Long id){
         try {
             categoryRepository.deleteById(id);
+            referenceDataCache.invalidate();
+            // As regras da categoria são excluídas em cascata
+            categorizationEngine.invalidate();
         } catch (EmptyResultDataAccessException e){
             throw new ResourceNotFoundException(id);
         } catch(DataIntegrityViolationException e){
@@ -44,8 +48,9 @@ public class CategoryService {
     }
 
     public Category findById(Long id){
-        Optional<Category> category = categoryRepository.findById(id);
-        return category.orElseThrow(() -> new ResourceNotFoundException(id));
+        return referenceDataCache.findCategory(id)
+                .map(ReferenceDataCache.CachedCategory::toEntity)
+                .orElseThrow(() -> new ResourceNotFoundException(id));
     }
 
     public void updateData(Category category, Category obj){
@@ -57,7 +62,9 @@ public class CategoryService {
         try {
             Category category = categoryRepository.getReferenceById(id);
             updateData(category, obj);
-            return categoryRepository.save(category);
+            Category saved = categoryRepository.save(category);
+            referenceDataCache.invalidate();
+            return saved;
         } catch (EntityNotFoundException e){
             throw new ResourceNotFoundException(id);
         }
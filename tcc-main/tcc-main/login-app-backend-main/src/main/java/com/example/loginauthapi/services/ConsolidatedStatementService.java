@@ -0,0 +1,148 @@
+package com.example.loginauthapi.services;
+
+import com.example.loginauthapi.domain.Account;
+import com.example.loginauthapi.domain.User;
+import com.example.loginauthapi.dto.ConsolidatedMovementDTO;
+import com.example.loginauthapi.dto.ConsolidatedStatementPageDTO;
+import com.example.loginauthapi.dto.TransactionCursor;
+import com.example.loginauthapi.repositories.AccountRepository;
+import com.example.loginauthapi.repositories.MovementRepository;
+import com.example.loginauthapi.services.exceptions.BusinessException;
+import com.example.loginauthapi.services.exceptions.ResourceNotFoundException;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.PriorityQueue;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Extrato consolidado de várias contas em ordem cronológica. Abre um cursor ordenado por conta
+ * e intercala os cursores com um heap (k-way merge), mantendo em memória apenas a linha atual
+ * de cada conta.
+ */
+@Service
+public class ConsolidatedStatementService {
+
+    // Cada conta abre um cursor no servidor durante a leitura
+    public static final int MAX_ACCOUNTS = 20;
+
+    private static final Comparator<ConsolidatedMovementDTO> ORDER =
+            Comparator.comparing(ConsolidatedMovementDTO::movementDate).thenComparing(ConsolidatedMovementDTO::id);
+
+    @Autowired
+    private MovementRepository movementRepository;
+
+    @Autowired
+    private AccountRepository accountRepository;
+
+    private final TransactionTemplate readOnlyTransaction;
+
+    public ConsolidatedStatementService(PlatformTransactionManager transactionManager) {
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+    }
+
+    //contas informadas (validadas) ou, se nenhuma, as contas com o CPF do usuário
+    public List<Long> resolveAccounts(User user, List<Long> accountIds) {
+        if (accountIds == null || accountIds.isEmpty()) {
+            return requireMaxAccounts(accountRepository.findIdsByCpf(user.getCpf()));
+        }
+        List<Long> ids = requireMaxAccounts(accountIds.stream().distinct().toList());
+        HashSet<Long> existing = new HashSet<>(accountRepository.findAllById(ids).stream().map(Account::getId).toList());
+        for (Long id : ids) {
+            if (!existing.contains(id)) throw new ResourceNotFoundException(id);
+        }
+        return ids;
+    }
+
+    private static List<Long> requireMaxAccounts(List<Long> ids) {
+        if (ids.size() > MAX_ACCOUNTS) {
+            throw new BusinessException("Informe no máximo " + MAX_ACCOUNTS + " contas no extrato consolidado.");
+        }
+        return ids;
+    }
+
+    //uma página do extrato consolidado, paginada por keyset (movementDate, id)
+    public ConsolidatedStatementPageDTO getPage(List<Long> accountIds, LocalDate from, LocalDate to, String cursor, Integer limit) {
+        int pageSize = limit == null ? MovementService.DEFAULT_PAGE_SIZE : Math.max(1, Math.min(limit, MovementService.MAX_PAGE_SIZE));
+        LocalDateTime start = MovementService.rangeStart(from, to);
+        LocalDateTime end = MovementService.rangeEnd(to);
+        TransactionCursor after = TransactionCursor.decode(cursor);
+
+        // Busca um registro a mais para saber se existe próxima página
+        List<ConsolidatedMovementDTO> content = readOnlyTransaction.execute(status -> {
+            try (Stream<ConsolidatedMovementDTO> merged = merged(accountIds, start, end, after)) {
+                return merged.limit(pageSize + 1).toList();
+            }
+        });
+
+        String nextCursor = null;
+        if (content.size() > pageSize) {
+            content = content.subList(0, pageSize);
+            ConsolidatedMovementDTO last = content.get(content.size() - 1);
+            nextCursor = new TransactionCursor(last.movementDate(), last.id()).encode();
+        }
+        return new ConsolidatedStatementPageDTO(content, nextCursor);
+    }
+
+    //intercala os cursores das contas; precisa ser consumido e fechado dentro de uma transação
+    public Stream<ConsolidatedMovementDTO> merged(List<Long> accountIds, LocalDateTime start, LocalDateTime end, TransactionCursor after) {
+        // Sem cursor, (start, 0) inclui tudo a partir do início do período
+        LocalDateTime cursorDate = after != null ? after.date() : start;
+        Long cursorId = after != null ? after.id() : 0L;
+
+        List<Stream<ConsolidatedMovementDTO>> sources = new ArrayList<>(accountIds.size());
+        try {
+            for (Long accountId : accountIds) {
+                sources.add(movementRepository.streamStatement(accountId, start, end, cursorDate, cursorId));
+            }
+        } catch (RuntimeException e) {
+            sources.forEach(Stream::close);
+            throw e;
+        }
+
+        MergeIterator iterator = new MergeIterator(sources.stream().map(Stream::iterator).toList());
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(iterator, Spliterator.ORDERED | Spliterator.NONNULL), false)
+                .onClose(() -> sources.forEach(Stream::close));
+    }
+
+    private static class MergeIterator implements Iterator<ConsolidatedMovementDTO> {
+        private record Head(ConsolidatedMovementDTO row, Iterator<ConsolidatedMovementDTO> source) { }
+
+        private final PriorityQueue<Head> heap;
+
+        MergeIterator(List<Iterator<ConsolidatedMovementDTO>> sources) {
+            this.heap = new PriorityQueue<>(Math.max(1, sources.size()), Comparator.comparing(Head::row, ORDER));
+            for (Iterator<ConsolidatedMovementDTO> source : sources) {
+                if (source.hasNext()) heap.add(new Head(source.next(), source));
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            return !heap.isEmpty();
+        }
+
+        @Override
+        public ConsolidatedMovementDTO next() {
+            Head head = heap.poll();
+            if (head == null) throw new NoSuchElementException();
+            // Repõe no heap a próxima linha da mesma conta
+            if (head.source().hasNext()) heap.add(new Head(head.source().next(), head.source()));
+            return head.row();
+        }
+    }
+}
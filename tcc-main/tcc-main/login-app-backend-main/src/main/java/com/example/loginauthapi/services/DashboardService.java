@@ -0,0 +1,117 @@
+package com.example.loginauthapi.services;
+
+import com.example.loginauthapi.domain.User;
+import com.example.loginauthapi.dto.AccountResponseDTO;
+import com.example.loginauthapi.dto.CategorySummaryDTO;
+import com.example.loginauthapi.dto.DashboardSummaryDTO;
+import com.example.loginauthapi.dto.TransactionDTO;
+import com.example.loginauthapi.dto.TransactionTotalDTO;
+import com.example.loginauthapi.repositories.AccountRepository;
+import com.example.loginauthapi.repositories.TransactionRepository;
+import com.example.loginauthapi.services.exceptions.BusinessException;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.List;
+
+@Service
+public class DashboardService {
+
+    // Limites usados quando o período não é informado
+    public static final LocalDate MIN_DATE = LocalDate.of(1900, 1, 1);
+    public static final LocalDate MAX_DATE = LocalDate.of(9999, 12, 30);
+
+    @Autowired
+    private TransactionRepository transactionRepository;
+
+    @Autowired
+    private AccountRepository accountRepository;
+
+    @Autowired
+    private ReferenceDataCache referenceDataCache;
+
+    @Autowired
+    private TransactionArchiveService transactionArchiveService;
+
+    //resumo do dashboard calculado por agregações no banco, sem trafegar as transações
+    public DashboardSummaryDTO getSummary(User user, LocalDate from, LocalDate to) {
+        LocalDate start = from != null ? from : MIN_DATE;
+        LocalDate end = to != null ? to : MAX_DATE;
+        if (start.isAfter(end)) {
+            throw new BusinessException("Data inicial deve ser anterior à data final.");
+        }
+        LocalDateTime rangeStart = start.atStartOfDay();
+        LocalDateTime rangeEnd = end.plusDays(1).atStartOfDay();
+
+        List<TransactionTotalDTO> totals = transactionArchiveService.mergeTotals(user.getId(), rangeStart, rangeEnd,
+                transactionRepository.sumByCategoryAndType(user.getId(), rangeStart, rangeEnd));
+        List<CategorySummaryDTO> categories = totals.stream()
+                .map(this::toCategorySummary)
+                .toList();
+
+        YearMonth currentMonth = YearMonth.now();
+        List<TransactionTotalDTO> monthTotals = transactionRepository.sumByCategoryAndType(user.getId(),
+                currentMonth.atDay(1).atStartOfDay(), currentMonth.plusMonths(1).atDay(1).atStartOfDay());
+
+        List<AccountResponseDTO> accounts = accountRepository.findAllBalances();
+        BigDecimal totalBalance = accounts.stream()
+                .map(AccountResponseDTO::balance)
+                .filter(balance -> balance != null)
+                .reduce(BigDecimal.ZERO, BigDecimal::add);
+
+        return new DashboardSummaryDTO(
+                from,
+                to,
+                sum(categories.stream().filter(c -> isIncome(c.transactionTypeId())).map(CategorySummaryDTO::total).toList()),
+                sum(categories.stream().filter(c -> isExpense(c.transactionTypeId())).map(CategorySummaryDTO::total).toList()),
+                sum(monthTotals.stream().filter(t -> isIncome(t.transactionTypeId())).map(TransactionTotalDTO::total).toList()),
+                sum(monthTotals.stream().filter(t -> isExpense(t.transactionTypeId())).map(TransactionTotalDTO::total).toList()),
+                categories,
+                findLatest(user, referenceDataCache.incomeTypeIds(), rangeStart, rangeEnd),
+                findLatest(user, referenceDataCache.expenseTypeIds(), rangeStart, rangeEnd),
+                accounts,
+                totalBalance
+        );
+    }
+
+    private CategorySummaryDTO toCategorySummary(TransactionTotalDTO total) {
+        return new CategorySummaryDTO(
+                total.categoryId(),
+                referenceDataCache.findCategory(total.categoryId()).map(ReferenceDataCache.CachedCategory::categoryName).orElse(null),
+                total.transactionTypeId(),
+                referenceDataCache.findTransactionType(total.transactionTypeId()).map(ReferenceDataCache.CachedTransactionType::transactionType).orElse(null),
+                total.total(),
+                total.count()
+        );
+    }
+
+    private TransactionDTO findLatest(User user, List<Long> typeIds, LocalDateTime from, LocalDateTime to) {
+        if (typeIds.isEmpty()) return null;
+        TransactionDTO latest = transactionRepository.findLatestByTypes(user.getId(), typeIds, from, to, PageRequest.of(0, 1))
+                .stream()
+                .findFirst()
+                .orElse(null);
+        return transactionArchiveService.mergeLatest(user, typeIds, from, to, latest);
+    }
+
+    private boolean isIncome(Long transactionTypeId) {
+        return referenceDataCache.findTransactionType(transactionTypeId)
+                .map(ReferenceDataCache.CachedTransactionType::isIncome)
+                .orElse(false);
+    }
+
+    private boolean isExpense(Long transactionTypeId) {
+        return referenceDataCache.findTransactionType(transactionTypeId)
+                .map(ReferenceDataCache.CachedTransactionType::isExpense)
+                .orElse(false);
+    }
+
+    private BigDecimal sum(List<BigDecimal> values) {
+        return values.stream().reduce(BigDecimal.ZERO, BigDecimal::add);
+    }
+}
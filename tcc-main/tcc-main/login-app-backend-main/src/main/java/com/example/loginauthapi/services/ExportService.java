@@ -0,0 +1,209 @@
+package com.example.loginauthapi.services;
+
+import com.example.loginauthapi.dto.ConsolidatedMovementDTO;
+import com.example.loginauthapi.dto.MovementDTO;
+import com.example.loginauthapi.dto.StatementCursor;
+import com.example.loginauthapi.dto.StatementLineDTO;
+import com.example.loginauthapi.dto.TransactionDTO;
+import com.example.loginauthapi.repositories.AccountRepository;
+import com.example.loginauthapi.repositories.MovementRepository;
+import com.example.loginauthapi.repositories.TransactionRepository;
+import com.example.loginauthapi.services.exceptions.BusinessException;
+import com.example.loginauthapi.services.exceptions.ResourceNotFoundException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+@Service
+public class ExportService {
+
+    private static final int FLUSH_INTERVAL = 500;
+    private static final int STATEMENT_PAGE_SIZE = 500;
+
+    public enum Format {
+        CSV("text/csv;charset=UTF-8", "csv"),
+        NDJSON("application/x-ndjson", "ndjson");
+
+        private final MediaType mediaType;
+        private final String extension;
+
+        Format(String mediaType, String extension) {
+            this.mediaType = MediaType.parseMediaType(mediaType);
+            this.extension = extension;
+        }
+
+        public MediaType getMediaType() {
+            return mediaType;
+        }
+
+        public String getExtension() {
+            return extension;
+        }
+
+        public static Format of(String value) {
+            for (Format format : values()) {
+                if (format.extension.equalsIgnoreCase(value)) return format;
+            }
+            throw new BusinessException("Formato de exportação inválido: " + value);
+        }
+    }
+
+    @Autowired
+    private TransactionRepository transactionRepository;
+
+    @Autowired
+    private MovementRepository movementRepository;
+
+    @Autowired
+    private AccountRepository accountRepository;
+
+    @Autowired
+    private MovementService movementService;
+
+    @Autowired
+    private ConsolidatedStatementService consolidatedStatementService;
+
+    @Autowired
+    private TransactionArchiveService transactionArchiveService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private final TransactionTemplate readOnlyTransaction;
+
+    public ExportService(PlatformTransactionManager transactionManager) {
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+    }
+
+    //exporta todas as transações do usuário, linha a linha
+    public void exportTransactions(Long userId, Format format, OutputStream out) {
+        List<String> header = List.of("id", "date", "description", "amount", "category", "transactionType");
+        Function<TransactionDTO, List<Object>> columns = t -> Arrays.asList(
+                t.getId(), t.getDate(), t.getDescription(), t.getAmount(),
+                t.getCategory().getCategoryName(), t.getTransactionType().getTransactionType());
+
+        readOnlyTransaction.executeWithoutResult(status -> {
+            try (Stream<TransactionDTO> rows = transactionArchiveService.mergeExport(userId, transactionRepository.streamByUser(userId))) {
+                write(rows, format, header, columns, out);
+            }
+        });
+    }
+
+    public void checkAccountExists(Long accountId) {
+        if (!accountRepository.existsById(accountId)) {
+            throw new ResourceNotFoundException(accountId);
+        }
+    }
+
+    //exporta as movimentações da conta, linha a linha
+    public void exportMovements(Long accountId, Format format, OutputStream out) {
+        List<String> header = List.of("id", "movementDate", "type", "amount");
+        Function<MovementDTO, List<Object>> columns = m -> Arrays.asList(
+                m.id(), m.movementDate(), m.type(), m.amount());
+
+        readOnlyTransaction.executeWithoutResult(status -> {
+            try (Stream<MovementDTO> rows = movementRepository.streamByAccount(accountId)) {
+                write(rows, format, header, columns, out);
+            }
+        });
+    }
+
+    //exporta o extrato com saldo corrente, buscando página a página por keyset
+    public void exportStatement(Long accountId, LocalDateTime start, LocalDateTime end, Format format, OutputStream out) {
+        List<String> header = List.of("id", "movementDate", "type", "amount", "balance");
+        Function<StatementLineDTO, List<Object>> columns = l -> Arrays.asList(
+                l.id(), l.movementDate(), l.type(), l.amount(), l.balance());
+
+        readOnlyTransaction.executeWithoutResult(status -> {
+            BigDecimal opening = movementService.openingBalance(accountId, start);
+            // Cada página abre com o saldo da última linha da anterior; a memória fica limitada a uma página
+            Stream<List<StatementLineDTO>> pages = Stream.iterate(
+                    movementRepository.findStatementWithBalance(accountId, start, end, null, opening, STATEMENT_PAGE_SIZE),
+                    page -> !page.isEmpty(),
+                    page -> page.size() < STATEMENT_PAGE_SIZE ? List.of() : nextStatementPage(accountId, start, end, page));
+            write(pages.flatMap(List::stream), format, header, columns, out);
+        });
+    }
+
+    //exporta o extrato consolidado de várias contas, intercalando os cursores de cada uma
+    public void exportConsolidated(List<Long> accountIds, LocalDateTime start, LocalDateTime end, Format format, OutputStream out) {
+        List<String> header = List.of("accountId", "id", "movementDate", "type", "amount");
+        Function<ConsolidatedMovementDTO, List<Object>> columns = m -> Arrays.asList(
+                m.accountId(), m.id(), m.movementDate(), m.type(), m.amount());
+
+        readOnlyTransaction.executeWithoutResult(status -> {
+            try (Stream<ConsolidatedMovementDTO> rows = consolidatedStatementService.merged(accountIds, start, end, null)) {
+                write(rows, format, header, columns, out);
+            }
+        });
+    }
+
+    private List<StatementLineDTO> nextStatementPage(Long accountId, LocalDateTime start, LocalDateTime end,
+                                                     List<StatementLineDTO> previous) {
+        StatementCursor after = StatementCursor.after(previous.get(previous.size() - 1));
+        return movementRepository.findStatementWithBalance(accountId, start, end, after, after.balance(), STATEMENT_PAGE_SIZE);
+    }
+
+    private <T> void write(Stream<T> rows, Format format, List<String> header,
+                           Function<T, List<Object>> columns, OutputStream out) {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        try {
+            if (format == Format.CSV) {
+                writer.write(String.join(",", header));
+                writer.write('\n');
+            }
+            long count = 0;
+            for (T row : (Iterable<T>) rows::iterator) {
+                if (format == Format.CSV) {
+                    writeCsvLine(writer, columns.apply(row));
+                } else {
+                    writer.write(objectMapper.writeValueAsString(row));
+                    writer.write('\n');
+                }
+                // Descarrega periodicamente para o cliente receber os dados aos poucos
+                if (++count % FLUSH_INTERVAL == 0) {
+                    writer.flush();
+                }
+            }
+            writer.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void writeCsvLine(Writer writer, List<Object> values) throws IOException {
+        for (int i = 0; i < values.size(); i++) {
+            if (i > 0) writer.write(',');
+            Object value = values.get(i);
+            if (value != null) {
+                writer.write(escapeCsv(value.toString()));
+            }
+        }
+        writer.write('\n');
+    }
+
+    private String escapeCsv(String value) {
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            return value;
+        }
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+}
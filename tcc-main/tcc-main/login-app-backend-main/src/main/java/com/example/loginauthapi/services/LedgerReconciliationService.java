@@ -0,0 +1,212 @@
+package com.example.loginauthapi.services;
+
+import com.example.loginauthapi.dto.LedgerDriftDTO;
+import com.example.loginauthapi.dto.ReconciliationReportDTO;
+import com.example.loginauthapi.services.exceptions.BusinessException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import javax.sql.DataSource;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Reconciliação do razão: confere, para cada conta, se balance = opening_balance + soma das
+ * movimentações. As contas são divididas em faixas de id e cada faixa é resolvida por uma única
+ * consulta agregada; as faixas rodam em paralelo em um número limitado de threads virtuais, para
+ * não ocupar mais conexões do pool do que o configurado.
+ */
+@Service
+public class LedgerReconciliationService {
+
+    private static final Logger log = LoggerFactory.getLogger(LedgerReconciliationService.class);
+
+    // Um único comando: saldo e movimentações vêm do mesmo snapshot, mesmo com lançamentos concorrentes
+    private static final String RANGE_SQL = """
+            SELECT a.id, COALESCE(a.balance, 0), a.opening_balance,
+                   COALESCE(SUM(CASE WHEN m.type = 'WITHDRAW' THEN -m.amount ELSE m.amount END), 0)
+            FROM tb_account a LEFT JOIN tb_movements m ON m.account_id = a.id
+            WHERE a.id >= ? AND a.id < ?
+            GROUP BY a.id, a.balance, a.opening_balance
+            ORDER BY a.id
+            """;
+
+    private record RangeResult(int accounts, List<LedgerDriftDTO> drift) { }
+
+    private final JdbcTemplate jdbcTemplate;
+    private final int rangeSize;
+    private final int parallelism;
+    private final AtomicBoolean running = new AtomicBoolean();
+    private volatile ReconciliationReportDTO lastReport;
+
+    private final Counter accountsChecked;
+    private final Counter rangesCompleted;
+    private final Timer duration;
+    private final AtomicInteger totalRanges = new AtomicInteger();
+    private final AtomicInteger doneRanges = new AtomicInteger();
+    private final AtomicLong runAccounts = new AtomicLong();
+    private final AtomicInteger driftAccounts = new AtomicInteger();
+    private volatile long runStartedNanos;
+    private volatile long runFinishedNanos;
+
+    public LedgerReconciliationService(DataSource dataSource,
+                                       MeterRegistry meterRegistry,
+                                       @Value("${api.reconciliation.range-size:1000}") int rangeSize,
+                                       @Value("${api.reconciliation.parallelism:2}") int parallelism) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.rangeSize = rangeSize;
+        this.parallelism = parallelism;
+
+        this.accountsChecked = Counter.builder("reconciliation.accounts.checked")
+                .description("Contas conferidas pela reconciliação")
+                .register(meterRegistry);
+        this.rangesCompleted = Counter.builder("reconciliation.ranges.completed")
+                .description("Faixas de contas concluídas")
+                .register(meterRegistry);
+        this.duration = Timer.builder("reconciliation.duration")
+                .description("Duração de cada reconciliação completa")
+                .register(meterRegistry);
+        Gauge.builder("reconciliation.progress", this, LedgerReconciliationService::progress)
+                .description("Fração das faixas concluídas na execução atual (ou na última)")
+                .register(meterRegistry);
+        Gauge.builder("reconciliation.throughput", this, LedgerReconciliationService::accountsPerSecond)
+                .description("Contas conferidas por segundo na execução atual (ou na última)")
+                .baseUnit("accounts/s")
+                .register(meterRegistry);
+        Gauge.builder("reconciliation.drift.accounts", driftAccounts, AtomicInteger::get)
+                .description("Contas com divergência na última reconciliação")
+                .register(meterRegistry);
+    }
+
+    //última reconciliação concluída; nulo se ainda não rodou
+    public ReconciliationReportDTO lastReport() {
+        return lastReport;
+    }
+
+    @Scheduled(cron = "${api.reconciliation.cron:0 0 5 * * *}")
+    public ReconciliationReportDTO reconcile() {
+        if (!running.compareAndSet(false, true)) {
+            throw new BusinessException("Reconciliação já em andamento.");
+        }
+        try {
+            return duration.record(this::run);
+        } finally {
+            running.set(false);
+        }
+    }
+
+    private ReconciliationReportDTO run() {
+        LocalDateTime startedAt = LocalDateTime.now();
+        List<long[]> ranges = ranges();
+        totalRanges.set(ranges.size());
+        doneRanges.set(0);
+        runAccounts.set(0);
+        runStartedNanos = System.nanoTime();
+        runFinishedNanos = 0;
+
+        List<LedgerDriftDTO> drift = new ArrayList<>();
+        try (ExecutorService pool = Executors.newFixedThreadPool(parallelism, Thread.ofVirtual().name("reconciliation-", 0).factory())) {
+            List<Future<RangeResult>> futures = new ArrayList<>(ranges.size());
+            for (long[] range : ranges) {
+                futures.add(pool.submit(() -> reconcileRange(range[0], range[1])));
+            }
+            // As faixas são crescentes, então a lista de divergências já sai ordenada por conta
+            for (Future<RangeResult> future : futures) {
+                drift.addAll(await(future, futures).drift());
+            }
+        }
+        runFinishedNanos = System.nanoTime();
+        driftAccounts.set(drift.size());
+
+        ReconciliationReportDTO report = new ReconciliationReportDTO(startedAt, LocalDateTime.now(), runAccounts.get(),
+                ranges.size(), accountsPerSecond(), drift);
+        lastReport = report;
+        if (drift.isEmpty()) {
+            log.info("Reconciliação do razão: {} contas em {} faixas, sem divergências", report.accountsChecked(), report.ranges());
+        } else {
+            log.warn("Reconciliação do razão: {} contas com divergência: {}", drift.size(),
+                    drift.stream().map(LedgerDriftDTO::accountId).limit(20).toList());
+        }
+        return report;
+    }
+
+    //divide o intervalo de ids em faixas [início, fim) de tamanho fixo
+    private List<long[]> ranges() {
+        Map<String, Object> bounds = jdbcTemplate.queryForMap("SELECT MIN(id) AS min_id, MAX(id) AS max_id FROM tb_account");
+        List<long[]> ranges = new ArrayList<>();
+        if (bounds.get("min_id") == null) return ranges;
+
+        long min = ((Number) bounds.get("min_id")).longValue();
+        long max = ((Number) bounds.get("max_id")).longValue();
+        for (long from = min; from <= max; from += rangeSize) {
+            ranges.add(new long[]{from, Math.min(from + rangeSize, max + 1)});
+        }
+        return ranges;
+    }
+
+    private RangeResult reconcileRange(long from, long to) {
+        List<LedgerDriftDTO> drift = new ArrayList<>();
+        int[] accounts = {0};
+        jdbcTemplate.query(RANGE_SQL, rs -> {
+            accounts[0]++;
+            BigDecimal balance = rs.getBigDecimal(2);
+            BigDecimal opening = rs.getBigDecimal(3);
+            BigDecimal movements = rs.getBigDecimal(4);
+            BigDecimal difference = balance.subtract(opening).subtract(movements);
+            if (difference.signum() != 0) {
+                drift.add(new LedgerDriftDTO(rs.getLong(1), balance, opening, movements, difference));
+            }
+        }, from, to);
+
+        accountsChecked.increment(accounts[0]);
+        rangesCompleted.increment();
+        runAccounts.addAndGet(accounts[0]);
+        doneRanges.incrementAndGet();
+        return new RangeResult(accounts[0], drift);
+    }
+
+    //espera a faixa; se uma falhar, cancela as restantes e repassa o erro
+    private static RangeResult await(Future<RangeResult> future, List<Future<RangeResult>> all) {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            all.forEach(f -> f.cancel(true));
+            throw new IllegalStateException("Reconciliação interrompida.", e);
+        } catch (ExecutionException e) {
+            all.forEach(f -> f.cancel(true));
+            if (e.getCause() instanceof RuntimeException runtime) throw runtime;
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    private double progress() {
+        int total = totalRanges.get();
+        return total == 0 ? 0 : doneRanges.get() / (double) total;
+    }
+
+    private double accountsPerSecond() {
+        if (runStartedNanos == 0) return 0;
+        long end = runFinishedNanos != 0 ? runFinishedNanos : System.nanoTime();
+        double seconds = (end - runStartedNanos) / 1e9;
+        return seconds > 0 ? runAccounts.get() / seconds : 0;
+    }
+}
@@ -0,0 +1,242 @@
+package com.example.loginauthapi.services;
+
+import com.example.loginauthapi.dto.MovementArchiveDTO;
+import com.example.loginauthapi.dto.MovementPartitionDTO;
+import com.example.loginauthapi.services.exceptions.BusinessException;
+import com.example.loginauthapi.services.exceptions.ResourceNotFoundException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.sql.Date;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Manutenção das partições mensais de tb_movements no PostgreSQL (ver V12): cria com antecedência
+ * as partições dos próximos meses e arquiva meses antigos, desanexando a partição, exportando as
+ * linhas para um CSV gzip e removendo a tabela. No H2, onde a tabela não é particionada, não faz nada.
+ */
+@Service
+public class MovementPartitionService {
+
+    private static final Logger log = LoggerFactory.getLogger(MovementPartitionService.class);
+
+    private static final String PARENT = "tb_movements";
+    private static final String DEFAULT_PARTITION = "tb_movements_default";
+    private static final Pattern PARTITION_NAME = Pattern.compile("tb_movements_p(\\d{4})_(\\d{2})");
+    // Todas as colunas de tb_movements: usadas ao mover linhas da DEFAULT e na exportação
+    private static final String COLUMNS = "id, account_id, type, amount, movement_date, transaction_id";
+
+    @Autowired
+    private BalanceCheckpointService balanceCheckpointService;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final int monthsAhead;
+    private final int retentionMonths;
+    private final Path archiveDir;
+    private Boolean partitioned;
+
+    public MovementPartitionService(DataSource dataSource,
+                                    PlatformTransactionManager transactionManager,
+                                    @Value("${api.movements.partitions.months-ahead:3}") int monthsAhead,
+                                    @Value("${api.movements.archive.retention-months:0}") int retentionMonths,
+                                    @Value("${api.movements.archive.dir:./archive/movements}") String archiveDir) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        // Exportação lê a partição em blocos em vez de carregar tudo em memória
+        this.jdbcTemplate.setFetchSize(1000);
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.monthsAhead = monthsAhead;
+        this.retentionMonths = retentionMonths;
+        this.archiveDir = Path.of(archiveDir);
+    }
+
+    //true quando tb_movements é particionada (PostgreSQL após a V12)
+    public boolean isPartitioned() {
+        if (partitioned == null) {
+            partitioned = jdbcTemplate.execute((ConnectionCallback<Boolean>) connection ->
+                    connection.getMetaData().getDatabaseProductName().equalsIgnoreCase("PostgreSQL"))
+                    && Boolean.TRUE.equals(jdbcTemplate.queryForObject(
+                    "SELECT EXISTS (SELECT 1 FROM pg_partitioned_table WHERE partrelid = to_regclass(?))", Boolean.class, PARENT));
+        }
+        return partitioned;
+    }
+
+    public List<MovementPartitionDTO> listPartitions() {
+        requirePartitioned();
+        return jdbcTemplate.query("""
+                SELECT c.relname, pg_get_expr(c.relpartbound, c.oid), CAST(GREATEST(c.reltuples, 0) AS BIGINT)
+                FROM pg_inherits i JOIN pg_class c ON c.oid = i.inhrelid
+                WHERE i.inhparent = to_regclass(?)
+                ORDER BY c.relname
+                """, (rs, i) -> new MovementPartitionDTO(rs.getString(1), monthOf(rs.getString(1)), rs.getString(2), rs.getLong(3)), PARENT);
+    }
+
+    //cria as partições do mês corrente e dos próximos meses; com retenção configurada, arquiva as antigas
+    @Scheduled(cron = "${api.movements.partitions.cron:0 30 2 * * *}")
+    public List<String> maintain() {
+        if (!isPartitioned()) return List.of();
+
+        List<String> created = new ArrayList<>();
+        YearMonth current = YearMonth.now();
+        for (int i = 0; i <= monthsAhead; i++) {
+            if (ensurePartition(current.plusMonths(i))) created.add(partitionName(current.plusMonths(i)));
+        }
+        if (retentionMonths > 0) {
+            YearMonth oldestKept = current.minusMonths(retentionMonths);
+            for (MovementPartitionDTO partition : listPartitions()) {
+                if (partition.month() != null && partition.month().isBefore(oldestKept)) {
+                    archive(partition.month());
+                }
+            }
+        }
+        log.info("Partições de movimentações criadas: {}", created);
+        return created;
+    }
+
+    //cria a partição do mês, movendo para ela as linhas do mês que tenham caído na partição DEFAULT
+    public boolean ensurePartition(YearMonth month) {
+        requirePartitioned();
+        String name = partitionName(month);
+        return Boolean.TRUE.equals(transactionTemplate.execute(status -> {
+            if (jdbcTemplate.queryForObject("SELECT to_regclass(?) IS NOT NULL", Boolean.class, name)) return false;
+
+            Date from = Date.valueOf(month.atDay(1));
+            Date to = Date.valueOf(month.plusMonths(1).atDay(1));
+            String create = "CREATE TABLE " + name + " PARTITION OF " + PARENT
+                    + " FOR VALUES FROM ('" + from + "') TO ('" + to + "')";
+            Boolean pending = jdbcTemplate.queryForObject("SELECT EXISTS (SELECT 1 FROM " + DEFAULT_PARTITION
+                    + " WHERE movement_date >= ? AND movement_date < ?)", Boolean.class, from, to);
+            if (!pending) {
+                jdbcTemplate.execute(create);
+                return true;
+            }
+
+            // A partição não pode ser criada enquanto a DEFAULT tiver linhas do mesmo intervalo
+            jdbcTemplate.execute("ALTER TABLE " + PARENT + " DETACH PARTITION " + DEFAULT_PARTITION);
+            jdbcTemplate.execute(create);
+            jdbcTemplate.update("INSERT INTO " + PARENT + " (" + COLUMNS + ") SELECT " + COLUMNS + " FROM " + DEFAULT_PARTITION
+                    + " WHERE movement_date >= ? AND movement_date < ?", from, to);
+            jdbcTemplate.update("DELETE FROM " + DEFAULT_PARTITION + " WHERE movement_date >= ? AND movement_date < ?", from, to);
+            jdbcTemplate.execute("ALTER TABLE " + PARENT + " ATTACH PARTITION " + DEFAULT_PARTITION + " DEFAULT");
+            return true;
+        }));
+    }
+
+    //desanexa a partição do mês, exporta suas linhas para <dir>/tb_movements_pAAAA_MM.csv.gz e remove a tabela
+    public MovementArchiveDTO archive(YearMonth month) {
+        requirePartitioned();
+        if (!month.isBefore(YearMonth.now())) {
+            throw new BusinessException("Só é possível arquivar meses anteriores ao mês corrente.");
+        }
+        ensurePartition(month);
+
+        String name = partitionName(month);
+        Path file = archiveDir.resolve(name + ".csv.gz");
+        if (Files.exists(file)) {
+            throw new BusinessException("Arquivo de arquivamento já existe: " + file);
+        }
+        LocalDateTime end = month.plusMonths(1).atDay(1).atStartOfDay();
+
+        try {
+            Long rows = transactionTemplate.execute(status -> {
+                if (!jdbcTemplate.queryForObject("SELECT to_regclass(?) IS NOT NULL", Boolean.class, name)) {
+                    throw new ResourceNotFoundException(name);
+                }
+                // Fixa o saldo de cada conta no fim do mês: o saldo em datas posteriores não depende mais das linhas arquivadas
+                for (Long accountId : jdbcTemplate.queryForList("SELECT DISTINCT account_id FROM " + name, Long.class)) {
+                    balanceCheckpointService.pin(accountId, end);
+                }
+                // As movimentações arquivadas saem da soma do razão, então passam a fazer parte do saldo de abertura
+                jdbcTemplate.update("UPDATE tb_account a SET opening_balance = a.opening_balance + s.total FROM ("
+                        + "SELECT account_id, SUM(CASE WHEN type = 'WITHDRAW' THEN -amount ELSE amount END) AS total FROM " + name
+                        + " GROUP BY account_id) s WHERE a.id = s.account_id");
+                jdbcTemplate.execute("ALTER TABLE " + PARENT + " DETACH PARTITION " + name);
+                long exported = export(name, file);
+                jdbcTemplate.execute("DROP TABLE " + name);
+                return exported;
+            });
+            log.info("Partição {} arquivada em {} ({} linhas)", name, file, rows);
+            return new MovementArchiveDTO(month, name, file.toString(), rows);
+        } catch (RuntimeException e) {
+            // Sem commit a partição continua anexada; o arquivo parcial é descartado
+            try {
+                Files.deleteIfExists(temporary(file));
+                Files.deleteIfExists(file);
+            } catch (IOException suppressed) {
+                e.addSuppressed(suppressed);
+            }
+            throw e;
+        }
+    }
+
+    private long export(String table, Path file) {
+        try {
+            Files.createDirectories(archiveDir);
+            Path tmp = temporary(file);
+            long[] count = {0};
+            try (Writer writer = new BufferedWriter(new OutputStreamWriter(new GZIPOutputStream(Files.newOutputStream(tmp)), StandardCharsets.UTF_8))) {
+                writer.write(COLUMNS.replace(" ", ""));
+                writer.write('\n');
+                jdbcTemplate.query("SELECT " + COLUMNS + " FROM " + table + " ORDER BY account_id, movement_date, id", rs -> {
+                    try {
+                        // transaction_id fica vazio nas movimentações sem transação (depósito/saque direto)
+                        long transactionId = rs.getLong(6);
+                        writer.write(rs.getLong(1) + "," + rs.getLong(2) + "," + rs.getString(3) + ","
+                                + rs.getBigDecimal(4).toPlainString() + "," + rs.getObject(5, LocalDateTime.class) + ","
+                                + (rs.wasNull() ? "" : String.valueOf(transactionId)) + "\n");
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                    count[0]++;
+                });
+            }
+            Files.move(tmp, file, StandardCopyOption.ATOMIC_MOVE);
+            return count[0];
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static Path temporary(Path file) {
+        return file.resolveSibling(file.getFileName() + ".tmp");
+    }
+
+    private void requirePartitioned() {
+        if (!isPartitioned()) {
+            throw new BusinessException("Particionamento de movimentações disponível apenas no PostgreSQL.");
+        }
+    }
+
+    private static String partitionName(YearMonth month) {
+        return String.format("tb_movements_p%04d_%02d", month.getYear(), month.getMonthValue());
+    }
+
+    private static YearMonth monthOf(String partition) {
+        Matcher matcher = PARTITION_NAME.matcher(partition);
+        return matcher.matches() ? YearMonth.of(Integer.parseInt(matcher.group(1)), Integer.parseInt(matcher.group(2))) : null;
+    }
+}
@@ -1,26 +1,107 @@
 package com.example.loginauthapi.services;
 
-import com.example.loginauthapi.domain.Account;
-import com.example.loginauthapi.domain.Movement;
+import com.example.loginauthapi.dto.MovementDTO;
+import com.example.loginauthapi.dto.MovementPageDTO;
+import com.example.loginauthapi.dto.StatementCursor;
+import com.example.loginauthapi.dto.StatementLineDTO;
+import com.example.loginauthapi.dto.StatementPageDTO;
+import com.example.loginauthapi.dto.TransactionCursor;
 import com.example.loginauthapi.repositories.AccountRepository;
 import com.example.loginauthapi.repositories.MovementRepository;
+import com.example.loginauthapi.services.exceptions.BusinessException;
+import com.example.loginauthapi.services.exceptions.ResourceNotFoundException;
+import jakarta.transaction.Transactional;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.List;
 
 @Service
 public class MovementService {
 
+    public static final int DEFAULT_PAGE_SIZE = 50;
+    public static final int MAX_PAGE_SIZE = 500;
+
     @Autowired
     private MovementRepository movementRepository;
 
     @Autowired
     private AccountRepository accountRepository;
 
-    public List<Movement> getMovementsByAccount(Long accountId) {
-        Account account = accountRepository.findById(accountId)
-            .orElseThrow(() -> new RuntimeException("Conta não encontrada: " + accountId));
-        return movementRepository.findByAccount(account);
+    @Autowired
+    private BalanceCheckpointService balanceCheckpointService;
+
+    //extrato da conta no período, paginado por keyset (movementDate, id)
+    public MovementPageDTO getStatement(Long accountId, LocalDate from, LocalDate to, String cursor, Integer limit) {
+        int pageSize = pageSize(limit);
+        LocalDateTime start = rangeStart(from, to);
+        LocalDateTime end = rangeEnd(to);
+        TransactionCursor after = TransactionCursor.decode(cursor);
+
+        // Busca um registro a mais para saber se existe próxima página
+        PageRequest page = PageRequest.ofSize(pageSize + 1);
+        List<MovementDTO> content = after == null
+                ? movementRepository.findStatementPage(accountId, start, end, page)
+                : movementRepository.findStatementPageAfter(accountId, start, end, after.date(), after.id(), page);
+
+        // Só consulta a conta quando a página vem vazia, para diferenciar conta inexistente de extrato vazio
+        if (content.isEmpty() && !accountRepository.existsById(accountId)) {
+            throw new ResourceNotFoundException(accountId);
+        }
+
+        String nextCursor = null;
+        if (content.size() > pageSize) {
+            content = content.subList(0, pageSize);
+            MovementDTO last = content.get(content.size() - 1);
+            nextCursor = new TransactionCursor(last.movementDate(), last.id()).encode();
+        }
+        return new MovementPageDTO(content, nextCursor);
+    }
+
+    //extrato com o saldo após cada movimentação, calculado no banco por SUM(...) OVER
+    @Transactional
+    public StatementPageDTO getRunningStatement(Long accountId, LocalDate from, LocalDate to, String cursor, Integer limit) {
+        int pageSize = pageSize(limit);
+        LocalDateTime start = rangeStart(from, to);
+        LocalDateTime end = rangeEnd(to);
+        StatementCursor after = StatementCursor.decode(cursor);
+
+        // A primeira página abre com o saldo antes do período; as seguintes, com o saldo do cursor
+        BigDecimal opening = after != null ? after.balance() : openingBalance(accountId, start);
+        List<StatementLineDTO> content = movementRepository.findStatementWithBalance(accountId, start, end, after, opening, pageSize + 1);
+
+        String nextCursor = null;
+        if (content.size() > pageSize) {
+            content = content.subList(0, pageSize);
+            nextCursor = StatementCursor.after(content.get(content.size() - 1)).encode();
+        }
+        return new StatementPageDTO(content, nextCursor);
+    }
+
+    //saldo imediatamente antes do instante informado (falha se a conta não existir)
+    public BigDecimal openingBalance(Long accountId, LocalDateTime start) {
+        // balanceAt inclui movimentações em "at"; 1 microssegundo antes é a precisão do TIMESTAMP no H2 e no PostgreSQL
+        return balanceCheckpointService.balanceAt(accountId, start.minusNanos(1_000)).balance();
+    }
+
+    public static LocalDateTime rangeStart(LocalDate from, LocalDate to) {
+        LocalDate startDate = from != null ? from : DashboardService.MIN_DATE;
+        LocalDate endDate = to != null ? to : DashboardService.MAX_DATE;
+        if (startDate.isAfter(endDate)) {
+            throw new BusinessException("Data inicial deve ser anterior à data final.");
+        }
+        return startDate.atStartOfDay();
+    }
+
+    public static LocalDateTime rangeEnd(LocalDate to) {
+        return (to != null ? to : DashboardService.MAX_DATE).plusDays(1).atStartOfDay();
+    }
+
+    private static int pageSize(Integer limit) {
+        return limit == null ? DEFAULT_PAGE_SIZE : Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
     }
-}
\ No newline at end of file
+}
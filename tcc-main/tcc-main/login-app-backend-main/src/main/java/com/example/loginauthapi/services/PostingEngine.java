@@ -0,0 +1,256 @@
+package com.example.loginauthapi.services;
+
+import com.example.loginauthapi.domain.Account;
+import com.example.loginauthapi.domain.Movement;
+import com.example.loginauthapi.repositories.AccountRepository;
+import com.example.loginauthapi.repositories.MovementRepository;
+import com.example.loginauthapi.services.exceptions.BusinessException;
+import com.example.loginauthapi.services.exceptions.ResourceNotFoundException;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Motor de lançamentos opcional (api.posting.engine.enabled=true). As contas são distribuídas
+ * entre um número fixo de filas, cada uma atendida por uma única thread. A thread junta os
+ * lançamentos pendentes e grava todos em uma única transação: um UPDATE de saldo por conta
+ * e os INSERTs de movimentação em lote. No encerramento, o lote em andamento termina o commit e
+ * os lançamentos ainda na fila, assim como os enviados depois, falham com BusinessException.
+ */
+@Component
+@ConditionalOnProperty(name = "api.posting.engine.enabled", havingValue = "true")
+public class PostingEngine {
+
+    private static final Logger log = LoggerFactory.getLogger(PostingEngine.class);
+    private static final long POLL_MILLIS = 100;
+    private static final long STOP_TIMEOUT_MILLIS = 10_000;
+
+    @Autowired
+    private AccountRepository accountRepository;
+
+    @Autowired
+    private MovementRepository movementRepository;
+
+    @Autowired
+    private AccountReadCache accountReadCache;
+
+    private final TransactionTemplate transactionTemplate;
+    private final MeterRegistry meterRegistry;
+    private final List<Lane> lanes;
+    private final int maxBatch;
+    private final DistributionSummary commitSize;
+    private final Timer commitTime;
+    private volatile boolean stopped;
+
+    private record Posting(Long accountId, String type, BigDecimal value, CompletableFuture<Account> result) { }
+
+    public PostingEngine(PlatformTransactionManager transactionManager,
+                         MeterRegistry meterRegistry,
+                         @Value("${api.posting.engine.lanes:4}") int laneCount,
+                         @Value("${api.posting.engine.max-batch:500}") int maxBatch,
+                         @Value("${api.posting.engine.queue-capacity:10000}") int queueCapacity) {
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.meterRegistry = meterRegistry;
+        this.maxBatch = maxBatch;
+        this.commitSize = DistributionSummary.builder("posting.commit.size")
+                .description("Lançamentos gravados por commit")
+                .register(meterRegistry);
+        this.commitTime = Timer.builder("posting.commit.time")
+                .description("Duração de cada commit em lote")
+                .register(meterRegistry);
+
+        this.lanes = new ArrayList<>(laneCount);
+        for (int i = 0; i < laneCount; i++) {
+            lanes.add(new Lane(i, queueCapacity));
+        }
+    }
+
+    @PostConstruct
+    void start() {
+        for (Lane lane : lanes) {
+            Gauge.builder("posting.queue.depth", lane.queue, BlockingQueue::size)
+                    .description("Lançamentos aguardando na fila")
+                    .tag("lane", String.valueOf(lane.index))
+                    .register(meterRegistry);
+            lane.thread.start();
+        }
+    }
+
+    @PreDestroy
+    void stop() {
+        stopped = true;
+        for (Lane lane : lanes) {
+            // Espera o commit em andamento; interromper no meio dele poderia derrubar a conexão
+            try {
+                lane.thread.join(STOP_TIMEOUT_MILLIS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            lane.thread.interrupt();
+            lane.failPending();
+        }
+    }
+
+    //enfileira um depósito; o future completa com a conta e o saldo resultante após o commit
+    public CompletableFuture<Account> deposit(Long accountId, BigDecimal value) {
+        return submit(new Posting(accountId, "DEPOSIT", value, new CompletableFuture<>()));
+    }
+
+    //enfileira um saque; o future falha com BusinessException se não houver saldo
+    public CompletableFuture<Account> withdraw(Long accountId, BigDecimal value) {
+        return submit(new Posting(accountId, "WITHDRAW", value, new CompletableFuture<>()));
+    }
+
+    private CompletableFuture<Account> submit(Posting posting) {
+        // Cada conta sempre cai na mesma fila, então seus lançamentos são aplicados em ordem
+        Lane lane = lanes.get(Math.floorMod(posting.accountId().hashCode(), lanes.size()));
+        if (stopped) {
+            posting.result().completeExceptionally(stoppedException());
+        } else if (!lane.queue.offer(posting)) {
+            posting.result().completeExceptionally(new BusinessException("Fila de lançamentos cheia, tente novamente."));
+        } else if (stopped) {
+            // stop() pode ter esvaziado a fila entre a verificação e o offer
+            lane.failPending();
+        }
+        return posting.result();
+    }
+
+    private static BusinessException stoppedException() {
+        return new BusinessException("Motor de lançamentos encerrado, tente novamente.");
+    }
+
+    private class Lane implements Runnable {
+        private final int index;
+        private final BlockingQueue<Posting> queue;
+        private final Thread thread;
+
+        Lane(int index, int capacity) {
+            this.index = index;
+            this.queue = new ArrayBlockingQueue<>(capacity);
+            this.thread = new Thread(this, "posting-lane-" + index);
+            this.thread.setDaemon(true);
+        }
+
+        @Override
+        public void run() {
+            List<Posting> batch = new ArrayList<>(maxBatch);
+            try {
+                while (!stopped) {
+                    Posting next = queue.poll(POLL_MILLIS, TimeUnit.MILLISECONDS);
+                    if (next == null) continue;
+                    batch.add(next);
+                    // Junta o que mais chegou enquanto o commit anterior estava em andamento
+                    queue.drainTo(batch, maxBatch - 1);
+                    commit(batch);
+                    batch.clear();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } finally {
+                // Lote interrompido antes de responder: futures já completados não mudam
+                batch.forEach(posting -> posting.result().completeExceptionally(stoppedException()));
+            }
+        }
+
+        //recusa os lançamentos que ficaram na fila
+        void failPending() {
+            List<Posting> pending = new ArrayList<>();
+            queue.drainTo(pending);
+            pending.forEach(posting -> posting.result().completeExceptionally(stoppedException()));
+        }
+    }
+
+    private void commit(List<Posting> batch) {
+        Map<Posting, Account> applied = new IdentityHashMap<>();
+        Map<Posting, RuntimeException> rejected = new IdentityHashMap<>();
+        try {
+            commitTime.record(() -> transactionTemplate.executeWithoutResult(status -> apply(batch, applied, rejected)));
+            commitSize.record(applied.size());
+        } catch (RuntimeException e) {
+            log.error("Falha ao gravar lote de {} lançamentos", batch.size(), e);
+            batch.forEach(posting -> posting.result().completeExceptionally(e));
+            return;
+        }
+        // Só responde depois do commit, para o chamador nunca ver um saldo não gravado
+        for (Posting posting : batch) {
+            RuntimeException error = rejected.get(posting);
+            if (error != null) {
+                posting.result().completeExceptionally(error);
+            } else {
+                posting.result().complete(applied.get(posting));
+            }
+        }
+    }
+
+    private void apply(List<Posting> batch, Map<Posting, Account> applied, Map<Posting, RuntimeException> rejected) {
+        applied.clear();
+        rejected.clear();
+
+        // Um único SELECT ... FOR UPDATE para todas as contas do lote
+        List<Long> ids = batch.stream().map(Posting::accountId).distinct().toList();
+        Map<Long, Account> accounts = accountRepository.findAllForUpdate(ids).stream()
+                .collect(Collectors.toMap(Account::getId, Function.identity()));
+
+        Map<Long, BigDecimal> balances = new HashMap<>();
+        List<Movement> movements = new ArrayList<>(batch.size());
+        LocalDateTime now = LocalDateTime.now();
+        for (Posting posting : batch) {
+            Account account = accounts.get(posting.accountId());
+            if (account == null) {
+                rejected.put(posting, new ResourceNotFoundException(posting.accountId()));
+                continue;
+            }
+            BigDecimal balance = balances.computeIfAbsent(account.getId(),
+                    id -> account.getBalance() != null ? account.getBalance() : BigDecimal.ZERO);
+            if (posting.type().equals("WITHDRAW")) {
+                if (balance.compareTo(posting.value()) < 0) {
+                    rejected.put(posting, new BusinessException("Saldo insuficiente para saque."));
+                    continue;
+                }
+                balance = balance.subtract(posting.value());
+            } else {
+                balance = balance.add(posting.value());
+            }
+            balances.put(account.getId(), balance);
+            movements.add(new Movement(account, posting.type(), posting.value(), now));
+            applied.put(posting, snapshot(account, balance));
+        }
+
+        // Dirty checking gera um UPDATE por conta com o saldo final do lote (e a nova versão, lida no cache após o commit)
+        balances.forEach((id, balance) -> {
+            accounts.get(id).setBalance(balance);
+            accountReadCache.put(accounts.get(id));
+        });
+        movementRepository.saveAll(movements);
+    }
+
+    private Account snapshot(Account account, BigDecimal balance) {
+        return new Account(account.getId(), account.getName(), account.getCpf(),
+                account.getDateOfBirth(), account.getBank(), balance);
+    }
+}
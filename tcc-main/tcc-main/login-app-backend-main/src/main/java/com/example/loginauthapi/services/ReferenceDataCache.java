@@ -0,0 +1,181 @@
+package com.example.loginauthapi.services;
+
+import com.example.loginauthapi.domain.Category;
+import com.example.loginauthapi.domain.TransactionType;
+import com.example.loginauthapi.dto.CategoryDTO;
+import com.example.loginauthapi.dto.TransactionTypeDTO;
+import com.example.loginauthapi.repositories.CategoryRepository;
+import com.example.loginauthapi.repositories.TransactionTypeRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Comparator;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Cópia em memória das categorias e tipos de transação. As leituras usam um snapshot
+ * imutável, trocado atomicamente quando CategoryService ou TransactionTypeService alteram dados.
+ * O snapshot também guarda as respostas de GET /categories e GET /transaction-types já
+ * serializadas (com e sem gzip), então esses GETs só copiam bytes.
+ */
+@Component
+public class ReferenceDataCache {
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    @Autowired
+    private TransactionTypeRepository transactionTypeRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private final AtomicReference<Snapshot> snapshot = new AtomicReference<>();
+
+    public record CachedCategory(Long id, String categoryName) {
+        public Category toEntity() {
+            return new Category(id, categoryName, null);
+        }
+
+        public CategoryDTO toDto() {
+            return new CategoryDTO(id, categoryName);
+        }
+    }
+
+    public record CachedTransactionType(Long id, String transactionType) {
+        private static final Set<String> INCOME_NAMES = Set.of("INCOME", "RECEITA");
+        private static final Set<String> EXPENSE_NAMES = Set.of("EXPENSE", "DESPESA");
+
+        public boolean isIncome() {
+            return transactionType != null && INCOME_NAMES.contains(transactionType.toUpperCase());
+        }
+
+        public boolean isExpense() {
+            return transactionType != null && EXPENSE_NAMES.contains(transactionType.toUpperCase());
+        }
+
+        public TransactionType toEntity() {
+            return new TransactionType(id, transactionType);
+        }
+
+        public TransactionTypeDTO toDto() {
+            return new TransactionTypeDTO(id, transactionType);
+        }
+    }
+
+    // Lista serializada em JSON, sem compressão e com gzip; cada forma tem o seu ETag forte
+    public record SerializedList(String etag, byte[] identity, String gzipEtag, byte[] gzip) {
+    }
+
+    private record Snapshot(List<CachedCategory> categories,
+                            Map<Long, CachedCategory> categoriesById,
+                            List<CachedTransactionType> transactionTypes,
+                            Map<Long, CachedTransactionType> transactionTypesById,
+                            Map<String, CachedTransactionType> transactionTypesByName,
+                            SerializedList categoriesJson,
+                            SerializedList transactionTypesJson) {
+    }
+
+    @PostConstruct
+    public void reload() {
+        List<CachedCategory> categories = categoryRepository.findAll().stream()
+                .map(c -> new CachedCategory(c.getId(), c.getCategoryName()))
+                .sorted(Comparator.comparing(CachedCategory::id))
+                .toList();
+        List<CachedTransactionType> transactionTypes = transactionTypeRepository.findAll().stream()
+                .map(t -> new CachedTransactionType(t.getId(), t.getTransactionType()))
+                .sorted(Comparator.comparing(CachedTransactionType::id))
+                .toList();
+
+        snapshot.set(new Snapshot(
+                categories,
+                categories.stream().collect(Collectors.toUnmodifiableMap(CachedCategory::id, Function.identity())),
+                transactionTypes,
+                transactionTypes.stream().collect(Collectors.toUnmodifiableMap(CachedTransactionType::id, Function.identity())),
+                transactionTypes.stream().collect(Collectors.toUnmodifiableMap(CachedTransactionType::transactionType, Function.identity(), (a, b) -> a)),
+                serialize(categories.stream().map(CachedCategory::toDto).toList()),
+                serialize(transactionTypes.stream().map(CachedTransactionType::toDto).toList())
+        ));
+    }
+
+    //ETag derivado do conteúdo: igual entre reinícios e instâncias enquanto a lista não mudar
+    private SerializedList serialize(List<?> list) {
+        try {
+            byte[] identity = objectMapper.writeValueAsBytes(list);
+            String hash = HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(identity), 0, 16);
+            ByteArrayOutputStream gzip = new ByteArrayOutputStream(identity.length);
+            try (GZIPOutputStream out = new GZIPOutputStream(gzip)) {
+                out.write(identity);
+            }
+            return new SerializedList("\"" + hash + "\"", identity, "\"" + hash + "-gzip\"", gzip.toByteArray());
+        } catch (IOException | NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    //recarrega após o commit da transação corrente, ou imediatamente se não houver transação
+    public void invalidate() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    reload();
+                }
+            });
+        } else {
+            reload();
+        }
+    }
+
+    public SerializedList getCategoriesJson() {
+        return snapshot.get().categoriesJson();
+    }
+
+    public SerializedList getTransactionTypesJson() {
+        return snapshot.get().transactionTypesJson();
+    }
+
+    public List<CachedCategory> getCategories() {
+        return snapshot.get().categories();
+    }
+
+    public Optional<CachedCategory> findCategory(Long id) {
+        return Optional.ofNullable(id).map(snapshot.get().categoriesById()::get);
+    }
+
+    public List<CachedTransactionType> getTransactionTypes() {
+        return snapshot.get().transactionTypes();
+    }
+
+    public Optional<CachedTransactionType> findTransactionType(Long id) {
+        return Optional.ofNullable(id).map(snapshot.get().transactionTypesById()::get);
+    }
+
+    public Optional<CachedTransactionType> findTransactionTypeByName(String transactionType) {
+        return Optional.ofNullable(transactionType).map(snapshot.get().transactionTypesByName()::get);
+    }
+
+    public List<Long> incomeTypeIds() {
+        return getTransactionTypes().stream().filter(CachedTransactionType::isIncome).map(CachedTransactionType::id).toList();
+    }
+
+    public List<Long> expenseTypeIds() {
+        return getTransactionTypes().stream().filter(CachedTransactionType::isExpense).map(CachedTransactionType::id).toList();
+    }
+}
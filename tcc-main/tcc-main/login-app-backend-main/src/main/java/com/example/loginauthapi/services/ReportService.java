@@ -0,0 +1,129 @@
+package com.example.loginauthapi.services;
+
+import com.example.loginauthapi.domain.User;
+import com.example.loginauthapi.dto.CategorySummaryDTO;
+import com.example.loginauthapi.dto.PeriodReportDTO;
+import com.example.loginauthapi.dto.RollupTotalDTO;
+import com.example.loginauthapi.repositories.TransactionMonthlyRollupRepository;
+import com.example.loginauthapi.services.exceptions.BusinessException;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Relatórios mensais e anuais lidos apenas da tabela transaction_monthly_rollup.
+ */
+@Service
+public class ReportService {
+
+    @Autowired
+    private TransactionMonthlyRollupRepository rollupRepository;
+
+    @Autowired
+    private ReferenceDataCache referenceDataCache;
+
+    //um item por mês do intervalo, inclusive meses sem transações
+    public List<PeriodReportDTO> monthly(User user, YearMonth from, YearMonth to) {
+        YearMonth end = to != null ? to : YearMonth.now();
+        YearMonth start = from != null ? from : end.minusMonths(11);
+        if (start.isAfter(end)) {
+            throw new BusinessException("Mês inicial deve ser anterior ao mês final.");
+        }
+
+        List<String> periods = new ArrayList<>();
+        for (YearMonth month = start; !month.isAfter(end); month = month.plusMonths(1)) {
+            periods.add(month.toString());
+        }
+        return build(user, toYearMonth(start), toYearMonth(end), periods,
+                yearMonth -> YearMonth.of(yearMonth / 100, yearMonth % 100).toString());
+    }
+
+    //um item por ano do intervalo, inclusive anos sem transações
+    public List<PeriodReportDTO> yearly(User user, Integer from, Integer to) {
+        int end = to != null ? to : YearMonth.now().getYear();
+        int start = from != null ? from : end;
+        if (start > end) {
+            throw new BusinessException("Ano inicial deve ser anterior ao ano final.");
+        }
+
+        List<String> periods = new ArrayList<>();
+        for (int year = start; year <= end; year++) {
+            periods.add(String.valueOf(year));
+        }
+        return build(user, start * 100 + 1, end * 100 + 12, periods,
+                yearMonth -> String.valueOf(yearMonth / 100));
+    }
+
+    private List<PeriodReportDTO> build(User user, int fromYearMonth, int toYearMonth,
+                                        List<String> periods, Function<Integer, String> periodOf) {
+        Map<String, List<RollupTotalDTO>> byPeriod = new LinkedHashMap<>();
+        periods.forEach(period -> byPeriod.put(period, new ArrayList<>()));
+        for (RollupTotalDTO total : rollupRepository.sumByMonth(user.getId(), fromYearMonth, toYearMonth)) {
+            byPeriod.get(periodOf.apply(total.yearMonth())).add(total);
+        }
+
+        List<PeriodReportDTO> report = new ArrayList<>(byPeriod.size());
+        byPeriod.forEach((period, totals) -> report.add(toPeriodReport(period, totals)));
+        return report;
+    }
+
+    private PeriodReportDTO toPeriodReport(String period, List<RollupTotalDTO> totals) {
+        // Soma os meses do período por categoria e tipo
+        Map<List<Long>, CategoryTotal> byCategory = new LinkedHashMap<>();
+        for (RollupTotalDTO total : totals) {
+            byCategory.computeIfAbsent(List.of(total.categoryId(), total.transactionTypeId()), k -> new CategoryTotal())
+                    .add(total.total(), total.count());
+        }
+
+        BigDecimal income = BigDecimal.ZERO;
+        BigDecimal expense = BigDecimal.ZERO;
+        long count = 0;
+        List<CategorySummaryDTO> categories = new ArrayList<>(byCategory.size());
+        for (Map.Entry<List<Long>, CategoryTotal> entry : byCategory.entrySet()) {
+            Long categoryId = entry.getKey().get(0);
+            Long transactionTypeId = entry.getKey().get(1);
+            CategoryTotal total = entry.getValue();
+            // Linhas zeradas sobram no rollup quando todas as transações do mês são removidas
+            if (total.count == 0) continue;
+
+            var type = referenceDataCache.findTransactionType(transactionTypeId);
+            if (type.map(ReferenceDataCache.CachedTransactionType::isIncome).orElse(false)) {
+                income = income.add(total.amount);
+            } else if (type.map(ReferenceDataCache.CachedTransactionType::isExpense).orElse(false)) {
+                expense = expense.add(total.amount);
+            }
+            count += total.count;
+
+            categories.add(new CategorySummaryDTO(
+                    categoryId,
+                    referenceDataCache.findCategory(categoryId).map(ReferenceDataCache.CachedCategory::categoryName).orElse(null),
+                    transactionTypeId,
+                    type.map(ReferenceDataCache.CachedTransactionType::transactionType).orElse(null),
+                    total.amount,
+                    total.count
+            ));
+        }
+        return new PeriodReportDTO(period, income, expense, count, categories);
+    }
+
+    private static int toYearMonth(YearMonth month) {
+        return month.getYear() * 100 + month.getMonthValue();
+    }
+
+    private static class CategoryTotal {
+        private BigDecimal amount = BigDecimal.ZERO;
+        private long count;
+
+        void add(BigDecimal amount, Long count) {
+            this.amount = this.amount.add(amount);
+            this.count += count;
+        }
+    }
+}
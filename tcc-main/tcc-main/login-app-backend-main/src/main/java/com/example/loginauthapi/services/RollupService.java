@@ -0,0 +1,129 @@
+package com.example.loginauthapi.services;
+
+import com.example.loginauthapi.domain.Transaction;
+import com.example.loginauthapi.domain.TransactionMonthlyRollupId;
+import com.example.loginauthapi.dto.RollupDiffDTO;
+import com.example.loginauthapi.dto.RollupDriftDTO;
+import com.example.loginauthapi.dto.RollupRowDTO;
+import com.example.loginauthapi.repositories.TransactionMonthlyRollupRepository;
+import jakarta.transaction.Transactional;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * Mantém a tabela transaction_monthly_rollup. Os deltas são aplicados na mesma transação
+ * que grava a Transaction, então o rollup nunca fica à frente ou atrás do commit.
+ */
+@Service
+public class RollupService {
+
+    @Autowired
+    private TransactionMonthlyRollupRepository rollupRepository;
+
+    @Autowired
+    private TransactionArchiveService transactionArchiveService;
+
+    public void add(Transaction transaction) {
+        rollupRepository.applyDelta(keyOf(transaction), transaction.getAmount(), 1);
+    }
+
+    //soma um lote de transações com um upsert por chave do rollup, não por transação
+    public void addAll(Collection<Transaction> transactions) {
+        Map<TransactionMonthlyRollupId, BigDecimal> totals = new LinkedHashMap<>();
+        Map<TransactionMonthlyRollupId, Long> counts = new HashMap<>();
+        for (Transaction transaction : transactions) {
+            TransactionMonthlyRollupId key = keyOf(transaction);
+            totals.merge(key, transaction.getAmount(), BigDecimal::add);
+            counts.merge(key, 1L, Long::sum);
+        }
+        totals.forEach((key, total) -> rollupRepository.applyDelta(key, total, counts.get(key)));
+    }
+
+    public void remove(Transaction transaction) {
+        rollupRepository.applyDelta(keyOf(transaction), transaction.getAmount().negate(), -1);
+    }
+
+    public static Integer yearMonthOf(LocalDateTime date) {
+        return date.getYear() * 100 + date.getMonthValue();
+    }
+
+    private TransactionMonthlyRollupId keyOf(Transaction transaction) {
+        return new TransactionMonthlyRollupId(
+                transaction.getUser().getId(),
+                yearMonthOf(transaction.getDate()),
+                transaction.getCategory().getId(),
+                transaction.getTransactionType().getId(),
+                transaction.getAccount() != null ? transaction.getAccount().getId() : TransactionMonthlyRollupId.NO_ACCOUNT
+        );
+    }
+
+    //compara o rollup com os valores recalculados a partir de transactions e do arquivo frio
+    public RollupDriftDTO checkDrift() {
+        return computeDrift(false);
+    }
+
+    //recalcula o rollup do zero, retornando as diferenças encontradas antes da reconstrução
+    @Transactional
+    public RollupDriftDTO rebuild() {
+        // Com a tabela bloqueada, todo lançamento que já aplicou delta está commitado (e entra na contagem
+        // abaixo) e os novos esperam a reconstrução terminar para aplicar o seu; duas reconstruções também se serializam
+        rollupRepository.lockForRebuild();
+        RollupDriftDTO drift = computeDrift(true);
+        rollupRepository.deleteAllRows();
+        rollupRepository.insertRowsFromTransactions();
+        // Transações arquivadas continuam no rollup
+        for (RollupRowDTO row : transactionArchiveService.rollupRows()) {
+            rollupRepository.applyDelta(new TransactionMonthlyRollupId(row.userId(), row.yearMonth(), row.categoryId(),
+                    row.transactionTypeId(), row.accountId()), row.total(), row.count());
+        }
+        return drift;
+    }
+
+    private RollupDriftDTO computeDrift(boolean rebuilt) {
+        List<RollupRowDTO> computed = new ArrayList<>(rollupRepository.computeRowsFromTransactions());
+        computed.addAll(transactionArchiveService.rollupRows());
+        Map<TransactionMonthlyRollupId, RollupRowDTO> expected = index(computed);
+        Map<TransactionMonthlyRollupId, RollupRowDTO> actual = index(rollupRepository.findAllRows());
+
+        Set<TransactionMonthlyRollupId> keys = new HashSet<>(expected.keySet());
+        keys.addAll(actual.keySet());
+
+        List<RollupDiffDTO> differences = new ArrayList<>();
+        for (TransactionMonthlyRollupId key : keys) {
+            RollupRowDTO e = expected.get(key);
+            RollupRowDTO a = actual.get(key);
+            BigDecimal expectedTotal = e != null ? e.total() : BigDecimal.ZERO;
+            BigDecimal actualTotal = a != null ? a.total() : BigDecimal.ZERO;
+            long expectedCount = e != null ? e.count() : 0L;
+            long actualCount = a != null ? a.count() : 0L;
+            if (expectedTotal.compareTo(actualTotal) != 0 || expectedCount != actualCount) {
+                differences.add(new RollupDiffDTO(key.getUserId(), key.getYearMonth(), key.getCategoryId(),
+                        key.getTransactionTypeId(), key.getAccountId(), expectedTotal, actualTotal, expectedCount, actualCount));
+            }
+        }
+        return new RollupDriftDTO(expected.size(), actual.size(), differences, rebuilt);
+    }
+
+    private Map<TransactionMonthlyRollupId, RollupRowDTO> index(List<RollupRowDTO> rows) {
+        Map<TransactionMonthlyRollupId, RollupRowDTO> map = new HashMap<>();
+        for (RollupRowDTO row : rows) {
+            // Linhas zeradas (todas as transações removidas) equivalem a linhas ausentes
+            if (Objects.equals(row.count(), 0L) && row.total().signum() == 0) continue;
+            map.put(new TransactionMonthlyRollupId(row.userId(), row.yearMonth(), row.categoryId(),
+                    row.transactionTypeId(), row.accountId()), row);
+        }
+        return map;
+    }
+}
@@ -0,0 +1,302 @@
+package com.example.loginauthapi.services;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.math.BigDecimal;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Leitura de extratos bancários em streaming, um lançamento por vez. CSV precisa de uma linha de
+ * cabeçalho com as colunas de data, valor e descrição (separador ; ou , detectado pelo cabeçalho);
+ * OFX é lido tag a tag, então funciona tanto no formato SGML (1.x) quanto no XML (2.x).
+ */
+abstract class StatementFileReader implements Closeable {
+
+    private static final int HEADER_BYTES = 512;
+
+    // Lançamento lido do arquivo; error preenchido quando a linha não pôde ser interpretada
+    record Line(long number, LocalDate date, BigDecimal amount, String description, String error) {
+
+        static Line invalid(long number, String error) {
+            return new Line(number, null, null, null, error);
+        }
+    }
+
+    enum Format {
+        CSV, OFX;
+
+        static Format of(String format, String fileName) {
+            if (format != null && !format.isBlank()) {
+                return switch (format.trim().toLowerCase(Locale.ROOT)) {
+                    case "csv" -> CSV;
+                    case "ofx", "qfx" -> OFX;
+                    default -> throw new IllegalArgumentException("Formato de extrato não suportado: " + format);
+                };
+            }
+            String name = fileName != null ? fileName.toLowerCase(Locale.ROOT) : "";
+            return name.endsWith(".ofx") || name.endsWith(".qfx") ? OFX : CSV;
+        }
+    }
+
+    static StatementFileReader open(Format format, InputStream in) throws IOException {
+        return switch (format) {
+            case CSV -> new Csv(new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8)));
+            case OFX -> {
+                BufferedInputStream buffered = new BufferedInputStream(in);
+                yield new Ofx(new BufferedReader(new InputStreamReader(buffered, ofxCharset(buffered))));
+            }
+        };
+    }
+
+    //OFX 1.x declara CHARSET no cabeçalho (geralmente 1252) e o 2.x é XML com encoding; sem declaração, 1252
+    private static Charset ofxCharset(BufferedInputStream in) throws IOException {
+        in.mark(HEADER_BYTES);
+        String header = new String(in.readNBytes(HEADER_BYTES), StandardCharsets.US_ASCII).toUpperCase(Locale.ROOT);
+        in.reset();
+        return header.contains("UTF-8") ? StandardCharsets.UTF_8 : Charset.forName("windows-1252");
+    }
+
+    //próximo lançamento, ou nulo no fim do arquivo
+    abstract Line next() throws IOException;
+
+    private static final List<DateTimeFormatter> DATE_FORMATS = List.of(
+            DateTimeFormatter.ISO_LOCAL_DATE,
+            DateTimeFormatter.ofPattern("dd/MM/yyyy"),
+            DateTimeFormatter.ofPattern("dd/MM/yy"),
+            DateTimeFormatter.ofPattern("yyyyMMdd"));
+
+    static LocalDate parseDate(String value) {
+        String text = value.trim();
+        for (DateTimeFormatter format : DATE_FORMATS) {
+            try {
+                return LocalDate.parse(text, format);
+            } catch (DateTimeParseException ignored) {
+                // tenta o próximo formato
+            }
+        }
+        throw new IllegalArgumentException("Data inválida: " + value);
+    }
+
+    //aceita 1234.56, 1.234,56, 1,234.56, -12,30 e (12,30) como valor negativo
+    static BigDecimal parseAmount(String value) {
+        String text = value.trim().replace("R$", "").replace(" ", "");
+        boolean negative = text.startsWith("(") && text.endsWith(")");
+        if (negative) text = text.substring(1, text.length() - 1);
+        int comma = text.lastIndexOf(',');
+        int dot = text.lastIndexOf('.');
+        if (comma > dot) {
+            text = text.replace(".", "").replace(',', '.');
+        } else {
+            text = text.replace(",", "");
+        }
+        try {
+            BigDecimal amount = new BigDecimal(text);
+            return negative ? amount.negate() : amount;
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Valor inválido: " + value);
+        }
+    }
+
+    private static final class Csv extends StatementFileReader {
+
+        private static final List<String> DATE_COLUMNS = List.of("date", "data", "dt", "data lancamento", "data lançamento");
+        private static final List<String> AMOUNT_COLUMNS = List.of("amount", "valor", "value", "montante");
+        private static final List<String> DESCRIPTION_COLUMNS = List.of("description", "descricao", "descrição", "historico",
+                "histórico", "memo", "lancamento", "lançamento");
+
+        private final BufferedReader reader;
+        private long number;
+        private char separator;
+        private int dateColumn = -1;
+        private int amountColumn = -1;
+        private int descriptionColumn = -1;
+
+        Csv(BufferedReader reader) {
+            this.reader = reader;
+        }
+
+        @Override
+        Line next() throws IOException {
+            String text;
+            while ((text = reader.readLine()) != null) {
+                number++;
+                if (text.isBlank()) continue;
+                if (dateColumn < 0) {
+                    header(text);
+                    continue;
+                }
+                List<String> fields = split(text, separator);
+                int needed = Math.max(dateColumn, Math.max(amountColumn, descriptionColumn));
+                if (fields.size() <= needed) {
+                    return Line.invalid(number, "Linha com " + fields.size() + " colunas.");
+                }
+                try {
+                    return new Line(number, parseDate(fields.get(dateColumn)), parseAmount(fields.get(amountColumn)),
+                            fields.get(descriptionColumn).trim(), null);
+                } catch (IllegalArgumentException e) {
+                    return Line.invalid(number, e.getMessage());
+                }
+            }
+            return null;
+        }
+
+        private void header(String text) {
+            // Remove o BOM que algumas exportações colocam no início
+            if (text.startsWith("\uFEFF")) text = text.substring(1);
+            separator = text.indexOf(';') >= 0 ? ';' : ',';
+            List<String> columns = split(text, separator).stream()
+                    .map(column -> column.trim().toLowerCase(Locale.ROOT))
+                    .toList();
+            dateColumn = indexOf(columns, DATE_COLUMNS);
+            amountColumn = indexOf(columns, AMOUNT_COLUMNS);
+            descriptionColumn = indexOf(columns, DESCRIPTION_COLUMNS);
+            if (dateColumn < 0 || amountColumn < 0 || descriptionColumn < 0) {
+                throw new IllegalArgumentException("CSV sem cabeçalho com colunas de data, valor e descrição.");
+            }
+        }
+
+        private static int indexOf(List<String> columns, List<String> names) {
+            for (int i = 0; i < columns.size(); i++) {
+                if (names.contains(columns.get(i))) return i;
+            }
+            return -1;
+        }
+
+        //separa os campos respeitando aspas ("a;b" e "" dentro de aspas)
+        private static List<String> split(String text, char separator) {
+            List<String> fields = new ArrayList<>();
+            StringBuilder field = new StringBuilder();
+            boolean quoted = false;
+            for (int i = 0; i < text.length(); i++) {
+                char c = text.charAt(i);
+                if (quoted) {
+                    if (c == '"' && i + 1 < text.length() && text.charAt(i + 1) == '"') {
+                        field.append('"');
+                        i++;
+                    } else if (c == '"') {
+                        quoted = false;
+                    } else {
+                        field.append(c);
+                    }
+                } else if (c == '"') {
+                    quoted = true;
+                } else if (c == separator) {
+                    fields.add(field.toString());
+                    field.setLength(0);
+                } else {
+                    field.append(c);
+                }
+            }
+            fields.add(field.toString());
+            return fields;
+        }
+
+        @Override
+        public void close() throws IOException {
+            reader.close();
+        }
+    }
+
+    private static final class Ofx extends StatementFileReader {
+
+        private final Reader reader;
+        private final StringBuilder token = new StringBuilder();
+        private long number;
+        private int pending = -1;
+
+        Ofx(Reader reader) {
+            this.reader = reader;
+        }
+
+        @Override
+        Line next() throws IOException {
+            Map<String, String> fields = null;
+            String tag;
+            while ((tag = nextTag()) != null) {
+                if (tag.equals("STMTTRN")) {
+                    fields = new HashMap<>();
+                } else if (tag.equals("/STMTTRN") && fields != null) {
+                    number++;
+                    return toLine(fields);
+                } else if (fields != null && !tag.startsWith("/")) {
+                    String value = text();
+                    if (!value.isEmpty()) fields.put(tag, value);
+                }
+            }
+            return null;
+        }
+
+        private Line toLine(Map<String, String> fields) {
+            String date = fields.get("DTPOSTED");
+            String amount = fields.get("TRNAMT");
+            String description = fields.getOrDefault("MEMO", fields.get("NAME"));
+            if (date == null || amount == null) {
+                return Line.invalid(number, "Lançamento OFX sem DTPOSTED ou TRNAMT.");
+            }
+            try {
+                // DTPOSTED vem como AAAAMMDD[HHMMSS[.XXX][TZ]]; só a data interessa
+                return new Line(number, parseDate(date.substring(0, Math.min(8, date.length()))), parseAmount(amount),
+                        description != null ? description : "", null);
+            } catch (IllegalArgumentException e) {
+                return Line.invalid(number, e.getMessage());
+            }
+        }
+
+        //nome da próxima tag (sem < >), pulando o cabeçalho e o texto entre tags
+        private String nextTag() throws IOException {
+            int c;
+            while ((c = read()) != -1 && c != '<') {
+                // ignora o que estiver fora de uma tag
+            }
+            if (c == -1) return null;
+            token.setLength(0);
+            while ((c = read()) != -1 && c != '>') {
+                token.append((char) c);
+            }
+            return token.toString().trim().toUpperCase(Locale.ROOT);
+        }
+
+        //texto após a tag até a próxima '<' (no SGML a tag de valor não tem fechamento)
+        private String text() throws IOException {
+            token.setLength(0);
+            int c;
+            while ((c = read()) != -1 && c != '<') {
+                token.append((char) c);
+            }
+            if (c == '<') pending = c;
+            return decode(token.toString().trim());
+        }
+
+        private int read() throws IOException {
+            if (pending != -1) {
+                int c = pending;
+                pending = -1;
+                return c;
+            }
+            return reader.read();
+        }
+
+        private static String decode(String value) {
+            return value.replace("&lt;", "<").replace("&gt;", ">").replace("&amp;", "&");
+        }
+
+        @Override
+        public void close() throws IOException {
+            reader.close();
+        }
+    }
+}
@@ -0,0 +1,271 @@
+package com.example.loginauthapi.services;
+
+import com.example.loginauthapi.domain.User;
+import com.example.loginauthapi.dto.ArchivedTransactionDTO;
+import com.example.loginauthapi.dto.StatementImportProgressDTO;
+import com.example.loginauthapi.dto.TransactionBatchItemDTO;
+import com.example.loginauthapi.dto.TransactionRequestDTO;
+import com.example.loginauthapi.repositories.AccountRepository;
+import com.example.loginauthapi.services.exceptions.BusinessException;
+import com.example.loginauthapi.services.exceptions.ResourceNotFoundException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.sql.Timestamp;
+import java.text.Normalizer;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.Predicate;
+import java.util.regex.Pattern;
+
+/**
+ * Importação de extratos (CSV/OFX) para uma conta. O arquivo é lido em streaming e gravado em
+ * blocos pelo TransactionBatchService, então o heap não cresce com o tamanho do arquivo. Linhas
+ * já existentes são puladas pelo hash do conteúdo (data, valor com sinal e descrição normalizada),
+ * conferido contra o conjunto de hashes da conta carregado do banco (e do arquivo frio) no início.
+ */
+@Service
+public class StatementImportService {
+
+    private static final Logger log = LoggerFactory.getLogger(StatementImportService.class);
+
+    private static final int MAX_REJECTIONS = 100;
+    private static final int DESCRIPTION_LENGTH = 255;
+    private static final Pattern MARKS = Pattern.compile("\\p{M}+");
+    private static final Pattern SEPARATORS = Pattern.compile("[^a-z0-9]+");
+
+    @Autowired
+    private TransactionBatchService transactionBatchService;
+
+    @Autowired
+    private TransactionArchiveService transactionArchiveService;
+
+    @Autowired
+    private AccountRepository accountRepository;
+
+    @Autowired
+    private ReferenceDataCache referenceDataCache;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private CategorizationEngine categorizationEngine;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final int chunkSize;
+
+    // Importação validada: conta de destino e tipo/categoria usados para créditos e débitos;
+    // com categorize, as categorias são só o padrão para as linhas que nenhuma regra reconhece
+    public record Plan(Long userId, Long accountId, StatementFileReader.Format format,
+                       Long incomeTypeId, Long expenseTypeId, Long incomeCategoryId, Long expenseCategoryId,
+                       boolean categorize) { }
+
+    public StatementImportService(DataSource dataSource,
+                                  @Value("${api.transactions.import.chunk-size:1000}") int chunkSize) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        // Os hashes da conta são lidos em blocos, sem carregar as transações inteiras
+        this.jdbcTemplate.setFetchSize(1000);
+        this.chunkSize = chunkSize;
+    }
+
+    //valida a conta, o formato e os tipos antes de começar a responder
+    public Plan prepare(User user, Long accountId, String format, String fileName, Long categoryId) {
+        if (!accountRepository.existsById(accountId)) {
+            throw new ResourceNotFoundException(accountId);
+        }
+        StatementFileReader.Format fileFormat = StatementFileReader.Format.of(format, fileName);
+
+        // Primeiro tipo de receita e de despesa cadastrado (RECEITA/DESPESA na V5)
+        Long incomeType = typeId("de receita", ReferenceDataCache.CachedTransactionType::isIncome);
+        Long expenseType = typeId("de despesa", ReferenceDataCache.CachedTransactionType::isExpense);
+
+        Long incomeCategory = categoryId;
+        Long expenseCategory = categoryId;
+        if (categoryId != null) {
+            if (referenceDataCache.findCategory(categoryId).isEmpty()) throw new ResourceNotFoundException(categoryId);
+        } else {
+            incomeCategory = categoryByName("Outras Receitas");
+            expenseCategory = categoryByName("Outras Despesas");
+        }
+        return new Plan(user.getId(), accountId, fileFormat, incomeType, expenseType, incomeCategory, expenseCategory,
+                categoryId == null);
+    }
+
+    //importa o arquivo escrevendo em out uma linha NDJSON de progresso por bloco gravado e uma final
+    public void run(Plan plan, InputStream in, OutputStream out) throws IOException {
+        long started = System.nanoTime();
+        MessageDigest digest = sha256();
+        Map<Long, Integer> existing = existingHashes(plan, digest);
+        Map<Long, Integer> seen = new HashMap<>();
+
+        Progress progress = new Progress();
+        List<TransactionRequestDTO> chunk = new ArrayList<>(chunkSize);
+        List<Long> chunkLines = new ArrayList<>(chunkSize);
+        String error = null;
+
+        try (StatementFileReader reader = StatementFileReader.open(plan.format(), in)) {
+            StatementFileReader.Line line;
+            while ((line = reader.next()) != null) {
+                progress.read++;
+                if (line.error() != null || line.amount().signum() == 0) {
+                    progress.reject(line.number(), line.error() != null ? line.error() : "Valor zero.");
+                    continue;
+                }
+                TransactionRequestDTO dto = toRequest(plan, line);
+                long hash = contentHash(digest, line.date(), line.amount(), dto.getDescription());
+                // Repetições idênticas são legítimas (duas compras iguais no dia): só pula as que já existem
+                int occurrence = seen.merge(hash, 1, Integer::sum);
+                if (occurrence <= existing.getOrDefault(hash, 0)) {
+                    progress.duplicates++;
+                    continue;
+                }
+                chunk.add(dto);
+                chunkLines.add(line.number());
+                if (chunk.size() == chunkSize) {
+                    write(chunk, chunkLines, progress, out);
+                }
+            }
+            write(chunk, chunkLines, progress, out);
+        } catch (IllegalArgumentException e) {
+            // Arquivo ilegível (ex.: CSV sem cabeçalho): o que já foi gravado permanece
+            error = e.getMessage();
+        }
+
+        log.info("Extrato importado na conta {}: {} lidos, {} gravados, {} duplicados, {} rejeitados em {} ms", plan.accountId(),
+                progress.read, progress.imported, progress.duplicates, progress.rejected, (System.nanoTime() - started) / 1_000_000);
+        emit(out, new StatementImportProgressDTO(progress.read, progress.imported, progress.duplicates, progress.rejected,
+                true, error, progress.rejections));
+    }
+
+    private void write(List<TransactionRequestDTO> chunk, List<Long> lines, Progress progress, OutputStream out) throws IOException {
+        if (chunk.isEmpty()) return;
+        List<TransactionBatchItemDTO> results = transactionBatchService.insertChunk(chunk);
+        for (TransactionBatchItemDTO result : results) {
+            if (result.transactionId() != null) {
+                progress.imported++;
+            } else {
+                progress.reject(lines.get(result.index()), result.error());
+            }
+        }
+        chunk.clear();
+        lines.clear();
+        emit(out, new StatementImportProgressDTO(progress.read, progress.imported, progress.duplicates, progress.rejected,
+                false, null, null));
+    }
+
+    private void emit(OutputStream out, StatementImportProgressDTO event) throws IOException {
+        out.write(objectMapper.writeValueAsBytes(event));
+        out.write('\n');
+        out.flush();
+    }
+
+    private TransactionRequestDTO toRequest(Plan plan, StatementFileReader.Line line) {
+        boolean credit = line.amount().signum() > 0;
+        String description = line.description().isBlank() ? "Lançamento importado" : line.description();
+        if (description.length() > DESCRIPTION_LENGTH) description = description.substring(0, DESCRIPTION_LENGTH);
+        Long category = credit ? plan.incomeCategoryId() : plan.expenseCategoryId();
+        if (plan.categorize()) {
+            category = categorizationEngine.categorize(plan.userId(), description).orElse(category);
+        }
+        return new TransactionRequestDTO(description, line.amount().abs(), line.date().atStartOfDay(), category,
+                credit ? plan.incomeTypeId() : plan.expenseTypeId(),
+                plan.userId(), plan.accountId());
+    }
+
+    //quantas vezes cada hash já aparece entre as transações da conta
+    private Map<Long, Integer> existingHashes(Plan plan, MessageDigest digest) {
+        Map<Long, Integer> hashes = new HashMap<>();
+        jdbcTemplate.query("SELECT t.date, t.amount, t.description, t.transaction_type_id FROM transactions t WHERE t.account_id = ?",
+                rs -> {
+                    Timestamp date = rs.getTimestamp(1);
+                    BigDecimal amount = signed(rs.getBigDecimal(2), rs.getLong(4));
+                    hashes.merge(contentHash(digest, date.toLocalDateTime().toLocalDate(), amount, rs.getString(3)), 1, Integer::sum);
+                }, plan.accountId());
+        for (ArchivedTransactionDTO row : transactionArchiveService.archivedRows(plan.userId(), plan.accountId())) {
+            BigDecimal amount = signed(row.amount(), row.transactionTypeId());
+            hashes.merge(contentHash(digest, row.date().toLocalDate(), amount, row.description()), 1, Integer::sum);
+        }
+        return hashes;
+    }
+
+    private BigDecimal signed(BigDecimal amount, Long transactionTypeId) {
+        boolean expense = referenceDataCache.findTransactionType(transactionTypeId)
+                .map(ReferenceDataCache.CachedTransactionType::isExpense)
+                .orElse(false);
+        return expense ? amount.negate() : amount;
+    }
+
+    //primeiros 64 bits do SHA-256 de data|valor|descrição normalizada
+    static long contentHash(MessageDigest digest, LocalDate date, BigDecimal amount, String description) {
+        String content = date + "|" + amount.setScale(2, RoundingMode.HALF_UP).toPlainString() + "|" + normalize(description);
+        return ByteBuffer.wrap(digest.digest(content.getBytes(StandardCharsets.UTF_8))).getLong();
+    }
+
+    //sem acentos, minúsculas e com qualquer sequência de pontuação/espaços reduzida a um espaço
+    static String normalize(String description) {
+        if (description == null) return "";
+        String text = MARKS.matcher(Normalizer.normalize(description, Normalizer.Form.NFD)).replaceAll("");
+        return SEPARATORS.matcher(text.toLowerCase(Locale.ROOT)).replaceAll(" ").trim();
+    }
+
+    private Long typeId(String kind, Predicate<ReferenceDataCache.CachedTransactionType> matches) {
+        return referenceDataCache.getTransactionTypes().stream()
+                .filter(matches)
+                .findFirst()
+                .map(ReferenceDataCache.CachedTransactionType::id)
+                .orElseThrow(() -> new BusinessException("Nenhum tipo de transação " + kind + " cadastrado."));
+    }
+
+    private Long categoryByName(String name) {
+        List<ReferenceDataCache.CachedCategory> categories = referenceDataCache.getCategories();
+        if (categories.isEmpty()) throw new BusinessException("Nenhuma categoria cadastrada.");
+        return categories.stream()
+                .filter(category -> category.categoryName().equalsIgnoreCase(name))
+                .findFirst()
+                .orElse(categories.get(0))
+                .id();
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static final class Progress {
+        long read;
+        long imported;
+        long duplicates;
+        long rejected;
+        final List<TransactionBatchItemDTO> rejections = new ArrayList<>();
+
+        void reject(long line, String error) {
+            rejected++;
+            if (rejections.size() < MAX_REJECTIONS) {
+                rejections.add(TransactionBatchItemDTO.rejected((int) line, error));
+            }
+        }
+    }
+}
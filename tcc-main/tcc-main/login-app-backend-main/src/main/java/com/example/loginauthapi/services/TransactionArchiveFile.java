@@ -0,0 +1,116 @@
+package com.example.loginauthapi.services;
+
+import com.example.loginauthapi.dto.ArchivedTransactionDTO;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Formato dos arquivos frios de transações: as linhas, ordenadas por (date, id), são gravadas
+ * coluna a coluna (todos os ids, depois todas as datas, etc.) dentro de um stream gzip. Ids e
+ * datas vão como diferença para a linha anterior e os valores como centavos, o que deixa as
+ * colunas numéricas bem repetitivas para a compressão.
+ */
+final class TransactionArchiveFile {
+
+    private static final int MAGIC = 0x54584131; // "TXA1"
+    private static final int SCALE = 2;
+
+    private TransactionArchiveFile() {
+    }
+
+    static void write(Path file, List<ArchivedTransactionDTO> rows) throws IOException {
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new GZIPOutputStream(Files.newOutputStream(file))))) {
+            out.writeInt(MAGIC);
+            out.writeInt(rows.size());
+
+            long previous = 0;
+            for (ArchivedTransactionDTO row : rows) {
+                out.writeLong(row.id() - previous);
+                previous = row.id();
+            }
+            previous = 0;
+            for (ArchivedTransactionDTO row : rows) {
+                long seconds = row.date().toEpochSecond(ZoneOffset.UTC);
+                out.writeLong(seconds - previous);
+                previous = seconds;
+            }
+            for (ArchivedTransactionDTO row : rows) {
+                out.writeInt(row.date().getNano());
+            }
+            for (ArchivedTransactionDTO row : rows) {
+                out.writeLong(row.amount().setScale(SCALE).unscaledValue().longValueExact());
+            }
+            for (ArchivedTransactionDTO row : rows) {
+                out.writeLong(row.categoryId());
+            }
+            for (ArchivedTransactionDTO row : rows) {
+                out.writeLong(row.transactionTypeId());
+            }
+            for (ArchivedTransactionDTO row : rows) {
+                // 0 = sem conta (dinheiro em espécie)
+                out.writeLong(row.accountId() != null ? row.accountId() : 0L);
+            }
+            for (ArchivedTransactionDTO row : rows) {
+                out.writeUTF(row.description());
+            }
+        }
+    }
+
+    static List<ArchivedTransactionDTO> read(Path file) throws IOException {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new GZIPInputStream(Files.newInputStream(file))))) {
+            if (in.readInt() != MAGIC) {
+                throw new IOException("Arquivo de transações inválido: " + file);
+            }
+            int size = in.readInt();
+
+            long[] ids = new long[size];
+            long previous = 0;
+            for (int i = 0; i < size; i++) {
+                previous += in.readLong();
+                ids[i] = previous;
+            }
+            long[] seconds = new long[size];
+            previous = 0;
+            for (int i = 0; i < size; i++) {
+                previous += in.readLong();
+                seconds[i] = previous;
+            }
+            int[] nanos = new int[size];
+            for (int i = 0; i < size; i++) nanos[i] = in.readInt();
+            long[] cents = new long[size];
+            for (int i = 0; i < size; i++) cents[i] = in.readLong();
+            long[] categories = new long[size];
+            for (int i = 0; i < size; i++) categories[i] = in.readLong();
+            long[] types = new long[size];
+            for (int i = 0; i < size; i++) types[i] = in.readLong();
+            long[] accounts = new long[size];
+            for (int i = 0; i < size; i++) accounts[i] = in.readLong();
+
+            List<ArchivedTransactionDTO> rows = new ArrayList<>(size);
+            for (int i = 0; i < size; i++) {
+                rows.add(new ArchivedTransactionDTO(
+                        ids[i],
+                        in.readUTF(),
+                        BigDecimal.valueOf(cents[i], SCALE),
+                        LocalDateTime.ofEpochSecond(seconds[i], nanos[i], ZoneOffset.UTC),
+                        categories[i],
+                        types[i],
+                        accounts[i] != 0L ? accounts[i] : null));
+            }
+            return rows;
+        }
+    }
+}
@@ -0,0 +1,352 @@
+package com.example.loginauthapi.services;
+
+import com.example.loginauthapi.domain.TransactionArchive;
+import com.example.loginauthapi.domain.TransactionMonthlyRollupId;
+import com.example.loginauthapi.domain.User;
+import com.example.loginauthapi.dto.ArchivedTransactionDTO;
+import com.example.loginauthapi.dto.RollupRowDTO;
+import com.example.loginauthapi.dto.TransactionArchiveDTO;
+import com.example.loginauthapi.dto.TransactionCursor;
+import com.example.loginauthapi.dto.TransactionDTO;
+import com.example.loginauthapi.dto.TransactionFilterDTO;
+import com.example.loginauthapi.dto.TransactionTotalDTO;
+import com.example.loginauthapi.dto.UserDTO;
+import com.example.loginauthapi.repositories.TransactionArchiveRepository;
+import com.example.loginauthapi.repositories.TransactionRepository;
+import com.example.loginauthapi.repositories.UserRepository;
+import com.example.loginauthapi.services.exceptions.ResourceNotFoundException;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Optional;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Arquivo frio de transações antigas. O job move as transações anteriores ao horizonte configurado
+ * para arquivos compactados, um por usuário e ano, registrados em transaction_archive. As leituras
+ * de listagem, resumo e exportação juntam as linhas arquivadas às do banco só quando o período
+ * consultado alcança algum arquivo. O rollup mensal não é alterado: continua contando o histórico inteiro.
+ */
+@Service
+public class TransactionArchiveService {
+
+    private static final Logger log = LoggerFactory.getLogger(TransactionArchiveService.class);
+
+    private static final Comparator<ArchivedTransactionDTO> CHRONOLOGICAL =
+            Comparator.comparing(ArchivedTransactionDTO::date).thenComparing(ArchivedTransactionDTO::id);
+    private static final Comparator<TransactionDTO> OLDEST_FIRST =
+            Comparator.comparing(TransactionDTO::getDate).thenComparing(TransactionDTO::getId);
+    private static final int DELETE_CHUNK = 1000;
+
+    @Autowired
+    private TransactionRepository transactionRepository;
+
+    @Autowired
+    private TransactionArchiveRepository archiveRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private ReferenceDataCache referenceDataCache;
+
+    private final TransactionTemplate transactionTemplate;
+    private final int horizonMonths;
+    private final Path archiveDir;
+    // Arquivos nunca são alterados (cada regravação gera um novo), então o cache não precisa de invalidação
+    private final Cache<String, List<ArchivedTransactionDTO>> files;
+
+    public TransactionArchiveService(PlatformTransactionManager transactionManager,
+                                     @Value("${api.transactions.archive.horizon-months:0}") int horizonMonths,
+                                     @Value("${api.transactions.archive.dir:./archive/transactions}") String archiveDir,
+                                     @Value("${api.transactions.archive.cache-size:32}") long cacheSize) {
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.horizonMonths = horizonMonths;
+        this.archiveDir = Path.of(archiveDir);
+        this.files = Caffeine.newBuilder().maximumSize(cacheSize).build();
+    }
+
+    //arquiva os anos inteiros anteriores ao horizonte; horizon-months=0 desativa o job
+    @Scheduled(cron = "${api.transactions.archive.cron:0 0 4 * * *}")
+    public List<TransactionArchiveDTO> archiveAll() {
+        if (horizonMonths <= 0) return List.of();
+        return archiveBefore(LocalDate.now().minusMonths(horizonMonths).withDayOfYear(1).atStartOfDay());
+    }
+
+    //arquiva, por usuário e ano, as transações anteriores ao corte (que deve cair em 1º de janeiro)
+    public List<TransactionArchiveDTO> archiveBefore(LocalDateTime cutoff) {
+        List<TransactionArchiveDTO> written = new ArrayList<>();
+        for (Long userId : transactionRepository.findUserIdsWithTransactionsBefore(cutoff)) {
+            for (Integer year : transactionRepository.findYearsBefore(userId, cutoff)) {
+                written.add(transactionTemplate.execute(status -> archiveYear(userId, year)));
+            }
+        }
+        log.info("Arquivos de transações gravados: {}", written.size());
+        return written;
+    }
+
+    private TransactionArchiveDTO archiveYear(Long userId, int year) {
+        LocalDateTime from = LocalDate.of(year, 1, 1).atStartOfDay();
+        List<ArchivedTransactionDTO> hot = transactionRepository.findArchivable(userId, from, from.plusYears(1));
+        Optional<TransactionArchive> existing = archiveRepository.findByUserIdAndArchiveYear(userId, year);
+
+        // Transação retroativa em um ano já arquivado: o arquivo é regravado com as linhas antigas e as novas
+        List<ArchivedTransactionDTO> rows = new ArrayList<>(hot);
+        existing.ifPresent(archive -> rows.addAll(load(archive)));
+        rows.sort(CHRONOLOGICAL);
+
+        Path file = archiveDir.resolve(String.valueOf(userId)).resolve(year + "-" + System.currentTimeMillis() + ".txa.gz");
+        try {
+            Files.createDirectories(file.getParent());
+            TransactionArchiveFile.write(file, rows);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+
+        // O arquivo anterior só é apagado após o commit; em rollback, o novo é descartado
+        String previous = existing.map(TransactionArchive::getFilePath).orElse(null);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                deleteQuietly(status == STATUS_COMMITTED ? previous : file.toString());
+            }
+        });
+
+        TransactionArchive archive = existing.orElseGet(TransactionArchive::new);
+        archive.setUserId(userId);
+        archive.setArchiveYear(year);
+        archive.setFilePath(file.toString());
+        archive.setRowCount(rows.size());
+        archive.setMinDate(rows.get(0).date());
+        archive.setMaxDate(rows.get(rows.size() - 1).date());
+        archive.setArchivedAt(LocalDateTime.now());
+        archiveRepository.save(archive);
+
+        List<Long> ids = hot.stream().map(ArchivedTransactionDTO::id).toList();
+        for (int i = 0; i < ids.size(); i += DELETE_CHUNK) {
+            transactionRepository.deleteAllByIdIn(ids.subList(i, Math.min(i + DELETE_CHUNK, ids.size())));
+        }
+        return new TransactionArchiveDTO(userId, year, hot.size(), rows.size(), file.toString());
+    }
+
+    //junta à página lida do banco as transações arquivadas que atendem ao filtro, na ordem (date desc, id desc)
+    public List<TransactionDTO> mergePage(User user, TransactionFilterDTO filter, TransactionCursor after,
+                                          List<TransactionDTO> hot, int limit) {
+        LocalDateTime from = filter.from() != null ? filter.from().atStartOfDay() : DashboardService.MIN_DATE.atStartOfDay();
+        LocalDateTime to = filter.to() != null ? filter.to().plusDays(1).atStartOfDay() : DashboardService.MAX_DATE.plusDays(1).atStartOfDay();
+        if (after != null && after.date().isBefore(to)) {
+            to = after.date().plusNanos(1);
+        }
+        List<TransactionArchive> archives = archiveRepository.findOverlapping(user.getId(), from, to);
+        if (archives.isEmpty()) return hot;
+
+        Predicate<ArchivedTransactionDTO> matches = matcher(filter, after, from, to);
+        UserDTO owner = new UserDTO(user);
+        List<TransactionDTO> merged = new ArrayList<>(hot);
+        int found = 0;
+        for (TransactionArchive archive : archives) {
+            // Arquivos vêm do ano mais recente ao mais antigo: com a página cheia, os anos anteriores não entram
+            if (found >= limit) break;
+            List<ArchivedTransactionDTO> rows = load(archive);
+            for (int i = rows.size() - 1; i >= 0 && found < limit; i--) {
+                if (matches.test(rows.get(i))) {
+                    merged.add(toDto(rows.get(i), owner));
+                    found++;
+                }
+            }
+        }
+        merged.sort(OLDEST_FIRST.reversed());
+        return merged.size() > limit ? merged.subList(0, limit) : merged;
+    }
+
+    //soma aos totais por categoria e tipo do banco as transações arquivadas do período [from, to)
+    public List<TransactionTotalDTO> mergeTotals(Long userId, LocalDateTime from, LocalDateTime to, List<TransactionTotalDTO> hot) {
+        List<TransactionArchive> archives = archiveRepository.findOverlapping(userId, from, to);
+        if (archives.isEmpty()) return hot;
+
+        Map<List<Long>, TransactionTotalDTO> totals = new LinkedHashMap<>();
+        hot.forEach(total -> totals.merge(List.of(total.categoryId(), total.transactionTypeId()), total, this::add));
+        for (TransactionArchive archive : archives) {
+            for (ArchivedTransactionDTO row : load(archive)) {
+                if (row.date().isBefore(from) || !row.date().isBefore(to)) continue;
+                totals.merge(List.of(row.categoryId(), row.transactionTypeId()),
+                        new TransactionTotalDTO(row.categoryId(), row.transactionTypeId(), row.amount(), 1L), this::add);
+            }
+        }
+        return totals.values().stream()
+                .sorted(Comparator.comparing(TransactionTotalDTO::categoryId).thenComparing(TransactionTotalDTO::transactionTypeId))
+                .toList();
+    }
+
+    //transação mais recente dos tipos informados entre a do banco e as arquivadas do período [from, to)
+    public TransactionDTO mergeLatest(User user, Collection<Long> typeIds, LocalDateTime from, LocalDateTime to, TransactionDTO hot) {
+        for (TransactionArchive archive : archiveRepository.findOverlapping(user.getId(), from, to)) {
+            // O primeiro arquivo (ano mais recente) com alguma linha do tipo já tem a mais recente arquivada
+            if (hot != null && hot.getDate().isAfter(archive.getMaxDate())) break;
+            List<ArchivedTransactionDTO> rows = load(archive);
+            for (int i = rows.size() - 1; i >= 0; i--) {
+                ArchivedTransactionDTO row = rows.get(i);
+                if (typeIds.contains(row.transactionTypeId()) && !row.date().isBefore(from) && row.date().isBefore(to)) {
+                    TransactionDTO archived = toDto(row, new UserDTO(user));
+                    return hot == null || OLDEST_FIRST.compare(archived, hot) > 0 ? archived : hot;
+                }
+            }
+        }
+        return hot;
+    }
+
+    //intercala as transações arquivadas do usuário com o cursor do banco, ambos em ordem (date, id)
+    public Stream<TransactionDTO> mergeExport(Long userId, Stream<TransactionDTO> hot) {
+        List<TransactionArchive> archives = new ArrayList<>(archiveRepository.findOverlapping(userId,
+                DashboardService.MIN_DATE.atStartOfDay(), DashboardService.MAX_DATE.plusDays(1).atStartOfDay()));
+        if (archives.isEmpty()) return hot;
+        archives.sort(Comparator.comparing(TransactionArchive::getArchiveYear));
+
+        UserDTO owner = userRepository.findById(userId).map(UserDTO::new)
+                .orElseThrow(() -> new ResourceNotFoundException(userId));
+        // Um arquivo de cada vez, conforme o export avança
+        Iterator<TransactionDTO> archived = archives.stream()
+                .flatMap(archive -> load(archive).stream())
+                .map(row -> toDto(row, owner))
+                .iterator();
+        MergeIterator merged = new MergeIterator(archived, hot.iterator());
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(merged, Spliterator.ORDERED | Spliterator.NONNULL), false)
+                .onClose(hot::close);
+    }
+
+    //transações arquivadas do usuário lançadas na conta (a importação de extratos não deve trazê-las de volta)
+    public List<ArchivedTransactionDTO> archivedRows(Long userId, Long accountId) {
+        List<ArchivedTransactionDTO> rows = new ArrayList<>();
+        for (TransactionArchive archive : archiveRepository.findByUserId(userId)) {
+            for (ArchivedTransactionDTO row : load(archive)) {
+                if (accountId.equals(row.accountId())) rows.add(row);
+            }
+        }
+        return rows;
+    }
+
+    //linhas do rollup mensal correspondentes às transações arquivadas, para conferência e reconstrução
+    public List<RollupRowDTO> rollupRows() {
+        Map<TransactionMonthlyRollupId, RollupRowDTO> rows = new HashMap<>();
+        for (TransactionArchive archive : archiveRepository.findAll()) {
+            for (ArchivedTransactionDTO row : load(archive)) {
+                TransactionMonthlyRollupId key = new TransactionMonthlyRollupId(archive.getUserId(),
+                        RollupService.yearMonthOf(row.date()), row.categoryId(), row.transactionTypeId(),
+                        row.accountId() != null ? row.accountId() : TransactionMonthlyRollupId.NO_ACCOUNT);
+                rows.merge(key, new RollupRowDTO(key.getUserId(), key.getYearMonth(), key.getCategoryId(),
+                                key.getTransactionTypeId(), key.getAccountId(), row.amount(), 1L),
+                        (a, b) -> new RollupRowDTO(a.userId(), a.yearMonth(), a.categoryId(), a.transactionTypeId(),
+                                a.accountId(), a.total().add(b.total()), a.count() + b.count()));
+            }
+        }
+        return new ArrayList<>(rows.values());
+    }
+
+    private List<ArchivedTransactionDTO> load(TransactionArchive archive) {
+        return files.get(archive.getFilePath(), path -> {
+            try {
+                return TransactionArchiveFile.read(Path.of(path));
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+    }
+
+    //mesmos filtros da consulta de TransactionRepositoryImpl.findPage
+    private Predicate<ArchivedTransactionDTO> matcher(TransactionFilterDTO filter, TransactionCursor after,
+                                                      LocalDateTime from, LocalDateTime to) {
+        String description = filter.description() != null && !filter.description().isBlank()
+                ? filter.description().trim().toLowerCase() : null;
+        return row -> !row.date().isBefore(from) && row.date().isBefore(to)
+                && (filter.transactionTypeId() == null || filter.transactionTypeId().equals(row.transactionTypeId()))
+                && (filter.categoryId() == null || filter.categoryId().equals(row.categoryId()))
+                && (filter.accountId() == null || filter.accountId().equals(row.accountId()))
+                && (description == null || row.description().toLowerCase().contains(description))
+                && (after == null || row.date().isBefore(after.date())
+                    || (row.date().isEqual(after.date()) && row.id() < after.id()));
+    }
+
+    private TransactionDTO toDto(ArchivedTransactionDTO row, UserDTO user) {
+        return new TransactionDTO(row.id(), row.description(), row.amount(), row.date(),
+                row.categoryId(),
+                referenceDataCache.findCategory(row.categoryId()).map(ReferenceDataCache.CachedCategory::categoryName).orElse(null),
+                row.transactionTypeId(),
+                referenceDataCache.findTransactionType(row.transactionTypeId()).map(ReferenceDataCache.CachedTransactionType::transactionType).orElse(null),
+                user.getId(), user.getName(), user.getEmail());
+    }
+
+    private TransactionTotalDTO add(TransactionTotalDTO a, TransactionTotalDTO b) {
+        return new TransactionTotalDTO(a.categoryId(), a.transactionTypeId(), a.total().add(b.total()), a.count() + b.count());
+    }
+
+    private void deleteQuietly(String path) {
+        if (path == null) return;
+        try {
+            Files.deleteIfExists(Path.of(path));
+        } catch (IOException e) {
+            log.warn("Não foi possível apagar o arquivo {}", path, e);
+        }
+    }
+
+    private static class MergeIterator implements Iterator<TransactionDTO> {
+        private final Iterator<TransactionDTO> left;
+        private final Iterator<TransactionDTO> right;
+        private TransactionDTO nextLeft;
+        private TransactionDTO nextRight;
+
+        MergeIterator(Iterator<TransactionDTO> left, Iterator<TransactionDTO> right) {
+            this.left = left;
+            this.right = right;
+            this.nextLeft = left.hasNext() ? left.next() : null;
+            this.nextRight = right.hasNext() ? right.next() : null;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return nextLeft != null || nextRight != null;
+        }
+
+        @Override
+        public TransactionDTO next() {
+            if (!hasNext()) throw new NoSuchElementException();
+            TransactionDTO result;
+            if (nextRight == null || (nextLeft != null && OLDEST_FIRST.compare(nextLeft, nextRight) <= 0)) {
+                result = nextLeft;
+                nextLeft = left.hasNext() ? left.next() : null;
+            } else {
+                result = nextRight;
+                nextRight = right.hasNext() ? right.next() : null;
+            }
+            return result;
+        }
+    }
+}
@@ -0,0 +1,291 @@
+package com.example.loginauthapi.services;
+
+import com.example.loginauthapi.domain.Account;
+import com.example.loginauthapi.domain.Movement;
+import com.example.loginauthapi.domain.Transaction;
+import com.example.loginauthapi.domain.User;
+import com.example.loginauthapi.dto.TransactionBatchItemDTO;
+import com.example.loginauthapi.dto.TransactionBatchResultDTO;
+import com.example.loginauthapi.dto.TransactionRequestDTO;
+import com.example.loginauthapi.repositories.AccountRepository;
+import com.example.loginauthapi.repositories.MovementRepository;
+import com.example.loginauthapi.repositories.TransactionRepository;
+import com.example.loginauthapi.repositories.UserRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.hibernate.Session;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Inclusão de transações em lote (POST /transactions/batch). Cada bloco é gravado em uma única
+ * transação: usuários e contas são resolvidos com um IN cada (categorias e tipos vêm do cache),
+ * transações e movimentações vão em lotes JDBC, cada conta recebe um único UPDATE com o saldo
+ * final do bloco e o rollup um upsert por chave. Itens sem categoria recebem a das regras de
+ * categorização. Itens inválidos são rejeitados individualmente.
+ */
+@Service
+public class TransactionBatchService {
+
+    private static final Logger log = LoggerFactory.getLogger(TransactionBatchService.class);
+
+    private static final int JDBC_BATCH_SIZE = 100;
+
+    @Autowired
+    private TransactionRepository transactionRepository;
+
+    @Autowired
+    private MovementRepository movementRepository;
+
+    @Autowired
+    private AccountRepository accountRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private ReferenceDataCache referenceDataCache;
+
+    @Autowired
+    private RollupService rollupService;
+
+    @Autowired
+    private CategorizationEngine categorizationEngine;
+
+    @Autowired
+    private TransactionChangeService transactionChangeService;
+
+    @Autowired
+    private AccountReadCache accountReadCache;
+
+    @Autowired
+    private BalanceCheckpointService balanceCheckpointService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private final TransactionTemplate transactionTemplate;
+    private final int chunkSize;
+
+    // Item do bloco: o DTO lido (nulo se a linha NDJSON for inválida) e sua posição na requisição
+    private record Item(int index, TransactionRequestDTO dto, String parseError) { }
+
+    public TransactionBatchService(PlatformTransactionManager transactionManager,
+                                   @Value("${api.transactions.batch.chunk-size:500}") int chunkSize) {
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.chunkSize = chunkSize;
+    }
+
+    public TransactionBatchResultDTO insertAll(List<TransactionRequestDTO> dtos) {
+        List<TransactionBatchItemDTO> results = new ArrayList<>(dtos.size());
+        List<Item> chunk = new ArrayList<>(Math.min(chunkSize, dtos.size()));
+        for (int i = 0; i < dtos.size(); i++) {
+            chunk.add(new Item(i, dtos.get(i), dtos.get(i) == null ? "Item vazio." : null));
+            if (chunk.size() == chunkSize) {
+                results.addAll(insertItems(chunk));
+                chunk.clear();
+            }
+        }
+        results.addAll(insertItems(chunk));
+        return summarize(results);
+    }
+
+    //NDJSON: um objeto por linha, lido e gravado bloco a bloco sem montar a requisição inteira em memória
+    public TransactionBatchResultDTO insertAll(InputStream ndjson) throws IOException {
+        List<TransactionBatchItemDTO> results = new ArrayList<>();
+        List<Item> chunk = new ArrayList<>(chunkSize);
+        BufferedReader reader = new BufferedReader(new InputStreamReader(ndjson, StandardCharsets.UTF_8));
+        int index = 0;
+        String line;
+        while ((line = reader.readLine()) != null) {
+            if (line.isBlank()) continue;
+            try {
+                chunk.add(new Item(index, objectMapper.readValue(line, TransactionRequestDTO.class), null));
+            } catch (JsonProcessingException e) {
+                chunk.add(new Item(index, null, "JSON inválido: " + e.getOriginalMessage()));
+            }
+            index++;
+            if (chunk.size() == chunkSize) {
+                results.addAll(insertItems(chunk));
+                chunk.clear();
+            }
+        }
+        results.addAll(insertItems(chunk));
+        return summarize(results);
+    }
+
+    //grava um único bloco já montado (usado pela importação de extratos); o índice é a posição na lista
+    public List<TransactionBatchItemDTO> insertChunk(List<TransactionRequestDTO> dtos) {
+        List<Item> chunk = new ArrayList<>(dtos.size());
+        for (int i = 0; i < dtos.size(); i++) {
+            chunk.add(new Item(i, dtos.get(i), dtos.get(i) == null ? "Item vazio." : null));
+        }
+        return insertItems(chunk);
+    }
+
+    private List<TransactionBatchItemDTO> insertItems(List<Item> chunk) {
+        if (chunk.isEmpty()) return List.of();
+        try {
+            return transactionTemplate.execute(status -> apply(chunk));
+        } catch (RuntimeException e) {
+            // Falha do banco desfaz o bloco inteiro: nenhum item dele foi gravado
+            log.error("Falha ao gravar bloco de {} transações", chunk.size(), e);
+            String error = "Bloco não gravado: " + e.getMessage();
+            return chunk.stream()
+                    .map(item -> TransactionBatchItemDTO.rejected(item.index(), item.parseError() != null ? item.parseError() : error))
+                    .toList();
+        }
+    }
+
+    private List<TransactionBatchItemDTO> apply(List<Item> chunk) {
+        entityManager.unwrap(Session.class).setJdbcBatchSize(JDBC_BATCH_SIZE);
+
+        List<TransactionRequestDTO> valid = chunk.stream().map(Item::dto).filter(Objects::nonNull).toList();
+        List<Long> userIds = distinct(valid, TransactionRequestDTO::getUserId);
+        List<Long> accountIds = distinct(valid, TransactionRequestDTO::getAccountId);
+        Set<Long> users = userIds.isEmpty() ? Set.of() : new HashSet<>(userRepository.findExistingIds(userIds));
+        // Um intervalo da sequência de alterações por usuário, reservado em ordem de id e antes de travar as contas;
+        // itens rejeitados deixam lacunas, que o feed ignora
+        Map<Long, Long> changeSeqs = new TreeMap<>();
+        valid.stream().map(TransactionRequestDTO::getUserId).filter(users::contains)
+                .forEach(userId -> changeSeqs.merge(userId, 1L, Long::sum));
+        changeSeqs.replaceAll((userId, count) -> transactionChangeService.reserve(userId, count.intValue()));
+        // SELECT ... FOR UPDATE das contas do bloco, sempre em ordem de id
+        Map<Long, Account> accounts = accountIds.isEmpty() ? Map.of() : accountRepository.findAllForUpdate(accountIds).stream()
+                .collect(Collectors.toMap(Account::getId, Function.identity()));
+
+        String[] errors = new String[chunk.size()];
+        Transaction[] created = new Transaction[chunk.size()];
+        List<Transaction> transactions = new ArrayList<>(chunk.size());
+        List<Movement> movements = new ArrayList<>();
+        Map<Long, BigDecimal> balances = new TreeMap<>();
+        // Uma referência por usuário do bloco: getReferenceById passa pelo proxy do repositório a cada chamada
+        Map<Long, User> userRefs = new HashMap<>();
+
+        for (int i = 0; i < chunk.size(); i++) {
+            Item item = chunk.get(i);
+            TransactionRequestDTO dto = item.dto();
+            errors[i] = item.parseError();
+            if (errors[i] != null) continue;
+            // Sem categoria informada, usa a sugerida pelas regras de categorização a partir da descrição
+            Long categoryId = dto.getCategoryId() != null ? dto.getCategoryId()
+                    : categorizationEngine.categorize(dto.getUserId(), dto.getDescription()).orElse(null);
+            errors[i] = validate(dto, categoryId, users, accounts);
+            if (errors[i] != null) continue;
+
+            ReferenceDataCache.CachedTransactionType type = referenceDataCache.findTransactionType(dto.getTransactionTypeId()).orElseThrow();
+            Account account = dto.getAccountId() != null ? accounts.get(dto.getAccountId()) : null;
+
+            // Mesma regra do lançamento individual: receitas e despesas movimentam a conta
+            String movementType = null;
+            if (account != null) {
+                if (type.isIncome()) {
+                    movementType = "DEPOSIT";
+                } else if (type.isExpense()) {
+                    movementType = "WITHDRAW";
+                }
+            }
+            if (movementType != null) {
+                BigDecimal balance = balances.computeIfAbsent(account.getId(),
+                        id -> account.getBalance() != null ? account.getBalance() : BigDecimal.ZERO);
+                if (movementType.equals("WITHDRAW") && balance.compareTo(dto.getAmount()) < 0) {
+                    errors[i] = "Saldo insuficiente para saque.";
+                    continue;
+                }
+                balances.put(account.getId(), movementType.equals("WITHDRAW")
+                        ? balance.subtract(dto.getAmount()) : balance.add(dto.getAmount()));
+            }
+
+            Transaction transaction = new Transaction();
+            transaction.setDescription(dto.getDescription());
+            transaction.setAmount(dto.getAmount());
+            transaction.setDate(dto.getDate());
+            transaction.setUser(userRefs.computeIfAbsent(dto.getUserId(), userRepository::getReferenceById));
+            transaction.setCategory(referenceDataCache.findCategory(categoryId).orElseThrow().toEntity());
+            transaction.setTransactionType(type.toEntity());
+            transaction.setAccount(account);
+            transaction.setChangeSeq(changeSeqs.merge(dto.getUserId(), 1L, Long::sum) - 1);
+            transactions.add(transaction);
+            created[i] = transaction;
+            if (movementType != null) {
+                movements.add(new Movement(account, movementType, dto.getAmount(), dto.getDate(), transaction));
+            }
+        }
+
+        // Persistidas em sequência por entidade, para o flush agrupar os INSERTs em lotes JDBC
+        transactionRepository.saveAll(transactions);
+        movementRepository.saveAll(movements);
+        // Dirty checking gera um UPDATE por conta com o saldo final do bloco
+        balances.forEach((id, balance) -> {
+            accounts.get(id).setBalance(balance);
+            accountReadCache.put(accounts.get(id));
+        });
+        // Um único flush do bloco; sem limpar o contexto, cada upsert nativo abaixo refaria o dirty checking de todas as entidades
+        entityManager.flush();
+        entityManager.clear();
+        movements.stream().collect(Collectors.groupingBy(movement -> movement.getAccount().getId()))
+                .forEach(balanceCheckpointService::shiftFrom);
+        rollupService.addAll(transactions);
+
+        // Os ids já foram atribuídos no persist (sequência com pooled optimizer)
+        List<TransactionBatchItemDTO> results = new ArrayList<>(chunk.size());
+        for (int i = 0; i < chunk.size(); i++) {
+            int index = chunk.get(i).index();
+            results.add(created[i] != null
+                    ? TransactionBatchItemDTO.created(index, created[i].getId())
+                    : TransactionBatchItemDTO.rejected(index, errors[i]));
+        }
+        return results;
+    }
+
+    //motivo da rejeição do item, ou nulo se ele puder ser gravado
+    private String validate(TransactionRequestDTO dto, Long categoryId, Set<Long> users, Map<Long, Account> accounts) {
+        if (dto.getDescription() == null || dto.getDescription().isBlank()) return "Descrição obrigatória.";
+        if (dto.getAmount() == null || dto.getAmount().signum() <= 0) return "Valor deve ser maior que zero.";
+        if (dto.getDate() == null) return "Data obrigatória.";
+        if (dto.getUserId() == null || !users.contains(dto.getUserId())) return "User not found";
+        if (referenceDataCache.findCategory(categoryId).isEmpty()) return "Category not found";
+        if (dto.getTransactionTypeId() == null || referenceDataCache.findTransactionType(dto.getTransactionTypeId()).isEmpty()) {
+            return "Transaction Type not found";
+        }
+        if (dto.getAccountId() != null && !accounts.containsKey(dto.getAccountId())) return "Account not found";
+        return null;
+    }
+
+    private static List<Long> distinct(Collection<TransactionRequestDTO> dtos, Function<TransactionRequestDTO, Long> id) {
+        return dtos.stream().map(id).filter(Objects::nonNull).distinct().toList();
+    }
+
+    private static TransactionBatchResultDTO summarize(List<TransactionBatchItemDTO> items) {
+        int created = (int) items.stream().filter(item -> item.transactionId() != null).count();
+        return new TransactionBatchResultDTO(items.size(), created, items.size() - created, items);
+    }
+}
@@ -0,0 +1,84 @@
+package com.example.loginauthapi.services;
+
+import com.example.loginauthapi.domain.User;
+import com.example.loginauthapi.dto.TransactionChangeDTO;
+import com.example.loginauthapi.dto.TransactionChangesDTO;
+import com.example.loginauthapi.repositories.TransactionRepository;
+import com.example.loginauthapi.repositories.UserRepository;
+import com.example.loginauthapi.services.exceptions.ResourceNotFoundException;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Feed incremental das transações de cada usuário (GET /transactions/changes). Inclusões e
+ * alterações gravam na transação o próximo número da sequência do usuário e exclusões gravam uma
+ * lápide com ele. O número é reservado com um UPDATE na linha do usuário, que fica bloqueada até o
+ * commit: as escritas de um mesmo usuário recebem números na ordem em que são confirmadas, então um
+ * cliente que já leu até o cursor N não perde uma alteração confirmada depois com número menor.
+ * Chamar reserve antes de travar contas, para manter a mesma ordem de locks em todos os caminhos.
+ * O feed cobre só as transações que estão no banco: o arquivamento (TransactionArchiveService) não é
+ * uma exclusão e não grava lápides, então quem já sincronizou mantém as linhas, mas uma carga inicial
+ * com since=0 não traz os anos arquivados, que continuam disponíveis em GET /transactions.
+ */
+@Service
+public class TransactionChangeService {
+
+    public static final int DEFAULT_LIMIT = 500;
+    public static final int MAX_LIMIT = 5000;
+
+    @Autowired
+    private TransactionRepository transactionRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    //reserva count números seguidos da sequência do usuário e devolve o primeiro
+    public long reserve(Long userId, int count) {
+        userRepository.advanceChangeSeq(userId, count);
+        Long last = userRepository.findChangeSeq(userId);
+        if (last == null) {
+            throw new ResourceNotFoundException("User not found with id: " + userId);
+        }
+        return last - count + 1;
+    }
+
+    public long next(Long userId) {
+        return reserve(userId, 1);
+    }
+
+    //registra a exclusão da transação no feed do usuário
+    public void tombstone(Long userId, Long transactionId) {
+        transactionRepository.insertTombstone(userId, next(userId), transactionId, LocalDateTime.now());
+    }
+
+    //alterações do usuário depois do cursor: as transações atuais e as lápides intercaladas pela sequência (sem os anos arquivados)
+    public TransactionChangesDTO findChangesSince(User user, Long since, Integer limit) {
+        int pageSize = limit == null ? DEFAULT_LIMIT : Math.max(1, Math.min(limit, MAX_LIMIT));
+        long after = since == null ? 0 : Math.max(0, since);
+
+        // Um registro a mais de cada lado para saber se existe continuação
+        PageRequest page = PageRequest.of(0, pageSize + 1);
+        List<TransactionChangeDTO> upserts = transactionRepository.findChangesSince(user.getId(), after, page);
+        List<TransactionChangeDTO> deletes = transactionRepository.findTombstonesSince(user.getId(), after, page).stream()
+                .map(row -> TransactionChangeDTO.deleted(((Number) row[0]).longValue(), ((Number) row[1]).longValue()))
+                .toList();
+
+        List<TransactionChangeDTO> changes = new ArrayList<>(Math.min(upserts.size() + deletes.size(), pageSize));
+        int u = 0, d = 0;
+        while (changes.size() < pageSize && (u < upserts.size() || d < deletes.size())) {
+            if (d == deletes.size() || (u < upserts.size() && upserts.get(u).seq() < deletes.get(d).seq())) {
+                changes.add(upserts.get(u++));
+            } else {
+                changes.add(deletes.get(d++));
+            }
+        }
+        boolean hasMore = u < upserts.size() || d < deletes.size();
+        long cursor = changes.isEmpty() ? after : changes.get(changes.size() - 1).seq();
+        return new TransactionChangesDTO(changes, cursor, hasMore);
+    }
+}
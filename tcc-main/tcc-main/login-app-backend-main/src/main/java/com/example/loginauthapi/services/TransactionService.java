@@ -1,18 +1,17 @@
 package com.example.loginauthapi.services;
 
+import com.example.loginauthapi.dto.TransactionCursor;
 import com.example.loginauthapi.dto.TransactionDTO;
+import com.example.loginauthapi.dto.TransactionFilterDTO;
+import com.example.loginauthapi.dto.TransactionPageDTO;
 import com.example.loginauthapi.dto.TransactionRequestDTO;
 import com.example.loginauthapi.domain.Category;
 import com.example.loginauthapi.domain.Transaction;
 import com.example.loginauthapi.domain.TransactionType;
 import com.example.loginauthapi.domain.User;
 import com.example.loginauthapi.domain.Account;
-import com.example.loginauthapi.domain.Movement;
-import com.example.loginauthapi.repositories.CategoryRepository;
 import com.example.loginauthapi.repositories.TransactionRepository;
-import com.example.loginauthapi.repositories.TransactionTypeRepository;
 import com.example.loginauthapi.repositories.UserRepository;
-import com.example.loginauthapi.repositories.MovementRepository;
 import com.example.loginauthapi.services.exceptions.DatabaseException;
 import com.example.loginauthapi.services.exceptions.ResourceNotFoundException;
 import jakarta.persistence.EntityNotFoundException;
@@ -23,10 +22,10 @@ import org.springframework.dao.EmptyResultDataAccessException;
 import org.springframework.stereotype.Service;
 
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
-import java.util.stream.Collectors;
+import java.util.TreeMap;
 import java.math.BigDecimal;
-import java.time.LocalDateTime;
 
 @Service
 public class TransactionService {
@@ -38,16 +37,22 @@ public class TransactionService {
     private UserRepository userRepository;
 
     @Autowired
-    private CategoryRepository categoryRepository;
+    private ReferenceDataCache referenceDataCache;
 
     @Autowired
-    private TransactionTypeRepository transactionTypeRepository;
+    private AccountService accountService;
 
     @Autowired
-    private AccountService accountService;
+    private RollupService rollupService;
 
     @Autowired
-    private MovementRepository movementRepository;
+    private TransactionArchiveService transactionArchiveService;
+
+    @Autowired
+    private CategorizationEngine categorizationEngine;
+
+    @Autowired
+    private TransactionChangeService transactionChangeService;
 
     @Transactional
     public Transaction newTransaction(TransactionRequestDTO dto) {
@@ -55,13 +60,19 @@ public class TransactionService {
         User user = userRepository.findById(dto.getUserId())
                 .orElseThrow(() -> new RuntimeException("User not found"));
 
-        // Buscar a Category pelo ID
-        Category category = categoryRepository.findById(dto.getCategoryId())
+        // Sem categoria informada, usa a sugerida pelas regras de categorização a partir da descrição
+        Long categoryId = dto.getCategoryId() != null ? dto.getCategoryId()
+                : categorizationEngine.categorize(user.getId(), dto.getDescription()).orElse(null);
+
+        // Buscar a Category pelo ID (cache em memória, sem SELECT)
+        Category category = referenceDataCache.findCategory(categoryId)
+                .map(ReferenceDataCache.CachedCategory::toEntity)
                 .orElseThrow(() -> new RuntimeException("Category not found"));
 
-        // Buscar o TransactionType pelo ID
-        TransactionType transactionType = transactionTypeRepository.findById(dto.getTransactionTypeId())
+        // Buscar o TransactionType pelo ID (cache em memória, sem SELECT)
+        ReferenceDataCache.CachedTransactionType cachedType = referenceDataCache.findTransactionType(dto.getTransactionTypeId())
                 .orElseThrow(() -> new RuntimeException("Transaction Type not found"));
+        TransactionType transactionType = cachedType.toEntity();
 
         // Lidar com a conta, pode ser nulo para dinheiro em espécie
         Account account = null;
@@ -78,35 +89,59 @@ public class TransactionService {
         transaction.setCategory(category);
         transaction.setTransactionType(transactionType);
         transaction.setAccount(account); // Definir a conta na transação
+        // Reservado antes do lançamento na conta, que trava a linha dela
+        transaction.setChangeSeq(transactionChangeService.next(user.getId()));
 
-        // Salvar a transação primeiro para obter o ID se necessário para movements, embora o AccountService já crie movements
+        // O INSERT fica pendente e é gravado no mesmo flush da movimentação, antes do UPDATE de saldo
         Transaction savedTransaction = transactionRepository.save(transaction);
 
-        // Atualizar o saldo da conta e criar Movement se necessário
+        // Atualizar o saldo da conta com uma única movimentação ligada à transação
         if (account != null) {
-            if (transactionType.getTransactionType().equalsIgnoreCase("INCOME")) {
-                accountService.realizaDeposito(account.getId(), dto.getAmount());
-                // Criar Movement correspondente
-                Movement movement = new Movement(account, "DEPOSIT", dto.getAmount(), dto.getDate() != null ? dto.getDate() : LocalDateTime.now());
-                movementRepository.save(movement);
-            } else if (transactionType.getTransactionType().equalsIgnoreCase("EXPENSE")) {
-                accountService.realizaSaque(account.getId(), dto.getAmount());
-                // Criar Movement correspondente
-                Movement movement = new Movement(account, "WITHDRAW", dto.getAmount(), dto.getDate() != null ? dto.getDate() : LocalDateTime.now());
-                movementRepository.save(movement);
+            if (cachedType.isIncome()) {
+                accountService.lancaTransacao(savedTransaction, "DEPOSIT");
+            } else if (cachedType.isExpense()) {
+                accountService.lancaTransacao(savedTransaction, "WITHDRAW");
             }
         }
 
+        // Somar a transação no rollup mensal, na mesma transação do banco
+        rollupService.add(savedTransaction);
+
         // Retornar a transação salva
         return savedTransaction;
     }
 
 
-    public List<TransactionDTO> findAllDto(){
-        List<Transaction> transactions = transactionRepository.findAll();
-        return transactions.stream()
-                .map(transaction -> new TransactionDTO(transaction))
-                .collect(Collectors.toList());
+    public static final int DEFAULT_PAGE_SIZE = 50;
+    public static final int MAX_PAGE_SIZE = 500;
+
+    //lista as transações do usuário com filtros, paginando por keyset (date desc, id desc)
+    public TransactionPageDTO findPageDto(User user, TransactionFilterDTO filter, String cursor, Integer limit){
+        TransactionCursor after = TransactionCursor.decode(cursor);
+        // Sem limit nem cursor a lista vem completa, como antes da paginação: o dashboard e a cópia
+        // local do frontend não leem o X-Next-Cursor. A paginação só vale para quem pede limit ou cursor
+        int pageSize;
+        if (limit == null && after == null) {
+            pageSize = Integer.MAX_VALUE - 1;
+        } else {
+            pageSize = limit == null ? DEFAULT_PAGE_SIZE : Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+        }
+
+        // Busca um registro a mais para saber se existe próxima página
+        List<TransactionDTO> content = transactionRepository.findPage(user.getId(), filter, after, pageSize + 1);
+        // Período que alcança anos arquivados: completa a página com as transações do arquivo frio
+        content = transactionArchiveService.mergePage(user, filter, after, content, pageSize + 1);
+        boolean hasNext = content.size() > pageSize;
+        if (hasNext) {
+            content = content.subList(0, pageSize);
+        }
+
+        String nextCursor = null;
+        if (hasNext) {
+            TransactionDTO last = content.get(content.size() - 1);
+            nextCursor = new TransactionCursor(last.getDate(), last.getId()).encode();
+        }
+        return new TransactionPageDTO(content, nextCursor);
     }
 
     @Transactional
@@ -116,17 +151,17 @@ public class TransactionService {
             Transaction transactionToDelete = transactionRepository.findById(id)
                     .orElseThrow(() -> new ResourceNotFoundException("Transaction not found with id: " + id));
 
-            if (transactionToDelete.getAccount() != null) {
-                Account account = transactionToDelete.getAccount();
-                BigDecimal amount = transactionToDelete.getAmount();
-                String transactionType = transactionToDelete.getTransactionType().getTransactionType();
+            // Lápide para o feed de alterações do usuário, antes de travar a conta no ajuste
+            transactionChangeService.tombstone(transactionToDelete.getUser().getId(), id);
 
-                if (transactionType.equalsIgnoreCase("INCOME")) {
-                    accountService.realizaSaque(account.getId(), amount); // Reverter receita
-                } else if (transactionType.equalsIgnoreCase("EXPENSE")) {
-                    accountService.realizaDeposito(account.getId(), amount); // Reverter despesa
-                }
-            }
+            // Reverter o impacto no saldo com um único ajuste
+            Map<Long, BigDecimal> deltas = new TreeMap<>();
+            addEffect(deltas, transactionToDelete.getAccount(), transactionType(transactionToDelete),
+                    transactionToDelete.getAmount().negate());
+            applyDeltas(deltas, null);
+
+            // Retirar a transação do rollup mensal
+            rollupService.remove(transactionToDelete);
 
             transactionRepository.deleteById(id);
         } catch (EmptyResultDataAccessException e){
@@ -141,6 +176,38 @@ public class TransactionService {
         return transaction.orElseThrow(() -> new ResourceNotFoundException(id));
     }
 
+    public TransactionDTO findDtoById(Long id){
+        return transactionRepository.findDtoById(id)
+                .orElseThrow(() -> new ResourceNotFoundException(id));
+    }
+
+    //tipo da transação pelo cache, sem inicializar o proxy lazy
+    private ReferenceDataCache.CachedTransactionType transactionType(Transaction transaction){
+        Long typeId = transaction.getTransactionType().getId();
+        return referenceDataCache.findTransactionType(typeId)
+                .orElseThrow(() -> new ResourceNotFoundException(typeId));
+    }
+
+    //soma em deltas o efeito da transação no saldo da conta: receita soma, despesa subtrai
+    private void addEffect(Map<Long, BigDecimal> deltas, Account account, ReferenceDataCache.CachedTransactionType transactionType,
+                           BigDecimal amount){
+        if (account == null) return;
+        if (transactionType.isIncome()) {
+            deltas.merge(account.getId(), amount, BigDecimal::add);
+        } else if (transactionType.isExpense()) {
+            deltas.merge(account.getId(), amount.negate(), BigDecimal::add);
+        }
+    }
+
+    //um UPDATE de saldo e uma movimentação por conta com diferença não nula, em ordem de id
+    private void applyDeltas(Map<Long, BigDecimal> deltas, Transaction transaction){
+        deltas.forEach((accountId, delta) -> {
+            if (delta.signum() != 0) {
+                accountService.aplicaAjuste(accountId, delta, transaction);
+            }
+        });
+    }
+
     public void updateData(Transaction transaction, Transaction obj){
         transaction.setTransactionType(obj.getTransactionType());
         transaction.setDate(obj.getDate());
@@ -158,29 +225,40 @@ public class TransactionService {
             Transaction existingTransaction = transactionRepository.findById(id)
                     .orElseThrow(() -> new ResourceNotFoundException("Transaction not found with id: " + id));
 
-            // Reverter o impacto da transação original no saldo da conta, se houver
-            if (existingTransaction.getAccount() != null) {
-                Account originalAccount = existingTransaction.getAccount();
-                BigDecimal originalAmount = existingTransaction.getAmount();
-                String originalTransactionType = existingTransaction.getTransactionType().getTransactionType();
-
-                if (originalTransactionType.equalsIgnoreCase("INCOME")) {
-                    accountService.realizaSaque(originalAccount.getId(), originalAmount); // Reverter receita
-                } else if (originalTransactionType.equalsIgnoreCase("EXPENSE")) {
-                    accountService.realizaDeposito(originalAccount.getId(), originalAmount); // Reverter despesa
-                }
-            }
-
             // Buscar o User pelo ID fornecido no DTO
             User user = userRepository.findById(dto.getUserId())
                     .orElseThrow(() -> new ResourceNotFoundException("User not found with id: " + dto.getUserId()));
 
-            // Buscar a Category pelo ID fornecido no DTO
-            Category category = categoryRepository.findById(dto.getCategoryId())
+            // Nova posição no feed de alterações, antes de qualquer escrita no rollup ou nas contas (mesma
+            // ordem de locks dos outros caminhos); se a transação mudou de usuário, o anterior recebe uma
+            // lápide, travando os dois usuários em ordem de id
+            Long previousUserId = existingTransaction.getUser().getId();
+            long changeSeq;
+            if (previousUserId.equals(user.getId())) {
+                changeSeq = transactionChangeService.next(user.getId());
+            } else if (previousUserId < user.getId()) {
+                transactionChangeService.tombstone(previousUserId, id);
+                changeSeq = transactionChangeService.next(user.getId());
+            } else {
+                changeSeq = transactionChangeService.next(user.getId());
+                transactionChangeService.tombstone(previousUserId, id);
+            }
+
+            // Retirar os valores originais do rollup mensal antes de alterar a transação
+            rollupService.remove(existingTransaction);
+
+            // Impacto original a reverter; o novo é somado abaixo e só a diferença líquida é lançada
+            Map<Long, BigDecimal> deltas = new TreeMap<>();
+            addEffect(deltas, existingTransaction.getAccount(), transactionType(existingTransaction),
+                    existingTransaction.getAmount().negate());
+
+            // Buscar a Category pelo ID fornecido no DTO (cache em memória, sem SELECT)
+            Category category = referenceDataCache.findCategory(dto.getCategoryId())
+                    .map(ReferenceDataCache.CachedCategory::toEntity)
                     .orElseThrow(() -> new ResourceNotFoundException("Category not found with id: " + dto.getCategoryId()));
 
-            // Buscar o TransactionType pelo ID fornecido no DTO
-            TransactionType transactionType = transactionTypeRepository.findById(dto.getTransactionTypeId())
+            // Buscar o TransactionType pelo ID fornecido no DTO (cache em memória, sem SELECT)
+            ReferenceDataCache.CachedTransactionType transactionType = referenceDataCache.findTransactionType(dto.getTransactionTypeId())
                     .orElseThrow(() -> new ResourceNotFoundException("TransactionType not found with id: " + dto.getTransactionTypeId()));
 
             // Lidar com a nova conta, pode ser nulo para dinheiro em espécie
@@ -193,22 +271,21 @@ public class TransactionService {
             existingTransaction.setDescription(dto.getDescription());
             existingTransaction.setAmount(dto.getAmount());
             existingTransaction.setDate(dto.getDate());
-            existingTransaction.setTransactionType(transactionType);
+            existingTransaction.setTransactionType(transactionType.toEntity());
             existingTransaction.setUser(user);
             existingTransaction.setCategory(category);
             existingTransaction.setAccount(newAccount); // Definir a nova conta
+            existingTransaction.setChangeSeq(changeSeq);
 
             // Salvar a transação atualizada
             Transaction updatedTransaction = transactionRepository.save(existingTransaction);
 
-            // Aplicar o impacto da nova transação no saldo da conta
-            if (newAccount != null) {
-                if (transactionType.getTransactionType().equalsIgnoreCase("INCOME")) {
-                    accountService.realizaDeposito(newAccount.getId(), dto.getAmount());
-                } else if (transactionType.getTransactionType().equalsIgnoreCase("EXPENSE")) {
-                    accountService.realizaSaque(newAccount.getId(), dto.getAmount());
-                }
-            }
+            // Somar os novos valores no rollup mensal
+            rollupService.add(updatedTransaction);
+
+            // Aplicar a diferença líquida por conta (inclusive troca de conta) com um ajuste em cada
+            addEffect(deltas, newAccount, transactionType, dto.getAmount());
+            applyDeltas(deltas, updatedTransaction);
 
             // Retornar a transação atualizada
             return updatedTransaction;
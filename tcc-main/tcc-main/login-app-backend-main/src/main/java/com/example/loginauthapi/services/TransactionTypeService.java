@@ -11,27 +11,36 @@ import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.dao.EmptyResultDataAccessException;
 import org.springframework.stereotype.Service;
 
-import java.util.List;
-import java.util.Optional;
-
 @Service
 public class TransactionTypeService {
 
     @Autowired
     private TransactionTypeRepository repository;
 
+    @Autowired
+    private ReferenceDataCache referenceDataCache;
+
     public TransactionType newTransactionType(TransactionType transactionType){
-        return repository.save(transactionType);
+        TransactionType saved = repository.save(transactionType);
+        referenceDataCache.invalidate();
+        return saved;
     }
 
-    public List<TransactionType> findAll(){
-        List<TransactionType> transactionTypes = repository.findAll();
-        return transactionTypes;
+    //GET /transaction-types pronto para escrita, refeito só quando os tipos mudam
+    public ReferenceDataCache.SerializedList findAllJson(){
+        return referenceDataCache.getTransactionTypesJson();
     }
 
     public TransactionType findById(Long id){
-        Optional<TransactionType> transactionType = repository.findById(id);
-        return transactionType.orElseThrow(() -> new ResourceNotFoundException(id));
+        return referenceDataCache.findTransactionType(id)
+                .map(ReferenceDataCache.CachedTransactionType::toEntity)
+                .orElseThrow(() -> new ResourceNotFoundException(id));
+    }
+
+    public TransactionType findByTransactionType(String transactionType){
+        return referenceDataCache.findTransactionTypeByName(transactionType)
+                .map(ReferenceDataCache.CachedTransactionType::toEntity)
+                .orElseThrow(() -> new ResourceNotFoundException(transactionType));
     }
 
     public void updateData(TransactionType transactionType, TransactionType obj){
@@ -43,7 +52,9 @@ public class TransactionTypeService {
         try {
             TransactionType transactionType = repository.getReferenceById(id);
             updateData(transactionType, obj);
-            return repository.save(transactionType);
+            TransactionType saved = repository.save(transactionType);
+            referenceDataCache.invalidate();
+            return saved;
         } catch (EntityNotFoundException e) {
             throw new ResourceNotFoundException(id);
         }
@@ -52,6 +63,7 @@ public class TransactionTypeService {
     public void delete(Long id){
         try {
             repository.deleteById(id);
+            referenceDataCache.invalidate();
         } catch (EmptyResultDataAccessException e) {
             throw new ResourceNotFoundException(id);
         } catch (DataIntegrityViolationException e) {
@@ -0,0 +1,25 @@
+package db.migration;
+
+import org.flywaydb.core.api.migration.BaseJavaMigration;
+import org.flywaydb.core.api.migration.Context;
+
+import java.sql.Statement;
+
+/**
+ * Índice do extrato paginado por keyset (movement_date, id) de cada conta. No PostgreSQL o
+ * índice também carrega type e amount (INCLUDE), permitindo responder a página só pelo índice.
+ * Escrita em Java porque INCLUDE não existe no H2.
+ */
+public class V11__Add_movements_statement_index extends BaseJavaMigration {
+
+    @Override
+    public void migrate(Context context) throws Exception {
+        boolean postgres = context.getConnection().getMetaData().getDatabaseProductName().equalsIgnoreCase("PostgreSQL");
+        try (Statement statement = context.getConnection().createStatement()) {
+            // Substitui o índice (account_id, movement_date) criado junto com os checkpoints de saldo
+            statement.execute("DROP INDEX idx_movements_account_date");
+            statement.execute("CREATE INDEX idx_movements_account_date_id ON tb_movements (account_id, movement_date, id)"
+                    + (postgres ? " INCLUDE (type, amount)" : ""));
+        }
+    }
+}
@@ -0,0 +1,75 @@
+package db.migration;
+
+import org.flywaydb.core.api.migration.BaseJavaMigration;
+import org.flywaydb.core.api.migration.Context;
+
+import java.sql.Date;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.TreeSet;
+
+/**
+ * No PostgreSQL recria tb_movements particionada por mês de movement_date (PARTITION BY RANGE),
+ * com uma partição para cada mês que já tem dados, para o mês corrente e os próximos meses, além
+ * de uma partição DEFAULT para datas fora desses intervalos. Consultas com filtro de data passam a
+ * ler só as partições do período (partition pruning). No H2 a tabela continua sem particionamento.
+ * As partições seguintes são criadas pelo MovementPartitionService.
+ */
+public class V12__Partition_movements_by_month extends BaseJavaMigration {
+
+    private static final int MONTHS_AHEAD = 3;
+
+    @Override
+    public void migrate(Context context) throws Exception {
+        if (!context.getConnection().getMetaData().getDatabaseProductName().equalsIgnoreCase("PostgreSQL")) {
+            return;
+        }
+        try (Statement statement = context.getConnection().createStatement()) {
+            statement.execute("ALTER TABLE tb_movements RENAME TO tb_movements_old");
+
+            // A chave primária de uma tabela particionada precisa conter a coluna de particionamento
+            statement.execute("""
+                    CREATE TABLE tb_movements (
+                        id BIGINT NOT NULL,
+                        account_id BIGINT NOT NULL,
+                        type VARCHAR(20) NOT NULL,
+                        amount NUMERIC(19,2) NOT NULL,
+                        movement_date TIMESTAMP WITHOUT TIME ZONE NOT NULL,
+
+                        CONSTRAINT pk_movements PRIMARY KEY (id, movement_date),
+                        CONSTRAINT fk_movements_account_id FOREIGN KEY (account_id) REFERENCES tb_account(id)
+                    ) PARTITION BY RANGE (movement_date)
+                    """);
+
+            TreeSet<YearMonth> months = new TreeSet<>();
+            try (ResultSet rs = statement.executeQuery(
+                    "SELECT DISTINCT CAST(date_trunc('month', movement_date) AS DATE) FROM tb_movements_old")) {
+                while (rs.next()) months.add(YearMonth.from(rs.getObject(1, LocalDate.class)));
+            }
+            YearMonth current = YearMonth.now();
+            for (int i = 0; i <= MONTHS_AHEAD; i++) months.add(current.plusMonths(i));
+
+            for (YearMonth month : months) {
+                statement.execute("CREATE TABLE " + partitionName(month) + " PARTITION OF tb_movements FOR VALUES FROM ('"
+                        + Date.valueOf(month.atDay(1)) + "') TO ('" + Date.valueOf(month.plusMonths(1).atDay(1)) + "')");
+            }
+            statement.execute("CREATE TABLE tb_movements_default PARTITION OF tb_movements DEFAULT");
+
+            statement.execute("""
+                    INSERT INTO tb_movements (id, account_id, type, amount, movement_date)
+                    SELECT id, account_id, type, amount, movement_date FROM tb_movements_old
+                    """);
+            statement.execute("DROP TABLE tb_movements_old");
+
+            // Índice particionado: criado depois da carga, um por partição
+            statement.execute("CREATE INDEX idx_movements_account_date_id ON tb_movements (account_id, movement_date, id) INCLUDE (type, amount)");
+            statement.execute("ANALYZE tb_movements");
+        }
+    }
+
+    private static String partitionName(YearMonth month) {
+        return String.format("tb_movements_p%04d_%02d", month.getYear(), month.getMonthValue());
+    }
+}
@@ -0,0 +1,48 @@
+package db.migration;
+
+import org.flywaydb.core.api.migration.BaseJavaMigration;
+import org.flywaydb.core.api.migration.Context;
+
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.Map;
+
+/**
+ * Troca a geração de ids por IDENTITY por sequences com incremento 50, permitindo que o
+ * Hibernate reserve ids em bloco (optimizer pooled) e agrupe os INSERTs em batches JDBC.
+ * Escrita em Java porque o valor inicial de cada sequence depende do maior id já existente,
+ * o que não tem sintaxe comum entre PostgreSQL e H2.
+ */
+public class V8__Create_id_sequences extends BaseJavaMigration {
+
+    public static final int ALLOCATION_SIZE = 50;
+
+    private static final Map<String, String> SEQUENCES = Map.of(
+            "users", "users_seq",
+            "categories", "categories_seq",
+            "transaction_types", "transaction_types_seq",
+            "transactions", "transactions_seq",
+            "tb_account", "tb_account_seq",
+            "tb_movements", "tb_movements_seq"
+    );
+
+    @Override
+    public void migrate(Context context) throws Exception {
+        try (Statement statement = context.getConnection().createStatement()) {
+            // tb_movements foi criada com SERIAL (32 bits)
+            statement.execute("ALTER TABLE tb_movements ALTER COLUMN id SET DATA TYPE BIGINT");
+
+            for (Map.Entry<String, String> entry : SEQUENCES.entrySet()) {
+                long maxId = 0;
+                try (ResultSet rs = statement.executeQuery("SELECT COALESCE(MAX(id), 0) FROM " + entry.getKey())) {
+                    if (rs.next()) maxId = rs.getLong(1);
+                }
+                // O optimizer pooled usa o valor da sequence como limite superior do bloco
+                // (valor - 49 .. valor), então o primeiro valor precisa ficar um bloco acima do maior id
+                long start = maxId + ALLOCATION_SIZE;
+                statement.execute("CREATE SEQUENCE " + entry.getValue()
+                        + " START WITH " + start + " INCREMENT BY " + ALLOCATION_SIZE);
+            }
+        }
+    }
+}
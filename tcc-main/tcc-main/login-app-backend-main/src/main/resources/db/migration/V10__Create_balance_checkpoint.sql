@@ -0,0 +1,17 @@
+-- Saldo da conta em um instante, gravado periodicamente para consultas de saldo em datas passadas
+CREATE TABLE balance_checkpoint (
+    id BIGINT NOT NULL,
+    account_id BIGINT NOT NULL,
+    checkpoint_at TIMESTAMP WITHOUT TIME ZONE NOT NULL,
+    balance NUMERIC(19,2) NOT NULL,
+
+    CONSTRAINT pk_balance_checkpoint PRIMARY KEY (id),
+    CONSTRAINT fk_balance_checkpoint_account FOREIGN KEY (account_id) REFERENCES tb_account(id) ON DELETE CASCADE
+);
+
+CREATE UNIQUE INDEX idx_balance_checkpoint_account_at ON balance_checkpoint (account_id, checkpoint_at);
+
+CREATE SEQUENCE balance_checkpoint_seq START WITH 1 INCREMENT BY 50;
+
+-- Soma das movimentações de uma conta entre o checkpoint e a data consultada
+CREATE INDEX idx_movements_account_date ON tb_movements (account_id, movement_date);
@@ -0,0 +1,18 @@
+-- Manifesto dos arquivos frios de transações: um arquivo por usuário e ano
+CREATE TABLE transaction_archive (
+    id BIGINT NOT NULL,
+    user_id BIGINT NOT NULL,
+    archive_year INTEGER NOT NULL,
+    file_path VARCHAR(500) NOT NULL,
+    row_count INTEGER NOT NULL,
+    min_date TIMESTAMP WITHOUT TIME ZONE NOT NULL,
+    max_date TIMESTAMP WITHOUT TIME ZONE NOT NULL,
+    archived_at TIMESTAMP WITHOUT TIME ZONE NOT NULL,
+
+    CONSTRAINT pk_transaction_archive PRIMARY KEY (id),
+    CONSTRAINT fk_transaction_archive_user FOREIGN KEY (user_id) REFERENCES users(id)
+);
+
+CREATE UNIQUE INDEX idx_transaction_archive_user_year ON transaction_archive (user_id, archive_year);
+
+CREATE SEQUENCE transaction_archive_seq START WITH 1 INCREMENT BY 50;
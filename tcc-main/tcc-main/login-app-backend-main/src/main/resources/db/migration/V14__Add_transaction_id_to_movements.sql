@@ -0,0 +1,7 @@
+-- Movimentação gerada por uma transação aponta para ela; arquivar ou excluir a transação mantém a movimentação
+ALTER TABLE tb_movements ADD COLUMN transaction_id BIGINT;
+
+ALTER TABLE tb_movements ADD CONSTRAINT fk_movements_transaction
+    FOREIGN KEY (transaction_id) REFERENCES transactions(id) ON DELETE SET NULL;
+
+CREATE INDEX idx_movements_transaction ON tb_movements (transaction_id);
@@ -0,0 +1,9 @@
+-- Base do razão da conta: balance = opening_balance + soma das movimentações.
+-- Para as contas existentes, tudo o que o saldo tem além das movimentações vira saldo de abertura
+ALTER TABLE tb_account ADD COLUMN opening_balance NUMERIC(19,2) DEFAULT 0 NOT NULL;
+
+UPDATE tb_account SET opening_balance = COALESCE(balance, 0) - COALESCE((
+    SELECT SUM(CASE WHEN m.type = 'WITHDRAW' THEN -m.amount ELSE m.amount END)
+    FROM tb_movements m
+    WHERE m.account_id = tb_account.id
+), 0);
@@ -0,0 +1,50 @@
+-- Regras de categorização automática: palavra-chave contida na descrição -> categoria.
+-- user_id nulo é regra do sistema; regras do usuário têm prioridade sobre as do sistema.
+CREATE TABLE category_rules (
+    id BIGINT NOT NULL,
+    keyword VARCHAR(255) NOT NULL,
+    category_id BIGINT NOT NULL,
+    user_id BIGINT,
+
+    CONSTRAINT pk_category_rules PRIMARY KEY (id),
+    CONSTRAINT fk_category_rules_category FOREIGN KEY (category_id) REFERENCES categories(id) ON DELETE CASCADE,
+    CONSTRAINT fk_category_rules_user FOREIGN KEY (user_id) REFERENCES users(id) ON DELETE CASCADE
+);
+
+CREATE INDEX idx_category_rules_user ON category_rules (user_id);
+
+-- Regras padrão do sistema (palavras-chave já normalizadas: minúsculas e sem acentos)
+INSERT INTO category_rules (id, keyword, category_id) SELECT 1, 'salario', id FROM categories WHERE category_name = 'Salário';
+INSERT INTO category_rules (id, keyword, category_id) SELECT 2, 'folha de pagamento', id FROM categories WHERE category_name = 'Salário';
+INSERT INTO category_rules (id, keyword, category_id) SELECT 3, 'rendimento', id FROM categories WHERE category_name = 'Investimentos';
+INSERT INTO category_rules (id, keyword, category_id) SELECT 4, 'tesouro direto', id FROM categories WHERE category_name = 'Investimentos';
+INSERT INTO category_rules (id, keyword, category_id) SELECT 5, 'cdb', id FROM categories WHERE category_name = 'Investimentos';
+INSERT INTO category_rules (id, keyword, category_id) SELECT 6, 'supermercado', id FROM categories WHERE category_name = 'Alimentação';
+INSERT INTO category_rules (id, keyword, category_id) SELECT 7, 'mercado', id FROM categories WHERE category_name = 'Alimentação';
+INSERT INTO category_rules (id, keyword, category_id) SELECT 8, 'padaria', id FROM categories WHERE category_name = 'Alimentação';
+INSERT INTO category_rules (id, keyword, category_id) SELECT 9, 'restaurante', id FROM categories WHERE category_name = 'Alimentação';
+INSERT INTO category_rules (id, keyword, category_id) SELECT 10, 'ifood', id FROM categories WHERE category_name = 'Alimentação';
+INSERT INTO category_rules (id, keyword, category_id) SELECT 11, 'uber', id FROM categories WHERE category_name = 'Transporte';
+INSERT INTO category_rules (id, keyword, category_id) SELECT 12, 'posto', id FROM categories WHERE category_name = 'Transporte';
+INSERT INTO category_rules (id, keyword, category_id) SELECT 13, 'combustivel', id FROM categories WHERE category_name = 'Transporte';
+INSERT INTO category_rules (id, keyword, category_id) SELECT 14, 'estacionamento', id FROM categories WHERE category_name = 'Transporte';
+INSERT INTO category_rules (id, keyword, category_id) SELECT 15, 'aluguel', id FROM categories WHERE category_name = 'Moradia';
+INSERT INTO category_rules (id, keyword, category_id) SELECT 16, 'condominio', id FROM categories WHERE category_name = 'Moradia';
+INSERT INTO category_rules (id, keyword, category_id) SELECT 17, 'iptu', id FROM categories WHERE category_name = 'Moradia';
+INSERT INTO category_rules (id, keyword, category_id) SELECT 18, 'energia', id FROM categories WHERE category_name = 'Contas';
+INSERT INTO category_rules (id, keyword, category_id) SELECT 19, 'agua', id FROM categories WHERE category_name = 'Contas';
+INSERT INTO category_rules (id, keyword, category_id) SELECT 20, 'internet', id FROM categories WHERE category_name = 'Contas';
+INSERT INTO category_rules (id, keyword, category_id) SELECT 21, 'telefone', id FROM categories WHERE category_name = 'Contas';
+INSERT INTO category_rules (id, keyword, category_id) SELECT 22, 'netflix', id FROM categories WHERE category_name = 'Entretenimento';
+INSERT INTO category_rules (id, keyword, category_id) SELECT 23, 'spotify', id FROM categories WHERE category_name = 'Entretenimento';
+INSERT INTO category_rules (id, keyword, category_id) SELECT 24, 'cinema', id FROM categories WHERE category_name = 'Entretenimento';
+INSERT INTO category_rules (id, keyword, category_id) SELECT 25, 'farmacia', id FROM categories WHERE category_name = 'Saúde';
+INSERT INTO category_rules (id, keyword, category_id) SELECT 26, 'drogaria', id FROM categories WHERE category_name = 'Saúde';
+INSERT INTO category_rules (id, keyword, category_id) SELECT 27, 'hospital', id FROM categories WHERE category_name = 'Saúde';
+INSERT INTO category_rules (id, keyword, category_id) SELECT 28, 'plano de saude', id FROM categories WHERE category_name = 'Saúde';
+INSERT INTO category_rules (id, keyword, category_id) SELECT 29, 'escola', id FROM categories WHERE category_name = 'Educação';
+INSERT INTO category_rules (id, keyword, category_id) SELECT 30, 'faculdade', id FROM categories WHERE category_name = 'Educação';
+INSERT INTO category_rules (id, keyword, category_id) SELECT 31, 'curso', id FROM categories WHERE category_name = 'Educação';
+
+-- Um bloco acima do maior id inserido, pelo mesmo motivo da V8 (optimizer pooled)
+CREATE SEQUENCE category_rules_seq START WITH 81 INCREMENT BY 50;
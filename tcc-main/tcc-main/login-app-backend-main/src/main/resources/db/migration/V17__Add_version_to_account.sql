@@ -0,0 +1,2 @@
+-- Versão da conta (optimistic locking do JPA), incrementada a cada alteração; exposta como ETag em GET /account
+ALTER TABLE tb_account ADD COLUMN version BIGINT DEFAULT 0 NOT NULL;
@@ -0,0 +1,21 @@
+-- Sequência de alterações por usuário para o feed incremental (GET /transactions/changes):
+-- users.change_seq guarda o último número usado e cada transação o número da sua última alteração
+ALTER TABLE users ADD COLUMN change_seq BIGINT DEFAULT 0 NOT NULL;
+ALTER TABLE transactions ADD COLUMN change_seq BIGINT DEFAULT 0 NOT NULL;
+
+-- Transações existentes entram no feed na ordem dos ids
+UPDATE transactions SET change_seq = id;
+UPDATE users SET change_seq = COALESCE((SELECT MAX(t.change_seq) FROM transactions t WHERE t.user_id = users.id), 0);
+
+CREATE INDEX idx_transactions_user_change ON transactions (user_id, change_seq);
+
+-- Lápides das transações excluídas, para o feed informar exclusões
+CREATE TABLE transaction_tombstones (
+    user_id BIGINT NOT NULL,
+    change_seq BIGINT NOT NULL,
+    transaction_id BIGINT NOT NULL,
+    deleted_at TIMESTAMP WITHOUT TIME ZONE NOT NULL,
+
+    CONSTRAINT pk_transaction_tombstones PRIMARY KEY (user_id, change_seq),
+    CONSTRAINT fk_transaction_tombstones_user FOREIGN KEY (user_id) REFERENCES users(id) ON DELETE CASCADE
+);
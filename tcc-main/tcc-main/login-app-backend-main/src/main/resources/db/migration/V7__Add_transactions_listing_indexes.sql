@@ -0,0 +1,5 @@
+-- Índices para a listagem filtrada e paginada por keyset (date desc, id desc) de cada usuário
+CREATE INDEX idx_transactions_user_date ON transactions (user_id, date DESC, id DESC);
+CREATE INDEX idx_transactions_user_category_date ON transactions (user_id, category_id, date DESC, id DESC);
+CREATE INDEX idx_transactions_user_type_date ON transactions (user_id, transaction_type_id, date DESC, id DESC);
+CREATE INDEX idx_transactions_account_date ON transactions (account_id, date DESC, id DESC);
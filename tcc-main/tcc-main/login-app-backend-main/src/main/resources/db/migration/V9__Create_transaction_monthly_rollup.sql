@@ -0,0 +1,28 @@
+-- Totais mensais por usuário/categoria/tipo/conta, mantidos de forma incremental pelo TransactionService.
+-- account_id = 0 representa transações sem conta (dinheiro em espécie).
+CREATE TABLE transaction_monthly_rollup (
+    user_id BIGINT NOT NULL,
+    year_month INTEGER NOT NULL,
+    category_id BIGINT NOT NULL,
+    transaction_type_id BIGINT NOT NULL,
+    account_id BIGINT NOT NULL,
+    total_amount NUMERIC(19,2) NOT NULL,
+    transaction_count BIGINT NOT NULL,
+
+    CONSTRAINT pk_transaction_monthly_rollup PRIMARY KEY (user_id, year_month, category_id, transaction_type_id, account_id)
+);
+
+INSERT INTO transaction_monthly_rollup (user_id, year_month, category_id, transaction_type_id, account_id, total_amount, transaction_count)
+SELECT user_id,
+       CAST(EXTRACT(YEAR FROM date) AS INTEGER) * 100 + CAST(EXTRACT(MONTH FROM date) AS INTEGER),
+       category_id,
+       transaction_type_id,
+       COALESCE(account_id, 0),
+       SUM(amount),
+       COUNT(*)
+FROM transactions
+GROUP BY user_id,
+         CAST(EXTRACT(YEAR FROM date) AS INTEGER) * 100 + CAST(EXTRACT(MONTH FROM date) AS INTEGER),
+         category_id,
+         transaction_type_id,
+         COALESCE(account_id, 0);
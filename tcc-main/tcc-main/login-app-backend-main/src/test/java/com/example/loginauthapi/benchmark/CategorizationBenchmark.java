@@ -0,0 +1,104 @@
+package com.example.loginauthapi.benchmark;
+
+import com.example.loginauthapi.domain.CategoryRule;
+import com.example.loginauthapi.domain.User;
+import com.example.loginauthapi.repositories.CategoryRepository;
+import com.example.loginauthapi.repositories.CategoryRuleRepository;
+import com.example.loginauthapi.repositories.UserRepository;
+import com.example.loginauthapi.services.CategorizationEngine;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+
+/**
+ * Mede o tempo de categorização por descrição com 100, 1.000 e 10.000 regras. Executar com:
+ * mvn test -Dtest=CategorizationBenchmark -Dbenchmark=true
+ */
+@SpringBootTest
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class CategorizationBenchmark {
+
+    private static final int[] RULES = {100, 1_000, 10_000};
+    private static final int VOCABULARY = 20_000;
+    private static final int DESCRIPTIONS = 10_000;
+    private static final int ROUNDS = 20;
+
+    @Autowired
+    private CategorizationEngine categorizationEngine;
+
+    @Autowired
+    private CategoryRuleRepository categoryRuleRepository;
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Test
+    void matchDescriptions() {
+        String suffix = UUID.randomUUID().toString();
+        User user = new User();
+        user.setName("bench-" + suffix);
+        user.setEmail(suffix + "@bench.com");
+        user.setCpf(suffix);
+        user.setPassword("secret");
+        user.setDateOfBirth(LocalDate.of(1990, 1, 1));
+        user = userRepository.save(user);
+        Long categoryId = categoryRepository.findAll().get(0).getId();
+
+        // Regras e descrições usam o mesmo vocabulário, então a taxa de casamento cresce com o número de regras
+        Random random = new Random(42);
+        List<String> vocabulary = new ArrayList<>(VOCABULARY);
+        for (int i = 0; i < VOCABULARY; i++) {
+            vocabulary.add(word(random));
+        }
+        List<String> descriptions = new ArrayList<>(DESCRIPTIONS);
+        for (int i = 0; i < DESCRIPTIONS; i++) {
+            descriptions.add("PAG*" + vocabulary.get(random.nextInt(VOCABULARY)).toUpperCase() + " "
+                    + vocabulary.get(random.nextInt(VOCABULARY)) + " " + random.nextInt(10_000) + " SAO PAULO BR");
+        }
+
+        List<CategoryRule> saved = new ArrayList<>();
+        try {
+            for (int rules : RULES) {
+                List<CategoryRule> batch = new ArrayList<>();
+                while (saved.size() + batch.size() < rules) {
+                    batch.add(new CategoryRule(null, vocabulary.get(saved.size() + batch.size()), categoryId, user.getId()));
+                }
+                saved.addAll(categoryRuleRepository.saveAll(batch));
+                categorizationEngine.reload();
+
+                long matched = 0;
+                long start = 0;
+                for (int round = 0; round < ROUNDS; round++) {
+                    // A primeira metade das rodadas só aquece o JIT
+                    if (round == ROUNDS / 2) start = System.nanoTime();
+                    for (String description : descriptions) {
+                        if (categorizationEngine.categorize(user.getId(), description).isPresent()) matched++;
+                    }
+                }
+                double nanos = (double) (System.nanoTime() - start) / (DESCRIPTIONS * (ROUNDS - ROUNDS / 2));
+                System.out.printf("[benchmark] %d regras: %.0f ns por descrição (%d casamentos)%n", rules, nanos, matched);
+            }
+        } finally {
+            categoryRuleRepository.deleteAll(saved);
+            categorizationEngine.reload();
+        }
+    }
+
+    private static String word(Random random) {
+        char[] word = new char[4 + random.nextInt(5)];
+        for (int i = 0; i < word.length; i++) {
+            word[i] = (char) ('a' + random.nextInt(26));
+        }
+        return new String(word);
+    }
+}
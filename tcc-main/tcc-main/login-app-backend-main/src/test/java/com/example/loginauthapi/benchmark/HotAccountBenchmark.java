@@ -0,0 +1,66 @@
+package com.example.loginauthapi.benchmark;
+
+import com.example.loginauthapi.domain.Account;
+import com.example.loginauthapi.repositories.AccountRepository;
+import com.example.loginauthapi.services.AccountService;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Mede a vazão de depósitos concorrentes em uma única conta com 1, 4 e 8 threads. Executar com:
+ * mvn test -Dtest=HotAccountBenchmark -Dbenchmark=true
+ */
+@SpringBootTest
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class HotAccountBenchmark {
+
+    private static final int[] THREADS = {1, 4, 8};
+    private static final int OPERATIONS = 4_000;
+
+    @Autowired
+    private AccountService accountService;
+
+    @Autowired
+    private AccountRepository accountRepository;
+
+    @Test
+    void depositsOnOneAccount() throws Exception {
+        for (int threads : THREADS) {
+            Account account = accountRepository.save(new Account(null, "Conta benchmark", "00000000000",
+                    LocalDate.of(1990, 1, 1), "Banco", BigDecimal.ZERO));
+            int perThread = OPERATIONS / threads;
+
+            ExecutorService executor = Executors.newFixedThreadPool(threads);
+            try {
+                long start = System.nanoTime();
+                List<Future<?>> futures = new ArrayList<>();
+                for (int t = 0; t < threads; t++) {
+                    futures.add(executor.submit(() -> {
+                        for (int i = 0; i < perThread; i++) {
+                            accountService.realizaDeposito(account.getId(), BigDecimal.ONE);
+                        }
+                        return null;
+                    }));
+                }
+                for (Future<?> future : futures) {
+                    future.get();
+                }
+                double seconds = (System.nanoTime() - start) / 1e9;
+                System.out.printf("[benchmark] conta quente, %d threads: %d depósitos em %.2fs (%.0f ops/s)%n",
+                        threads, perThread * threads, seconds, perThread * threads / seconds);
+            } finally {
+                executor.shutdownNow();
+            }
+        }
+    }
+}
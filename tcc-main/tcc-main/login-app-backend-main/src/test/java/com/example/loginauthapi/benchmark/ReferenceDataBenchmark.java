@@ -0,0 +1,121 @@
+package com.example.loginauthapi.benchmark;
+
+import com.example.loginauthapi.domain.User;
+import com.example.loginauthapi.dto.CategoryDTO;
+import com.example.loginauthapi.infra.security.TokenService;
+import com.example.loginauthapi.repositories.UserRepository;
+import com.example.loginauthapi.services.ReferenceDataCache;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.context.annotation.Bean;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Compara requisições/s de GET /categories (bytes pré-serializados) com o caminho anterior
+ * (lista do cache -> DTO -> Jackson a cada requisição). Executar com:
+ * mvn test -Dtest=ReferenceDataBenchmark -Dbenchmark=true
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class ReferenceDataBenchmark {
+
+    private static final int CLIENTS = 16;
+    private static final int REQUESTS = 50_000;
+
+    // Caminho anterior de GET /categories, mantido só para a comparação
+    @TestConfiguration
+    static class JacksonPath {
+
+        @Bean
+        SerializedOnEveryRequest serializedOnEveryRequest(ReferenceDataCache referenceDataCache) {
+            return new SerializedOnEveryRequest(referenceDataCache);
+        }
+    }
+
+    @RestController
+    static class SerializedOnEveryRequest {
+
+        private final ReferenceDataCache referenceDataCache;
+
+        SerializedOnEveryRequest(ReferenceDataCache referenceDataCache) {
+            this.referenceDataCache = referenceDataCache;
+        }
+
+        @GetMapping("/benchmark/categories")
+        ResponseEntity<List<CategoryDTO>> findAll() {
+            return ResponseEntity.ok().body(referenceDataCache.getCategories().stream()
+                    .map(ReferenceDataCache.CachedCategory::toDto)
+                    .toList());
+        }
+    }
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private TokenService tokenService;
+
+    @Test
+    void compareRequestsPerSecond() throws Exception {
+        String suffix = UUID.randomUUID().toString();
+        User user = new User();
+        user.setName("bench-" + suffix);
+        user.setEmail(suffix + "@bench.com");
+        user.setCpf(suffix);
+        user.setPassword("secret");
+        user.setDateOfBirth(LocalDate.of(1990, 1, 1));
+        String token = tokenService.generateToken(userRepository.save(user));
+
+        HttpClient client = HttpClient.newHttpClient();
+        for (String path : List.of("/benchmark/categories", "/categories")) {
+            run(client, token, path, REQUESTS / 5); // aquecimento
+            double seconds = run(client, token, path, REQUESTS);
+            System.out.printf("[benchmark] GET %s: %d requisições em %.2fs (%.0f req/s)%n", path, REQUESTS, seconds, REQUESTS / seconds);
+        }
+    }
+
+    private double run(HttpClient client, String token, String path, int requests) throws Exception {
+        HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + path))
+                .header("Authorization", "Bearer " + token)
+                .header("Accept-Encoding", "gzip")
+                .build();
+        long start = System.nanoTime();
+        try (ExecutorService executor = Executors.newFixedThreadPool(CLIENTS)) {
+            List<Future<?>> clients = new ArrayList<>();
+            for (int c = 0; c < CLIENTS; c++) {
+                clients.add(executor.submit(() -> {
+                    for (int i = 0; i < requests / CLIENTS; i++) {
+                        HttpResponse<byte[]> response = client.send(request, HttpResponse.BodyHandlers.ofByteArray());
+                        if (response.statusCode() != 200) throw new IllegalStateException("HTTP " + response.statusCode());
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> future : clients) {
+                future.get();
+            }
+        }
+        return (System.nanoTime() - start) / 1e9;
+    }
+}
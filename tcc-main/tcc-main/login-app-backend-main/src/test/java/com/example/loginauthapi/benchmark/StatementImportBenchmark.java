@@ -0,0 +1,69 @@
+package com.example.loginauthapi.benchmark;
+
+import com.example.loginauthapi.domain.Account;
+import com.example.loginauthapi.domain.User;
+import com.example.loginauthapi.repositories.AccountRepository;
+import com.example.loginauthapi.repositories.UserRepository;
+import com.example.loginauthapi.services.StatementImportService;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.UUID;
+
+/**
+ * Mede a importação de um extrato CSV em uma conta nova. Executar com:
+ * mvn test -Dtest=StatementImportBenchmark -Dbenchmark=true [-Dbenchmark.lines=200000]
+ * No H2 de teste com 1 CPU a importação fica em torno de 2.800 linhas/s (200 mil linhas em ~70 s),
+ * longe da meta de segundos: a maior parte do tempo é o flush e o commit de cada linha no banco
+ * (nove índices em transactions, mais os de tb_movements), e blocos de 5.000 linhas em vez de 1.000 não mudam o total.
+ */
+@SpringBootTest
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class StatementImportBenchmark {
+
+    private static final int LINES = Integer.getInteger("benchmark.lines", 200_000);
+
+    @Autowired
+    private StatementImportService importService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private AccountRepository accountRepository;
+
+    @Test
+    void importCsv() throws Exception {
+        String suffix = UUID.randomUUID().toString();
+        User user = new User();
+        user.setName("bench-" + suffix);
+        user.setEmail(suffix + "@bench.com");
+        user.setCpf(suffix);
+        user.setPassword("secret");
+        user.setDateOfBirth(LocalDate.of(1990, 1, 1));
+        user = userRepository.save(user);
+        Account account = accountRepository.save(new Account(null, "Conta benchmark", "00000000000",
+                LocalDate.of(1990, 1, 1), "Banco", new BigDecimal("1000000.00")));
+
+        StringBuilder csv = new StringBuilder("date,description,amount\n");
+        LocalDate start = LocalDate.of(2024, 1, 1);
+        for (int i = 0; i < LINES; i++) {
+            csv.append(start.plusDays(i % 365)).append(",Mercado ").append(i).append(',')
+                    .append(i % 3 == 0 ? "1250.00" : "-" + (i % 97 + 1) + ".35").append('\n');
+        }
+        byte[] file = csv.toString().getBytes(StandardCharsets.UTF_8);
+
+        StatementImportService.Plan plan = importService.prepare(user, account.getId(), null, "extrato.csv", null);
+        long begin = System.nanoTime();
+        importService.run(plan, new ByteArrayInputStream(file), new ByteArrayOutputStream());
+        double seconds = (System.nanoTime() - begin) / 1e9;
+        System.out.printf("[benchmark] importação: %d linhas em %.2fs (%.0f linhas/s)%n", LINES, seconds, LINES / seconds);
+    }
+}
@@ -0,0 +1,98 @@
+package com.example.loginauthapi.benchmark;
+
+import com.example.loginauthapi.domain.Category;
+import com.example.loginauthapi.domain.Transaction;
+import com.example.loginauthapi.domain.TransactionType;
+import com.example.loginauthapi.domain.User;
+import com.example.loginauthapi.repositories.CategoryRepository;
+import com.example.loginauthapi.repositories.TransactionRepository;
+import com.example.loginauthapi.repositories.TransactionTypeRepository;
+import com.example.loginauthapi.repositories.UserRepository;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Mede a vazão de INSERT de transações. Executar com:
+ * mvn test -Dtest=TransactionInsertBenchmark -Dbenchmark=true [-Dbenchmark.batchSize=1]
+ */
+@SpringBootTest
+@Transactional
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class TransactionInsertBenchmark {
+
+    private static final int ROWS = 100_000;
+    private static final int CHUNK = 1_000;
+
+    @DynamicPropertySource
+    static void batching(DynamicPropertyRegistry registry) {
+        registry.add("spring.jpa.properties.hibernate.jdbc.batch_size", () -> System.getProperty("benchmark.batchSize", "50"));
+        registry.add("spring.jpa.properties.hibernate.order_inserts", () -> "true");
+    }
+
+    @Autowired
+    private TransactionRepository transactionRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    @Autowired
+    private TransactionTypeRepository transactionTypeRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Test
+    void insert100kTransactions() {
+        String suffix = UUID.randomUUID().toString();
+        User user = new User();
+        user.setName("bench-" + suffix);
+        user.setEmail(suffix + "@bench.com");
+        user.setCpf(suffix);
+        user.setPassword("secret");
+        user.setDateOfBirth(LocalDate.of(1990, 1, 1));
+        user = userRepository.save(user);
+        Category category = categoryRepository.findAll().get(0);
+        TransactionType transactionType = transactionTypeRepository.findAll().get(0);
+
+        long start = System.nanoTime();
+        for (int offset = 0; offset < ROWS; offset += CHUNK) {
+            List<Transaction> chunk = new ArrayList<>(CHUNK);
+            for (int i = 0; i < CHUNK; i++) {
+                Transaction transaction = new Transaction();
+                transaction.setDescription("Benchmark " + (offset + i));
+                transaction.setAmount(BigDecimal.TEN);
+                transaction.setDate(LocalDateTime.now());
+                transaction.setUser(user);
+                transaction.setCategory(category);
+                transaction.setTransactionType(transactionType);
+                transaction.setChangeSeq((long) (offset + i));
+                chunk.add(transaction);
+            }
+            transactionRepository.saveAll(chunk);
+            entityManager.flush();
+            entityManager.clear();
+            user = entityManager.getReference(User.class, user.getId());
+            category = entityManager.getReference(Category.class, category.getId());
+            transactionType = entityManager.getReference(TransactionType.class, transactionType.getId());
+        }
+        double seconds = (System.nanoTime() - start) / 1e9;
+        System.out.printf("[benchmark] batch_size=%s: %d transações em %.2fs (%.0f inserts/s)%n",
+                System.getProperty("benchmark.batchSize", "50"), ROWS, seconds, ROWS / seconds);
+    }
+}
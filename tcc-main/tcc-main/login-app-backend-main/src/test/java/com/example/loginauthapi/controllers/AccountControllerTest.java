@@ -0,0 +1,94 @@
+package com.example.loginauthapi.controllers;
+
+import com.example.loginauthapi.domain.Account;
+import com.example.loginauthapi.repositories.AccountRepository;
+import com.example.loginauthapi.services.AccountService;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * GET /account/{id} responde com a versão da conta como ETag, 304 enquanto ela não muda e,
+ * depois de um depósito, o novo saldo direto do cache, sem ir ao banco.
+ */
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@AutoConfigureMockMvc
+@WithMockUser
+class AccountControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private AccountService accountService;
+
+    @Autowired
+    private AccountRepository accountRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Test
+    void conditionalGetsFollowTheAccountVersion() throws Exception {
+        Account account = accountRepository.save(new Account(null, "Conta cache", "00000000000", LocalDate.of(1990, 1, 1), "Banco",
+                new BigDecimal("100.00")));
+        String url = "/account/" + account.getId();
+
+        String etag = mockMvc.perform(get(url))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.balance").value(100.00))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        mockMvc.perform(get(url).header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified())
+                .andExpect(content().bytes(new byte[0]));
+        assertEquals(0, statistics.getPrepareStatementCount());
+
+        accountService.depositoAsync(account.getId(), new BigDecimal("50.00")).join();
+
+        statistics.clear();
+        String newEtag = mockMvc.perform(get(url).header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.balance").value(150.00))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        assertEquals(0, statistics.getPrepareStatementCount());
+        assertEquals("\"" + accountRepository.findById(account.getId()).orElseThrow().getVersion() + "\"", newEtag);
+    }
+
+    @Test
+    void accountListIsRevalidatedAfterAWrite() throws Exception {
+        Account account = accountRepository.save(new Account(null, "Conta lista", "00000000000", LocalDate.of(1990, 1, 1), "Banco",
+                BigDecimal.TEN));
+        String etag = mockMvc.perform(get("/account"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        mockMvc.perform(get("/account").header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified());
+
+        accountService.depositoAsync(account.getId(), BigDecimal.ONE).join();
+
+        mockMvc.perform(get("/account").header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isOk())
+                .andExpect(header().exists(HttpHeaders.ETAG));
+    }
+}
@@ -0,0 +1,107 @@
+package com.example.loginauthapi.controllers;
+
+import com.example.loginauthapi.domain.User;
+import com.example.loginauthapi.infra.security.TokenService;
+import com.example.loginauthapi.repositories.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.time.LocalDate;
+import java.util.UUID;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Endpoints de manutenção que afetam todos os usuários exigem ROLE_ADMIN, concedida só aos emails
+ * de api.security.admin-emails; um usuário comum autenticado recebe 403.
+ */
+@SpringBootTest(properties = "api.security.admin-emails=" + AdminEndpointsTest.ADMIN_EMAIL)
+@AutoConfigureMockMvc
+class AdminEndpointsTest {
+
+    static final String ADMIN_EMAIL = "admin-endpoints@test.com";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private TokenService tokenService;
+
+    private String userToken;
+    private String adminToken;
+
+    @BeforeEach
+    void setUp() {
+        userToken = "Bearer " + tokenService.generateToken(newUser(UUID.randomUUID() + "@test.com"));
+        adminToken = "Bearer " + tokenService.generateToken(userRepository.findByEmail(ADMIN_EMAIL)
+                .orElseGet(() -> newUser(ADMIN_EMAIL)));
+    }
+
+    @Test
+    void transactionArchiveRequiresAdmin() throws Exception {
+        mockMvc.perform(post("/transactions/archive").header(HttpHeaders.AUTHORIZATION, userToken))
+                .andExpect(status().isForbidden());
+        mockMvc.perform(post("/transactions/archive").header(HttpHeaders.AUTHORIZATION, adminToken))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    void partitionMaintenanceRequiresAdmin() throws Exception {
+        mockMvc.perform(post("/movements/partitions/maintain").header(HttpHeaders.AUTHORIZATION, userToken))
+                .andExpect(status().isForbidden());
+        mockMvc.perform(post("/movements/partitions/2020-01/archive").header(HttpHeaders.AUTHORIZATION, userToken))
+                .andExpect(status().isForbidden());
+        // No H2 a tabela não é particionada e a manutenção não faz nada
+        mockMvc.perform(post("/movements/partitions/maintain").header(HttpHeaders.AUTHORIZATION, adminToken))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    void reconciliationRequiresAdmin() throws Exception {
+        mockMvc.perform(post("/account/reconciliation").header(HttpHeaders.AUTHORIZATION, userToken))
+                .andExpect(status().isForbidden());
+        mockMvc.perform(post("/account/reconciliation").header(HttpHeaders.AUTHORIZATION, adminToken))
+                .andExpect(status().isOk());
+        mockMvc.perform(get("/account/reconciliation").header(HttpHeaders.AUTHORIZATION, userToken))
+                .andExpect(status().isForbidden());
+        mockMvc.perform(get("/account/reconciliation").header(HttpHeaders.AUTHORIZATION, adminToken))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    void rollupRebuildRequiresAdmin() throws Exception {
+        mockMvc.perform(post("/reports/rollup/rebuild").header(HttpHeaders.AUTHORIZATION, userToken))
+                .andExpect(status().isForbidden());
+        mockMvc.perform(post("/reports/rollup/rebuild").header(HttpHeaders.AUTHORIZATION, adminToken))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    void rollupDriftRequiresAdmin() throws Exception {
+        mockMvc.perform(get("/reports/rollup/drift").header(HttpHeaders.AUTHORIZATION, userToken))
+                .andExpect(status().isForbidden());
+        mockMvc.perform(get("/reports/rollup/drift").header(HttpHeaders.AUTHORIZATION, adminToken))
+                .andExpect(status().isOk());
+    }
+
+    private User newUser(String email) {
+        String suffix = UUID.randomUUID().toString();
+        User user = new User();
+        user.setName("admin-test-" + suffix);
+        user.setEmail(email);
+        user.setCpf(suffix);
+        user.setPassword("secret");
+        user.setDateOfBirth(LocalDate.of(1990, 1, 1));
+        return userRepository.save(user);
+    }
+}
@@ -0,0 +1,75 @@
+package com.example.loginauthapi.controllers;
+
+import com.example.loginauthapi.domain.Category;
+import com.example.loginauthapi.services.CategoryService;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.io.ByteArrayInputStream;
+import java.util.UUID;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * GET /categories devolve os bytes pré-serializados (gzip quando aceito) com ETag forte, 304
+ * enquanto a lista não muda e uma lista nova logo depois de CategoryService alterar os dados.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@WithMockUser
+class CategoryControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private CategoryService categoryService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Test
+    void servesPrecomputedBytesWithStrongEtag() throws Exception {
+        MockHttpServletResponse identity = mockMvc.perform(get("/categories"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse();
+        MockHttpServletResponse gzip = mockMvc.perform(get("/categories").header(HttpHeaders.ACCEPT_ENCODING, "gzip, deflate"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse();
+
+        assertEquals("gzip", gzip.getHeader(HttpHeaders.CONTENT_ENCODING));
+        assertArrayEquals(identity.getContentAsByteArray(), new GZIPInputStream(new ByteArrayInputStream(gzip.getContentAsByteArray())).readAllBytes());
+        assertNotEquals(identity.getHeader(HttpHeaders.ETAG), gzip.getHeader(HttpHeaders.ETAG));
+        assertFalse(identity.getHeader(HttpHeaders.ETAG).startsWith("W/"));
+        assertTrue(identity.getHeader(HttpHeaders.CACHE_CONTROL).contains("no-cache"));
+
+        mockMvc.perform(get("/categories").header(HttpHeaders.IF_NONE_MATCH, identity.getHeader(HttpHeaders.ETAG)))
+                .andExpect(status().isNotModified());
+
+        String name = "Categoria " + UUID.randomUUID();
+        Category category = new Category();
+        category.setCategoryName(name);
+        categoryService.newCategory(category);
+
+        MockHttpServletResponse changed = mockMvc.perform(get("/categories").header(HttpHeaders.IF_NONE_MATCH, identity.getHeader(HttpHeaders.ETAG)))
+                .andExpect(status().isOk())
+                .andReturn().getResponse();
+        JsonNode list = objectMapper.readTree(changed.getContentAsByteArray());
+        assertTrue(list.findValuesAsText("categoryName").contains(name));
+    }
+}
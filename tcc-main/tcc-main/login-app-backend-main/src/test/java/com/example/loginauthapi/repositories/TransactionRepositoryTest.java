@@ -0,0 +1,183 @@
+package com.example.loginauthapi.repositories;
+
+import com.example.loginauthapi.domain.Account;
+import com.example.loginauthapi.domain.Category;
+import com.example.loginauthapi.domain.Transaction;
+import com.example.loginauthapi.domain.TransactionType;
+import com.example.loginauthapi.domain.User;
+import com.example.loginauthapi.dto.TransactionCursor;
+import com.example.loginauthapi.dto.TransactionDTO;
+import com.example.loginauthapi.dto.TransactionFilterDTO;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@Transactional
+class TransactionRepositoryTest {
+
+    private static final TransactionFilterDTO NO_FILTER = new TransactionFilterDTO(null, null, null, null, null, null);
+
+    @Autowired
+    private TransactionRepository transactionRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    @Autowired
+    private TransactionTypeRepository transactionTypeRepository;
+
+    @Autowired
+    private AccountRepository accountRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private User user;
+    private Category category;
+    private TransactionType transactionType;
+
+    @BeforeEach
+    void setUp() {
+        String suffix = UUID.randomUUID().toString();
+        user = new User();
+        user.setName("user-" + suffix);
+        user.setEmail(suffix + "@test.com");
+        user.setCpf(suffix);
+        user.setPassword("secret");
+        user.setDateOfBirth(LocalDate.of(1990, 1, 1));
+        user = userRepository.save(user);
+        category = categoryRepository.findAll().get(0);
+        transactionType = transactionTypeRepository.findAll().get(0);
+    }
+
+    @Test
+    void listingUsesSingleStatementRegardlessOfRowCount() {
+        insertTransactions(10);
+        long statementsFor10 = countStatements(() -> assertEquals(10, transactionRepository.findPage(user.getId(), NO_FILTER, null, 1000).size()));
+
+        insertTransactions(990);
+        long statementsFor1000 = countStatements(() -> {
+            List<TransactionDTO> page = transactionRepository.findPage(user.getId(), NO_FILTER, null, 1000);
+            assertEquals(1000, page.size());
+            page.forEach(dto -> assertEquals(category.getCategoryName(), dto.getCategory().getCategoryName()));
+        });
+
+        assertEquals(1, statementsFor10);
+        assertEquals(statementsFor10, statementsFor1000);
+    }
+
+    @Test
+    void eachFilterNarrowsTheListing() {
+        Category otherCategory = categoryRepository.findAll().get(1);
+        TransactionType otherType = transactionTypeRepository.findAll().get(1);
+        Account account = accountRepository.save(new Account(null, "Conta filtro", "00000000000",
+                LocalDate.of(1990, 1, 1), "Banco", BigDecimal.ZERO));
+        LocalDateTime base = LocalDateTime.of(2024, 6, 15, 12, 0);
+        Long a = insert("Mercado 100% natural", base, category, transactionType, null);
+        Long b = insert("Farmácia", base.minusDays(10), otherCategory, transactionType, account);
+        Long c = insert("Posto_shell", base.minusDays(20), category, otherType, null);
+        Long d = insert("Gasto shopping 100 reais", base.minusDays(30), category, transactionType, null);
+        entityManager.flush();
+        entityManager.clear();
+
+        LocalDate day = base.toLocalDate();
+        assertEquals(List.of(a, b, c, d), ids(NO_FILTER));
+        assertEquals(List.of(a, b), ids(new TransactionFilterDTO(day.minusDays(10), null, null, null, null, null)));
+        assertEquals(List.of(c, d), ids(new TransactionFilterDTO(null, day.minusDays(20), null, null, null, null)));
+        assertEquals(List.of(c), ids(new TransactionFilterDTO(null, null, otherType.getId(), null, null, null)));
+        assertEquals(List.of(b), ids(new TransactionFilterDTO(null, null, null, otherCategory.getId(), null, null)));
+        assertEquals(List.of(b), ids(new TransactionFilterDTO(null, null, null, null, account.getId(), null)));
+        assertEquals(List.of(b), ids(new TransactionFilterDTO(null, null, null, null, null, " FARMÁ ")));
+        // % e _ são literais: "100%" não casa com "100 reais" nem "sto_sh" com "sto sh"
+        assertEquals(List.of(a), ids(new TransactionFilterDTO(null, null, null, null, null, "100%")));
+        assertEquals(List.of(c), ids(new TransactionFilterDTO(null, null, null, null, null, "sto_sh")));
+    }
+
+    @Test
+    void cursorContinuesAfterTheLastRowOfThePage() {
+        LocalDateTime base = LocalDateTime.of(2024, 6, 15, 12, 0);
+        for (int i = 0; i < 7; i++) {
+            // Datas repetidas: o desempate pelo id não pode pular nem repetir linhas
+            insert("Página " + i, base.minusDays(i / 3), category, transactionType, null);
+        }
+        entityManager.flush();
+        entityManager.clear();
+
+        List<Long> paged = new ArrayList<>();
+        TransactionCursor after = null;
+        List<TransactionDTO> page;
+        do {
+            page = transactionRepository.findPage(user.getId(), NO_FILTER, after, 2);
+            page.forEach(dto -> paged.add(dto.getId()));
+            if (!page.isEmpty()) {
+                TransactionDTO last = page.get(page.size() - 1);
+                after = new TransactionCursor(last.getDate(), last.getId());
+            }
+        } while (page.size() == 2);
+
+        assertEquals(ids(NO_FILTER), paged);
+        assertEquals(7, paged.size());
+    }
+
+    private List<Long> ids(TransactionFilterDTO filter) {
+        return transactionRepository.findPage(user.getId(), filter, null, 100).stream().map(TransactionDTO::getId).toList();
+    }
+
+    private Long insert(String description, LocalDateTime date, Category category, TransactionType type, Account account) {
+        Transaction transaction = new Transaction();
+        transaction.setDescription(description);
+        transaction.setAmount(BigDecimal.TEN);
+        transaction.setDate(date);
+        transaction.setUser(user);
+        transaction.setCategory(category);
+        transaction.setTransactionType(type);
+        transaction.setAccount(account);
+        transaction.setChangeSeq(0L);
+        return transactionRepository.save(transaction).getId();
+    }
+
+    private void insertTransactions(int count) {
+        for (int i = 0; i < count; i++) {
+            Transaction transaction = new Transaction();
+            transaction.setDescription("Transação " + i);
+            transaction.setAmount(BigDecimal.TEN);
+            transaction.setDate(LocalDateTime.now().minusMinutes(i));
+            transaction.setUser(user);
+            transaction.setCategory(category);
+            transaction.setTransactionType(transactionType);
+            transaction.setChangeSeq((long) i);
+            transactionRepository.save(transaction);
+        }
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    private long countStatements(Runnable action) {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        action.run();
+        return statistics.getPrepareStatementCount();
+    }
+}
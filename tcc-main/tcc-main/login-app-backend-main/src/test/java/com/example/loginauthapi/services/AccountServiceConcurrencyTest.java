@@ -0,0 +1,95 @@
+package com.example.loginauthapi.services;
+
+import com.example.loginauthapi.domain.Account;
+import com.example.loginauthapi.repositories.AccountRepository;
+import com.example.loginauthapi.services.exceptions.BusinessException;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Vários threads postando na mesma conta: o saldo final deve refletir todas as operações.
+ * A vazão na conta quente é medida à parte, em benchmark.HotAccountBenchmark.
+ */
+@SpringBootTest
+class AccountServiceConcurrencyTest {
+
+    private static final int THREADS = 8;
+    private static final int OPERATIONS_PER_THREAD = 250;
+
+    @Autowired
+    private AccountService accountService;
+
+    @Autowired
+    private AccountRepository accountRepository;
+
+    @Test
+    void concurrentDepositsDoNotLoseUpdates() throws Exception {
+        Account account = accountRepository.save(newAccount(new BigDecimal("0.00")));
+
+        runConcurrently(() -> accountService.realizaDeposito(account.getId(), BigDecimal.ONE));
+
+        int operations = THREADS * OPERATIONS_PER_THREAD;
+        assertEquals(0, new BigDecimal(operations).compareTo(balanceOf(account)));
+    }
+
+    @Test
+    void concurrentWithdrawalsNeverOverdraw() throws Exception {
+        int available = THREADS * OPERATIONS_PER_THREAD / 2;
+        Account account = accountRepository.save(newAccount(new BigDecimal(available)));
+        AtomicInteger rejected = new AtomicInteger();
+
+        runConcurrently(() -> {
+            try {
+                accountService.realizaSaque(account.getId(), BigDecimal.ONE);
+            } catch (BusinessException e) {
+                rejected.incrementAndGet();
+            }
+            return null;
+        });
+
+        // Metade dos saques é atendida e a outra metade é recusada por saldo insuficiente
+        assertEquals(0, BigDecimal.ZERO.compareTo(balanceOf(account)));
+        assertEquals(THREADS * OPERATIONS_PER_THREAD - available, rejected.get());
+    }
+
+    private void runConcurrently(Callable<?> operation) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < THREADS; t++) {
+                futures.add(executor.submit(() -> {
+                    for (int i = 0; i < OPERATIONS_PER_THREAD; i++) {
+                        operation.call();
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private BigDecimal balanceOf(Account account) {
+        return accountRepository.findById(account.getId()).orElseThrow().getBalance();
+    }
+
+    private Account newAccount(BigDecimal balance) {
+        return new Account(null, "Conta concorrência", "00000000000", LocalDate.of(1990, 1, 1), "Banco", balance);
+    }
+}
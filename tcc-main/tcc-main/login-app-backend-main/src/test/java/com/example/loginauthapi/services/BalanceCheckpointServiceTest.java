@@ -0,0 +1,200 @@
+package com.example.loginauthapi.services;
+
+import com.example.loginauthapi.domain.Account;
+import com.example.loginauthapi.domain.BalanceCheckpoint;
+import com.example.loginauthapi.domain.User;
+import com.example.loginauthapi.dto.AccountBalanceDTO;
+import com.example.loginauthapi.dto.TransactionRequestDTO;
+import com.example.loginauthapi.repositories.AccountRepository;
+import com.example.loginauthapi.repositories.BalanceCheckpointRepository;
+import com.example.loginauthapi.repositories.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+/**
+ * Saldo em uma data a partir dos checkpoints: sem checkpoint, antes do primeiro e entre dois.
+ * Lançamentos retroativos corrigem os checkpoints, inclusive o fixado ao arquivar um mês.
+ * Transações com data futura entram no saldo na hora, mas um checkpoint gravado antes da data
+ * delas não pode contá-las de novo. O job só grava checkpoint para contas com movimentação nova.
+ */
+@SpringBootTest
+class BalanceCheckpointServiceTest {
+
+    @Autowired
+    private BalanceCheckpointService checkpointService;
+
+    @Autowired
+    private TransactionService transactionService;
+
+    @Autowired
+    private TransactionBatchService batchService;
+
+    @Autowired
+    private ReferenceDataCache referenceDataCache;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private AccountRepository accountRepository;
+
+    @Autowired
+    private BalanceCheckpointRepository checkpointRepository;
+
+    @Autowired
+    private AccountService accountService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private User user;
+    private Account account;
+    private Long incomeTypeId;
+
+    @BeforeEach
+    void setUp() {
+        String suffix = UUID.randomUUID().toString();
+        user = new User();
+        user.setName("checkpoint-" + suffix);
+        user.setEmail(suffix + "@test.com");
+        user.setCpf(suffix);
+        user.setPassword("secret");
+        user.setDateOfBirth(LocalDate.of(1990, 1, 1));
+        user = userRepository.save(user);
+        account = accountRepository.save(new Account(null, "Conta checkpoint", "00000000000",
+                LocalDate.of(1990, 1, 1), "Banco", BigDecimal.ZERO));
+
+        // Tipo de receita semeado pela V5
+        incomeTypeId = referenceDataCache.findTransactionTypeByName("RECEITA").orElseThrow().id();
+    }
+
+    @Test
+    void balanceAtUsesTheNearestCheckpoint() {
+        LocalDateTime now = now();
+        transactionService.newTransaction(income("Primeira", "100.00", now.minusDays(30)));
+        transactionService.newTransaction(income("Segunda", "50.00", now.minusDays(20)));
+        transactionService.newTransaction(income("Terceira", "25.00", now.minusDays(10)));
+
+        // Sem checkpoint: volta a partir do saldo atual
+        AccountBalanceDTO withoutCheckpoint = checkpointService.balanceAt(account.getId(), now.minusDays(25));
+        assertEquals(0, new BigDecimal("100.00").compareTo(withoutCheckpoint.balance()));
+        assertNull(withoutCheckpoint.checkpointAt());
+
+        LocalDateTime first = now.minusDays(15);
+        LocalDateTime second = now.minusDays(5);
+        checkpointRepository.save(new BalanceCheckpoint(null, account.getId(), first, new BigDecimal("150.00")));
+        checkpointRepository.save(new BalanceCheckpoint(null, account.getId(), second, new BigDecimal("175.00")));
+
+        // Antes do primeiro checkpoint: desconta dele as movimentações até a data
+        AccountBalanceDTO beforeFirst = checkpointService.balanceAt(account.getId(), now.minusDays(25));
+        assertEquals(0, new BigDecimal("100.00").compareTo(beforeFirst.balance()));
+        assertEquals(first, beforeFirst.checkpointAt());
+
+        // Entre checkpoints: parte do anterior e soma as movimentações até a data
+        AccountBalanceDTO between = checkpointService.balanceAt(account.getId(), now.minusDays(8));
+        assertEquals(0, new BigDecimal("175.00").compareTo(between.balance()));
+        assertEquals(first, between.checkpointAt());
+        assertBalance("150.00", now.minusDays(12));
+
+        AccountBalanceDTO latest = checkpointService.balanceAt(account.getId(), null);
+        assertEquals(0, new BigDecimal("175.00").compareTo(latest.balance()));
+        assertEquals(second, latest.checkpointAt());
+    }
+
+    @Test
+    void checkpointAllSkipsAccountsWithoutNewMovements() {
+        transactionService.newTransaction(income("Salário", "100.00", LocalDateTime.now().minusDays(1)));
+
+        checkpointService.checkpointAll();
+        assertEquals(1, checkpoints());
+
+        // Nenhuma movimentação desde o último checkpoint: a conta é pulada
+        checkpointService.checkpointAll();
+        assertEquals(1, checkpoints());
+
+        accountService.realizaDeposito(account.getId(), new BigDecimal("10.00"));
+        checkpointService.checkpointAll();
+        assertEquals(2, checkpoints());
+        assertBalance("110.00", LocalDateTime.now());
+    }
+
+    @Test
+    void futureDatedPostingIsCountedOnceAfterACheckpoint() {
+        LocalDateTime future = now().plusDays(10);
+        transactionService.newTransaction(income("Salário futuro", "100.00", future));
+
+        checkpointService.checkpointAll();
+
+        assertBalance("0.00", LocalDateTime.now());
+        assertBalance("100.00", future);
+        assertBalance("100.00", future.plusDays(10));
+    }
+
+    @Test
+    void futureDatedBatchItemIsCountedOnceAfterACheckpoint() {
+        LocalDateTime future = now().plusDays(10);
+        batchService.insertAll(List.of(income("Lote presente", "30.00", LocalDateTime.now().minusDays(1)),
+                income("Lote futuro", "70.00", future)));
+
+        checkpointService.checkpointAll();
+
+        assertBalance("30.00", LocalDateTime.now());
+        assertBalance("100.00", future.plusDays(1));
+    }
+
+    @Test
+    void backDatedPostingShiftsThePinnedCheckpoint() {
+        LocalDateTime now = now();
+        checkpointRepository.save(new BalanceCheckpoint(null, account.getId(), now.minusDays(60), BigDecimal.ZERO));
+        transactionService.newTransaction(income("Antiga", "100.00", now.minusDays(40)));
+
+        // Arquivamento do mês: fixa o saldo no fim dele e as movimentações saem do razão
+        LocalDateTime end = now.minusDays(30);
+        checkpointService.pin(account.getId(), end);
+        jdbcTemplate.update("DELETE FROM tb_movements WHERE account_id = ? AND movement_date < ?", account.getId(), end);
+
+        // Lançamentos retroativos dentro do mês arquivado, individual e em lote
+        transactionService.newTransaction(income("Retroativa", "50.00", now.minusDays(35)));
+        batchService.insertAll(List.of(income("Lote retroativo", "20.00", now.minusDays(33)),
+                new TransactionRequestDTO("Despesa retroativa", new BigDecimal("5.00"), now.minusDays(32),
+                        referenceDataCache.getCategories().get(0).id(),
+                        referenceDataCache.findTransactionTypeByName("DESPESA").orElseThrow().id(), user.getId(), account.getId())));
+
+        assertEquals(2, checkpoints());
+        assertBalance("165.00", end);
+        assertBalance("165.00", now.minusDays(20));
+        assertBalance("165.00", LocalDateTime.now());
+    }
+
+    private TransactionRequestDTO income(String description, String amount, LocalDateTime date) {
+        return new TransactionRequestDTO(description, new BigDecimal(amount), date,
+                referenceDataCache.getCategories().get(0).id(), incomeTypeId, user.getId(), account.getId());
+    }
+
+    // O banco guarda microssegundos: datas comparadas com o valor gravado não podem ter nanossegundos
+    private static LocalDateTime now() {
+        return LocalDateTime.now().truncatedTo(ChronoUnit.SECONDS);
+    }
+
+    private int checkpoints() {
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM balance_checkpoint WHERE account_id = ?", Integer.class, account.getId());
+    }
+
+    private void assertBalance(String expected, LocalDateTime at) {
+        BigDecimal balance = checkpointService.balanceAt(account.getId(), at).balance();
+        assertEquals(0, new BigDecimal(expected).compareTo(balance), "saldo em " + at + ": " + balance);
+    }
+}
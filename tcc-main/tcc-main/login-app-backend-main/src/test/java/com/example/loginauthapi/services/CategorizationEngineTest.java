@@ -0,0 +1,108 @@
+package com.example.loginauthapi.services;
+
+import com.example.loginauthapi.domain.Transaction;
+import com.example.loginauthapi.domain.User;
+import com.example.loginauthapi.dto.CategoryRuleDTO;
+import com.example.loginauthapi.dto.CategoryRuleRequestDTO;
+import com.example.loginauthapi.dto.TransactionRequestDTO;
+import com.example.loginauthapi.repositories.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Regras do usuário vencem as do sistema, a palavra-chave casa só no início de uma palavra e
+ * uma regra nova ou excluída vale para o próximo lançamento.
+ */
+@SpringBootTest
+class CategorizationEngineTest {
+
+    @Autowired
+    private CategorizationEngine categorizationEngine;
+
+    @Autowired
+    private CategoryRuleService categoryRuleService;
+
+    @Autowired
+    private TransactionService transactionService;
+
+    @Autowired
+    private ReferenceDataCache referenceDataCache;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    private User user;
+    private User otherUser;
+
+    @BeforeEach
+    void setUp() {
+        user = newUser();
+        otherUser = newUser();
+    }
+
+    @Test
+    void userRulesTakePrecedenceOverSystemRules() {
+        Long food = category("Alimentação");
+        Long transport = category("Transporte");
+        Long entertainment = category("Entretenimento");
+
+        assertEquals(Optional.of(food), categorizationEngine.categorize(user.getId(), "SUPERMERCADO São João"));
+        assertEquals(Optional.of(transport), categorizationEngine.categorize(user.getId(), "PAG*UBERTRIP 1234"));
+        // "posto" não casa no meio de "imposto"
+        assertEquals(Optional.empty(), categorizationEngine.categorize(user.getId(), "Imposto de renda"));
+
+        categoryRuleService.newRule(user, new CategoryRuleRequestDTO("Mercado Livre", entertainment));
+        assertEquals(Optional.of(entertainment), categorizationEngine.categorize(user.getId(), "Compra MERCADO LIVRE *fone"));
+        assertEquals(Optional.of(food), categorizationEngine.categorize(user.getId(), "Mercado do bairro"));
+        assertEquals(Optional.of(food), categorizationEngine.categorize(otherUser.getId(), "Compra MERCADO LIVRE *fone"));
+    }
+
+    @Test
+    void newTransactionUsesTheCurrentRules() {
+        Long health = category("Saúde");
+        Long education = category("Educação");
+
+        assertEquals(health, insert("Drogaria Central").getCategory().getId());
+
+        CategoryRuleDTO rule = categoryRuleService.newRule(user, new CategoryRuleRequestDTO("drogaria", education));
+        assertEquals(education, insert("Drogaria Central").getCategory().getId());
+
+        categoryRuleService.delete(user, rule.id());
+        assertEquals(health, insert("Drogaria Central").getCategory().getId());
+    }
+
+    private Transaction insert(String description) {
+        Long typeId = referenceDataCache.getTransactionTypes().get(0).id();
+        return transactionService.newTransaction(new TransactionRequestDTO(description, BigDecimal.TEN, LocalDateTime.now(),
+                null, typeId, user.getId(), null));
+    }
+
+    private Long category(String name) {
+        return referenceDataCache.getCategories().stream()
+                .filter(category -> category.categoryName().equals(name))
+                .findFirst()
+                .orElseThrow()
+                .id();
+    }
+
+    private User newUser() {
+        String suffix = UUID.randomUUID().toString();
+        User user = new User();
+        user.setName("rules-" + suffix);
+        user.setEmail(suffix + "@test.com");
+        user.setCpf(suffix);
+        user.setPassword("secret");
+        user.setDateOfBirth(LocalDate.of(1990, 1, 1));
+        return userRepository.save(user);
+    }
+}
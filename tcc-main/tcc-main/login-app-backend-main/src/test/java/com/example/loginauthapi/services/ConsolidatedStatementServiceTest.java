@@ -0,0 +1,85 @@
+package com.example.loginauthapi.services;
+
+import com.example.loginauthapi.domain.Account;
+import com.example.loginauthapi.domain.Movement;
+import com.example.loginauthapi.dto.ConsolidatedMovementDTO;
+import com.example.loginauthapi.dto.ConsolidatedStatementPageDTO;
+import com.example.loginauthapi.repositories.AccountRepository;
+import com.example.loginauthapi.repositories.MovementRepository;
+import com.example.loginauthapi.services.exceptions.BusinessException;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * O extrato consolidado intercala as contas em ordem (movementDate, id), inclusive com datas
+ * iguais em contas diferentes, e o cursor continua exatamente depois da última linha da página.
+ */
+@SpringBootTest
+class ConsolidatedStatementServiceTest {
+
+    private static final LocalDate DAY = LocalDate.of(2024, 6, 1);
+
+    @Autowired
+    private ConsolidatedStatementService consolidatedStatementService;
+
+    @Autowired
+    private AccountRepository accountRepository;
+
+    @Autowired
+    private MovementRepository movementRepository;
+
+    @Test
+    void mergesAccountsInOrderAndContinuesFromTheCursor() {
+        List<Account> accounts = List.of(newAccount(), newAccount(), newAccount());
+        List<Long> accountIds = accounts.stream().map(Account::getId).toList();
+        List<Movement> movements = new ArrayList<>();
+        for (int i = 0; i < 12; i++) {
+            // Horários intercalados entre as contas, com alguns repetidos em contas diferentes
+            LocalDateTime date = DAY.atTime(8 + i / 2, (i % 3) * 10);
+            movements.add(new Movement(accounts.get((i * 7) % 3), i % 4 == 0 ? "WITHDRAW" : "DEPOSIT", BigDecimal.valueOf(i + 1), date));
+        }
+        // Gravadas fora de ordem cronológica: a ordem vem do merge, não dos ids
+        movementRepository.saveAll(movements.reversed());
+
+        List<Long> expected = movements.stream()
+                .sorted(Comparator.comparing(Movement::getMovementDate).thenComparing(Movement::getId))
+                .map(Movement::getId)
+                .toList();
+
+        List<ConsolidatedMovementDTO> paged = new ArrayList<>();
+        String cursor = null;
+        int pages = 0;
+        do {
+            ConsolidatedStatementPageDTO page = consolidatedStatementService.getPage(accountIds, DAY, DAY, cursor, 5);
+            paged.addAll(page.content());
+            cursor = page.nextCursor();
+            pages++;
+        } while (cursor != null);
+
+        assertEquals(expected, paged.stream().map(ConsolidatedMovementDTO::id).toList());
+        assertEquals(3, pages);
+    }
+
+    @Test
+    void rejectsMoreAccountsThanTheLimit() {
+        List<Long> tooMany = LongStream.rangeClosed(1, ConsolidatedStatementService.MAX_ACCOUNTS + 1).boxed().toList();
+        assertThrows(BusinessException.class, () -> consolidatedStatementService.resolveAccounts(null, tooMany));
+    }
+
+    private Account newAccount() {
+        return accountRepository.save(new Account(null, "Conta consolidada", "00000000000",
+                LocalDate.of(1990, 1, 1), "Banco", BigDecimal.ZERO));
+    }
+}
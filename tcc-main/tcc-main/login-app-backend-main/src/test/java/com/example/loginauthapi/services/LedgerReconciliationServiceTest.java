@@ -0,0 +1,66 @@
+package com.example.loginauthapi.services;
+
+import com.example.loginauthapi.domain.Account;
+import com.example.loginauthapi.dto.AccountDTO;
+import com.example.loginauthapi.dto.AccountRequestDTO;
+import com.example.loginauthapi.dto.LedgerDriftDTO;
+import com.example.loginauthapi.dto.ReconciliationReportDTO;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Saldo inicial, depósitos, saques e ajustes diretos mantêm o razão fechado; uma alteração de
+ * saldo por fora dos serviços aparece como divergência da conta.
+ */
+@SpringBootTest(properties = "api.reconciliation.range-size=3")
+class LedgerReconciliationServiceTest {
+
+    @Autowired
+    private LedgerReconciliationService reconciliationService;
+
+    @Autowired
+    private AccountService accountService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void reportsOnlyAccountsWhoseBalanceDiverges() {
+        List<Long> ids = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            Account account = accountService.newAccount(new AccountRequestDTO("Razão " + i, "00000000000",
+                    LocalDate.of(1990, 1, 1), "Banco", new BigDecimal("100.00")));
+            accountService.realizaDeposito(account.getId(), new BigDecimal("25.50"));
+            accountService.realizaSaque(account.getId(), new BigDecimal("10.00"));
+            ids.add(account.getId());
+        }
+        accountService.update(ids.get(3), new AccountDTO("Razão 3", "00000000000", LocalDate.of(1990, 1, 1), "Banco", new BigDecimal("42.00")));
+
+        assertTrue(driftOf(reconciliationService.reconcile(), ids).isEmpty());
+
+        jdbcTemplate.update("UPDATE tb_account SET balance = balance + 7 WHERE id = ?", ids.get(5));
+        ReconciliationReportDTO report = reconciliationService.reconcile();
+
+        List<LedgerDriftDTO> drift = driftOf(report, ids);
+        assertEquals(1, drift.size());
+        assertEquals(ids.get(5), drift.get(0).accountId());
+        assertEquals(0, new BigDecimal("7").compareTo(drift.get(0).difference()));
+        assertTrue(report.ranges() > 1);
+        assertTrue(report.accountsChecked() >= ids.size());
+    }
+
+    //o banco de teste é compartilhado; considera apenas as contas criadas aqui
+    private List<LedgerDriftDTO> driftOf(ReconciliationReportDTO report, List<Long> ids) {
+        return report.drift().stream().filter(d -> ids.contains(d.accountId())).toList();
+    }
+}
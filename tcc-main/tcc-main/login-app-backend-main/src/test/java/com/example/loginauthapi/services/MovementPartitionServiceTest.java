@@ -0,0 +1,160 @@
+package com.example.loginauthapi.services;
+
+import com.example.loginauthapi.domain.Account;
+import com.example.loginauthapi.domain.User;
+import com.example.loginauthapi.dto.MovementArchiveDTO;
+import com.example.loginauthapi.dto.TransactionRequestDTO;
+import com.example.loginauthapi.repositories.AccountRepository;
+import com.example.loginauthapi.repositories.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.io.BufferedReader;
+import java.io.InputStreamReader;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.List;
+import java.util.UUID;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * Partições mensais de tb_movements (V12): criação de partição com linhas pendentes na DEFAULT e
+ * arquivamento de um mês, com o saldo preservado antes e depois de um lançamento retroativo.
+ * Só roda no PostgreSQL (APP_PROFILE=dev); no H2 a tabela não é particionada e os testes são ignorados.
+ */
+@SpringBootTest(properties = "api.movements.archive.dir=target/test-archive/movements")
+class MovementPartitionServiceTest {
+
+    // Meses fixos, longe do mês corrente, para não tocar nas partições criadas pela manutenção
+    private static final YearMonth FUTURE = YearMonth.of(2099, 1);
+    private static final YearMonth PAST = YearMonth.of(2001, 1);
+
+    @Autowired
+    private MovementPartitionService partitionService;
+
+    @Autowired
+    private BalanceCheckpointService checkpointService;
+
+    @Autowired
+    private TransactionService transactionService;
+
+    @Autowired
+    private AccountService accountService;
+
+    @Autowired
+    private ReferenceDataCache referenceDataCache;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private AccountRepository accountRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private User user;
+    private Account account;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        assumeTrue(partitionService.isPartitioned(), "tb_movements não é particionada neste banco");
+
+        // Execuções anteriores deixam a partição do mês futuro e o arquivo do mês arquivado
+        jdbcTemplate.execute("DROP TABLE IF EXISTS tb_movements_p2099_01");
+        jdbcTemplate.execute("DROP TABLE IF EXISTS tb_movements_p2001_01");
+        Files.deleteIfExists(Path.of("target/test-archive/movements/tb_movements_p2001_01.csv.gz"));
+
+        String suffix = UUID.randomUUID().toString();
+        user = new User();
+        user.setName("partition-" + suffix);
+        user.setEmail(suffix + "@test.com");
+        user.setCpf(suffix);
+        user.setPassword("secret");
+        user.setDateOfBirth(LocalDate.of(1990, 1, 1));
+        user = userRepository.save(user);
+        account = accountRepository.save(new Account(null, "Conta partição", "00000000000",
+                LocalDate.of(1990, 1, 1), "Banco", BigDecimal.ZERO));
+    }
+
+    @Test
+    void ensurePartitionMovesRowsOutOfDefault() {
+        // Sem partição para o mês, a movimentação cai na DEFAULT
+        transactionService.newTransaction(income("Futura", "40.00", FUTURE.atDay(10).atStartOfDay()));
+        assertEquals(1, rows("tb_movements_default"));
+
+        assertTrue(partitionService.ensurePartition(FUTURE));
+        assertFalse(partitionService.ensurePartition(FUTURE));
+
+        assertEquals(0, rows("tb_movements_default"));
+        assertEquals(1, rows("tb_movements_p2099_01"));
+        assertTrue(partitionService.listPartitions().stream()
+                .anyMatch(partition -> partition.name().equals("tb_movements_p2099_01") && FUTURE.equals(partition.month())));
+    }
+
+    @Test
+    void archiveExportsTheMonthAndKeepsTheBalance() throws Exception {
+        transactionService.newTransaction(income("Antiga", "100.00", PAST.atDay(5).atStartOfDay()));
+        transactionService.newTransaction(income("Outra antiga", "50.00", PAST.atDay(20).atStartOfDay()));
+        accountService.realizaDeposito(account.getId(), new BigDecimal("30.00"));
+        LocalDateTime end = PAST.plusMonths(1).atDay(1).atStartOfDay();
+
+        MovementArchiveDTO archived = partitionService.archive(PAST);
+
+        assertEquals("tb_movements_p2001_01", archived.partition());
+        assertFalse(jdbcTemplate.queryForObject("SELECT to_regclass('tb_movements_p2001_01') IS NOT NULL", Boolean.class));
+        List<String> lines = archivedLines(Path.of(archived.file()));
+        assertEquals("id,account_id,type,amount,movement_date,transaction_id", lines.get(0));
+        List<String> accountLines = lines.stream().skip(1)
+                .filter(line -> line.split(",")[1].equals(String.valueOf(account.getId()))).toList();
+        assertEquals(2, accountLines.size());
+        // Movimentações de transação levam o id dela no arquivo
+        assertTrue(accountLines.stream().noneMatch(line -> line.endsWith(",")));
+
+        // As linhas arquivadas passam para o saldo de abertura e para o checkpoint fixado no fim do mês
+        assertEquals(0, new BigDecimal("150.00").compareTo(accountRepository.findById(account.getId()).orElseThrow().getOpeningBalance()));
+        assertBalance("150.00", end);
+        assertBalance("180.00", LocalDateTime.now());
+
+        // Lançamento retroativo no mês arquivado: cai na DEFAULT e corrige o checkpoint fixado
+        transactionService.newTransaction(income("Retroativa", "20.00", PAST.atDay(25).atStartOfDay()));
+        assertBalance("170.00", end);
+        assertBalance("200.00", LocalDateTime.now());
+        assertEquals(0, new BigDecimal("200.00").compareTo(accountRepository.findById(account.getId()).orElseThrow().getBalance()));
+    }
+
+    private TransactionRequestDTO income(String description, String amount, LocalDateTime date) {
+        return new TransactionRequestDTO(description, new BigDecimal(amount), date,
+                referenceDataCache.getCategories().get(0).id(),
+                referenceDataCache.findTransactionTypeByName("RECEITA").orElseThrow().id(), user.getId(), account.getId());
+    }
+
+    private int rows(String table) {
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM " + table + " WHERE account_id = ?", Integer.class, account.getId());
+    }
+
+    private static List<String> archivedLines(Path file) throws Exception {
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(
+                new GZIPInputStream(Files.newInputStream(file)), StandardCharsets.UTF_8))) {
+            return reader.lines().toList();
+        }
+    }
+
+    private void assertBalance(String expected, LocalDateTime at) {
+        BigDecimal balance = checkpointService.balanceAt(account.getId(), at).balance();
+        assertEquals(0, new BigDecimal(expected).compareTo(balance), "saldo em " + at + ": " + balance);
+    }
+}
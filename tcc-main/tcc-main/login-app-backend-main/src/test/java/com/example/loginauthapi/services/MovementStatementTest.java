@@ -0,0 +1,117 @@
+package com.example.loginauthapi.services;
+
+import com.example.loginauthapi.domain.Account;
+import com.example.loginauthapi.domain.Movement;
+import com.example.loginauthapi.dto.StatementLineDTO;
+import com.example.loginauthapi.dto.StatementPageDTO;
+import com.example.loginauthapi.repositories.AccountRepository;
+import com.example.loginauthapi.repositories.MovementRepository;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Compara o saldo corrente calculado pela window function com o mesmo cálculo feito em Java.
+ * Roda contra o banco do perfil ativo: H2 por padrão, PostgreSQL com APP_PROFILE=dev.
+ */
+@SpringBootTest
+@Transactional
+class MovementStatementTest {
+
+    private static final BigDecimal INITIAL_BALANCE = new BigDecimal("1000.00");
+
+    @Autowired
+    private MovementService movementService;
+
+    @Autowired
+    private AccountRepository accountRepository;
+
+    @Autowired
+    private MovementRepository movementRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Test
+    void runningBalanceMatchesJavaAcrossPages() {
+        Account account = accountRepository.save(new Account(null, "Extrato", "00000000000",
+                LocalDate.of(1990, 1, 1), "Banco", INITIAL_BALANCE));
+        List<Movement> movements = insertMovements(account, 237);
+
+        // Página pequena para atravessar vários cursores, inclusive com datas repetidas
+        List<StatementLineDTO> lines = new ArrayList<>();
+        String cursor = null;
+        do {
+            StatementPageDTO page = movementService.getRunningStatement(account.getId(), null, null, cursor, 20);
+            lines.addAll(page.content());
+            cursor = page.nextCursor();
+        } while (cursor != null);
+
+        movements.sort(Comparator.comparing(Movement::getMovementDate).thenComparing(Movement::getId));
+        assertEquals(movements.size(), lines.size());
+        BigDecimal expected = INITIAL_BALANCE;
+        for (int i = 0; i < movements.size(); i++) {
+            Movement movement = movements.get(i);
+            expected = movement.getType().equals("WITHDRAW")
+                    ? expected.subtract(movement.getAmount())
+                    : expected.add(movement.getAmount());
+            assertEquals(movement.getId(), lines.get(i).id());
+            assertEquals(0, expected.compareTo(lines.get(i).balance()), "linha " + i);
+        }
+    }
+
+    @Test
+    void firstPageOfRangeOpensWithBalanceBeforeTheRange() {
+        Account account = accountRepository.save(new Account(null, "Extrato", "00000000000",
+                LocalDate.of(1990, 1, 1), "Banco", INITIAL_BALANCE));
+        List<Movement> movements = insertMovements(account, 60);
+        LocalDate from = LocalDate.of(2024, 1, 15);
+
+        BigDecimal before = INITIAL_BALANCE;
+        Movement first = null;
+        movements.sort(Comparator.comparing(Movement::getMovementDate).thenComparing(Movement::getId));
+        for (Movement movement : movements) {
+            if (!movement.getMovementDate().isBefore(from.atStartOfDay())) {
+                first = movement;
+                break;
+            }
+            before = movement.getType().equals("WITHDRAW") ? before.subtract(movement.getAmount()) : before.add(movement.getAmount());
+        }
+
+        StatementLineDTO line = movementService.getRunningStatement(account.getId(), from, null, null, 1).content().get(0);
+        BigDecimal expected = first.getType().equals("WITHDRAW") ? before.subtract(first.getAmount()) : before.add(first.getAmount());
+        assertEquals(first.getId(), line.id());
+        assertEquals(0, expected.compareTo(line.balance()));
+    }
+
+    //insere movimentações em janeiro/2024 e ajusta o saldo atual da conta para refletir todas elas
+    private List<Movement> insertMovements(Account account, int count) {
+        Random random = new Random(42);
+        List<Movement> movements = new ArrayList<>(count);
+        BigDecimal balance = INITIAL_BALANCE;
+        for (int i = 0; i < count; i++) {
+            String type = random.nextInt(3) == 0 ? "WITHDRAW" : "DEPOSIT";
+            BigDecimal amount = BigDecimal.valueOf(random.nextInt(10_000), 2);
+            // Várias movimentações no mesmo instante para exercitar o desempate por id
+            LocalDateTime date = LocalDateTime.of(2024, 1, 1, 0, 0).plusHours(random.nextInt(30 * 24 / 4) * 4L);
+            movements.add(movementRepository.save(new Movement(account, type, amount, date)));
+            balance = type.equals("WITHDRAW") ? balance.subtract(amount) : balance.add(amount);
+        }
+        account.setBalance(balance);
+        accountRepository.save(account);
+        entityManager.flush();
+        return movements;
+    }
+}
@@ -0,0 +1,92 @@
+package com.example.loginauthapi.services;
+
+import com.example.loginauthapi.domain.Account;
+import com.example.loginauthapi.repositories.AccountRepository;
+import com.example.loginauthapi.services.exceptions.BusinessException;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest(properties = "api.posting.engine.enabled=true")
+class PostingEngineTest {
+
+    private static final int POSTINGS = 2_000;
+
+    @Autowired
+    private PostingEngine postingEngine;
+
+    @Autowired
+    private AccountRepository accountRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Test
+    void burstOnHotAccountIsCommittedInBatches() throws Exception {
+        Account account = accountRepository.save(newAccount(new BigDecimal("0.00")));
+        DistributionSummary commitSize = meterRegistry.get("posting.commit.size").summary();
+        long commitsBefore = commitSize.count();
+
+        List<CompletableFuture<Account>> futures = new ArrayList<>(POSTINGS);
+        for (int i = 0; i < POSTINGS; i++) {
+            futures.add(postingEngine.deposit(account.getId(), BigDecimal.ONE));
+        }
+        CompletableFuture.allOf(futures.toArray(CompletableFuture[]::new)).get(60, TimeUnit.SECONDS);
+
+        // O último lançamento da fila enxerga o saldo com todos os anteriores
+        assertEquals(0, new BigDecimal(POSTINGS).compareTo(futures.get(POSTINGS - 1).get().getBalance()));
+        assertEquals(0, new BigDecimal(POSTINGS).compareTo(accountRepository.findById(account.getId()).orElseThrow().getBalance()));
+
+        long commits = commitSize.count() - commitsBefore;
+        assertTrue(commits < POSTINGS, "lançamentos deveriam ser agrupados, commits: " + commits);
+    }
+
+    @Test
+    void withdrawalWithoutBalanceIsRejected() {
+        Account account = accountRepository.save(newAccount(new BigDecimal("10.00")));
+
+        CompletableFuture<Account> ok = postingEngine.withdraw(account.getId(), new BigDecimal("6.00"));
+        CompletableFuture<Account> rejected = postingEngine.withdraw(account.getId(), new BigDecimal("6.00"));
+
+        assertEquals(0, new BigDecimal("4.00").compareTo(ok.join().getBalance()));
+        ExecutionException e = assertThrows(ExecutionException.class, () -> rejected.get(10, TimeUnit.SECONDS));
+        assertInstanceOf(BusinessException.class, e.getCause());
+    }
+
+    @Test
+    void stopFailsQueuedPostingsAndRejectsNewOnes() {
+        // Motor separado e sem threads: os lançamentos ficam na fila até o encerramento
+        PostingEngine engine = new PostingEngine(transactionManager, new SimpleMeterRegistry(), 1, 10, 10);
+        CompletableFuture<Account> queued = engine.deposit(1L, BigDecimal.ONE);
+
+        engine.stop();
+
+        ExecutionException e = assertThrows(ExecutionException.class, () -> queued.get(1, TimeUnit.SECONDS));
+        assertInstanceOf(BusinessException.class, e.getCause());
+        assertTrue(engine.withdraw(1L, BigDecimal.ONE).isCompletedExceptionally());
+    }
+
+    private Account newAccount(BigDecimal balance) {
+        return new Account(null, "Conta lote", "00000000000", LocalDate.of(1990, 1, 1), "Banco", balance);
+    }
+}
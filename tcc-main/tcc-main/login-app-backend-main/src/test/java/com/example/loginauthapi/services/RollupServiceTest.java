@@ -0,0 +1,102 @@
+package com.example.loginauthapi.services;
+
+import com.example.loginauthapi.domain.Transaction;
+import com.example.loginauthapi.domain.User;
+import com.example.loginauthapi.dto.RollupTotalDTO;
+import com.example.loginauthapi.dto.TransactionRequestDTO;
+import com.example.loginauthapi.repositories.TransactionMonthlyRollupRepository;
+import com.example.loginauthapi.repositories.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Alterar e excluir transações move os valores entre as linhas do rollup (mês, categoria) pelo delta,
+ * e a reconstrução completa chega aos mesmos totais.
+ */
+@SpringBootTest
+class RollupServiceTest {
+
+    private static final LocalDateTime MARCH = LocalDateTime.of(2024, 3, 10, 12, 0);
+    private static final LocalDateTime APRIL = LocalDateTime.of(2024, 4, 5, 12, 0);
+
+    @Autowired
+    private RollupService rollupService;
+
+    @Autowired
+    private TransactionService transactionService;
+
+    @Autowired
+    private TransactionMonthlyRollupRepository rollupRepository;
+
+    @Autowired
+    private ReferenceDataCache referenceDataCache;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    private User user;
+    private Long typeId;
+    private Long firstCategoryId;
+    private Long secondCategoryId;
+
+    @BeforeEach
+    void setUp() {
+        String suffix = UUID.randomUUID().toString();
+        user = new User();
+        user.setName("rollup-" + suffix);
+        user.setEmail(suffix + "@test.com");
+        user.setCpf(suffix);
+        user.setPassword("secret");
+        user.setDateOfBirth(LocalDate.of(1990, 1, 1));
+        user = userRepository.save(user);
+        typeId = referenceDataCache.getTransactionTypes().get(0).id();
+        firstCategoryId = referenceDataCache.getCategories().get(0).id();
+        secondCategoryId = referenceDataCache.getCategories().get(1).id();
+    }
+
+    @Test
+    void updateAndDeleteMoveTheDeltaBetweenRows() {
+        Transaction edited = transactionService.newTransaction(request("Mercado", "100.00", MARCH, firstCategoryId));
+        Transaction deleted = transactionService.newTransaction(request("Farmácia", "50.00", MARCH, firstCategoryId));
+        transactionService.newTransaction(request("Padaria", "20.00", MARCH, firstCategoryId));
+        assertEquals(List.of(total(202403, firstCategoryId, "170.00", 3)), totals());
+
+        // Outro valor, outro mês e outra categoria: sai da linha de março e entra na de abril
+        transactionService.update(edited.getId(), request("Mercado", "30.00", APRIL, secondCategoryId));
+        transactionService.delete(deleted.getId());
+
+        List<RollupTotalDTO> expected = List.of(total(202403, firstCategoryId, "20.00", 1),
+                total(202404, secondCategoryId, "30.00", 1));
+        assertEquals(expected, totals());
+
+        rollupService.rebuild();
+        assertEquals(expected, totals());
+    }
+
+    //linhas do usuário, sem as zeradas e com o total na escala do banco
+    private List<RollupTotalDTO> totals() {
+        return rollupRepository.sumByMonth(user.getId(), 202401, 202412).stream()
+                .filter(row -> row.count() != 0)
+                .map(row -> total(row.yearMonth(), row.categoryId(), row.total().toPlainString(), row.count()))
+                .sorted((a, b) -> a.yearMonth().compareTo(b.yearMonth()))
+                .toList();
+    }
+
+    private RollupTotalDTO total(int yearMonth, Long categoryId, String total, long count) {
+        return new RollupTotalDTO(yearMonth, categoryId, typeId, new BigDecimal(total).setScale(2), count);
+    }
+
+    private TransactionRequestDTO request(String description, String amount, LocalDateTime date, Long categoryId) {
+        return new TransactionRequestDTO(description, new BigDecimal(amount), date, categoryId, typeId, user.getId(), null);
+    }
+}
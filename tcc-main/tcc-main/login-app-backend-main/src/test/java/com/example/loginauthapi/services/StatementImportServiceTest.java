@@ -0,0 +1,163 @@
+package com.example.loginauthapi.services;
+
+import com.example.loginauthapi.domain.Account;
+import com.example.loginauthapi.domain.User;
+import com.example.loginauthapi.dto.StatementImportProgressDTO;
+import com.example.loginauthapi.repositories.AccountRepository;
+import com.example.loginauthapi.repositories.UserRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Reimportar um extrato que se sobrepõe ao anterior grava só as linhas novas; repetições
+ * idênticas dentro do mesmo extrato continuam sendo lançamentos distintos.
+ */
+@SpringBootTest(properties = "api.transactions.import.chunk-size=500")
+class StatementImportServiceTest {
+
+    private static final int LINES = 20_000;
+
+    @Autowired
+    private StatementImportService importService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private AccountRepository accountRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private User user;
+    private Account account;
+
+    @BeforeEach
+    void setUp() {
+        String suffix = UUID.randomUUID().toString();
+        user = new User();
+        user.setName("import-" + suffix);
+        user.setEmail(suffix + "@test.com");
+        user.setCpf(suffix);
+        user.setPassword("secret");
+        user.setDateOfBirth(LocalDate.of(1990, 1, 1));
+        user = userRepository.save(user);
+        account = accountRepository.save(new Account(null, "Conta extrato", "00000000000", LocalDate.of(1990, 1, 1), "Banco",
+                new BigDecimal("1000000.00")));
+    }
+
+    @Test
+    void reimportSkipsLinesAlreadyImported() throws Exception {
+        List<StatementImportProgressDTO> first = importCsv(csv(0, LINES));
+
+        StatementImportProgressDTO done = first.get(first.size() - 1);
+        assertTrue(done.finished());
+        assertEquals(LINES, done.imported());
+        assertTrue(first.size() > 2, "um evento de progresso por bloco");
+
+        // Segundo extrato: metade sobreposta (com caixa e acentos diferentes na descrição) e metade nova
+        StatementImportProgressDTO again = last(importCsv(csv(LINES / 2, LINES + LINES / 2).replace("Mercado", "MERCADO  ")));
+        assertEquals(LINES / 2, again.duplicates());
+        assertEquals(LINES / 2, again.imported());
+        assertEquals(LINES + LINES / 2, count());
+    }
+
+    @Test
+    void keepsIdenticalLinesOfTheSameStatement() throws Exception {
+        String statement = """
+                Data;Descrição;Valor
+                01/03/2024;Café;-5,00
+                01/03/2024;Café;-5,00
+                02/03/2024;"Salário; março";"1.500,00"
+                03/03/2024;Linha quebrada
+                """;
+        StatementImportProgressDTO first = last(importCsv(statement));
+        assertEquals(3, first.imported());
+        assertEquals(1, first.rejected());
+        assertEquals(5, first.rejections().get(0).index());
+
+        StatementImportProgressDTO second = last(importCsv(statement));
+        assertEquals(0, second.imported());
+        assertEquals(3, second.duplicates());
+        assertEquals(0, new BigDecimal("1001490.00").compareTo(accountRepository.findById(account.getId()).orElseThrow().getBalance()));
+    }
+
+    @Test
+    void readsOfxTransactions() throws Exception {
+        String ofx = """
+                OFXHEADER:100
+                DATA:OFXSGML
+                CHARSET:1252
+
+                <OFX><BANKMSGSRSV1><STMTTRNRS><STMTRS><BANKTRANLIST>
+                <STMTTRN>
+                <TRNTYPE>DEBIT
+                <DTPOSTED>20240310120000[-3:BRT]
+                <TRNAMT>-42.90
+                <MEMO>Farmácia &amp; Cia
+                </STMTTRN>
+                <STMTTRN><TRNTYPE>CREDIT<DTPOSTED>20240311<TRNAMT>100.00<NAME>Pix recebido</STMTTRN>
+                </BANKTRANLIST></STMTRS></STMTTRNRS></BANKMSGSRSV1></OFX>
+                """;
+        StatementImportService.Plan plan = importService.prepare(user, account.getId(), "ofx", null, null);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        importService.run(plan, new ByteArrayInputStream(ofx.getBytes(StandardCharsets.ISO_8859_1)), out);
+
+        StatementImportProgressDTO done = last(events(out));
+        assertEquals(2, done.imported());
+        assertEquals(List.of("Farmácia & Cia", "Pix recebido"), jdbcTemplate.queryForList(
+                "SELECT description FROM transactions WHERE account_id = ? ORDER BY id", String.class, account.getId()));
+    }
+
+    private String csv(int from, int to) {
+        StringBuilder csv = new StringBuilder("date,description,amount\n");
+        LocalDate start = LocalDate.of(2024, 1, 1);
+        for (int i = from; i < to; i++) {
+            csv.append(start.plusDays(i % 365)).append(",Mercado ").append(i).append(',')
+                    .append(i % 3 == 0 ? "1250.00" : "-" + (i % 97 + 1) + ".35").append('\n');
+        }
+        return csv.toString();
+    }
+
+    private List<StatementImportProgressDTO> importCsv(String csv) throws Exception {
+        StatementImportService.Plan plan = importService.prepare(user, account.getId(), null, "extrato.csv", null);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        importService.run(plan, new ByteArrayInputStream(csv.getBytes(StandardCharsets.UTF_8)), out);
+        return events(out);
+    }
+
+    private List<StatementImportProgressDTO> events(ByteArrayOutputStream out) throws Exception {
+        List<StatementImportProgressDTO> events = new ArrayList<>();
+        for (String line : out.toString(StandardCharsets.UTF_8).split("\n")) {
+            events.add(objectMapper.readValue(line, StatementImportProgressDTO.class));
+        }
+        return events;
+    }
+
+    private static StatementImportProgressDTO last(List<StatementImportProgressDTO> events) {
+        return events.get(events.size() - 1);
+    }
+
+    private int count() {
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM transactions WHERE account_id = ?", Integer.class, account.getId());
+    }
+}
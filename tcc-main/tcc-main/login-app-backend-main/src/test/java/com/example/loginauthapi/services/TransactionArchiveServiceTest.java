@@ -0,0 +1,103 @@
+package com.example.loginauthapi.services;
+
+import com.example.loginauthapi.domain.User;
+import com.example.loginauthapi.dto.TransactionArchiveDTO;
+import com.example.loginauthapi.dto.TransactionDTO;
+import com.example.loginauthapi.dto.TransactionFilterDTO;
+import com.example.loginauthapi.dto.TransactionPageDTO;
+import com.example.loginauthapi.dto.TransactionRequestDTO;
+import com.example.loginauthapi.repositories.TransactionRepository;
+import com.example.loginauthapi.repositories.UserRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Listagem, resumo e rollup devem responder igual antes e depois de mover os anos antigos para o arquivo frio.
+ */
+@SpringBootTest(properties = "api.transactions.archive.dir=target/test-archive/transactions")
+class TransactionArchiveServiceTest {
+
+    @Autowired
+    private TransactionArchiveService archiveService;
+
+    @Autowired
+    private TransactionService transactionService;
+
+    @Autowired
+    private DashboardService dashboardService;
+
+    @Autowired
+    private RollupService rollupService;
+
+    @Autowired
+    private ReferenceDataCache referenceDataCache;
+
+    @Autowired
+    private TransactionRepository transactionRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Test
+    void readsAreTheSameAfterArchiving() {
+        User user = newUser();
+        Random random = new Random(7);
+        List<ReferenceDataCache.CachedCategory> categories = referenceDataCache.getCategories();
+        List<ReferenceDataCache.CachedTransactionType> types = referenceDataCache.getTransactionTypes();
+        for (int i = 0; i < 120; i++) {
+            LocalDateTime date = LocalDateTime.of(2021, 1, 1, 0, 0).plusHours(random.nextInt(5 * 365 * 24));
+            transactionService.newTransaction(new TransactionRequestDTO("compra " + i, BigDecimal.valueOf(random.nextInt(100_000), 2), date,
+                    categories.get(random.nextInt(categories.size())).id(), types.get(random.nextInt(types.size())).id(), user.getId(), null));
+        }
+        List<TransactionFilterDTO> filters = List.of(
+                new TransactionFilterDTO(null, null, null, null, null, null),
+                new TransactionFilterDTO(LocalDate.of(2022, 6, 1), LocalDate.of(2025, 3, 1), null, null, null, null),
+                new TransactionFilterDTO(null, null, types.get(0).id(), null, null, "compra 1"));
+
+        List<List<Long>> pagesBefore = filters.stream().map(filter -> allIds(user, filter)).toList();
+        String summaryBefore = dashboardService.getSummary(user, LocalDate.of(2022, 3, 1), LocalDate.of(2024, 2, 10)).categories().toString();
+
+        List<TransactionArchiveDTO> written = archiveService.archiveBefore(LocalDateTime.of(2025, 1, 1, 0, 0));
+
+        assertTrue(written.stream().allMatch(archive -> archive.year() < 2025));
+        assertTrue(transactionRepository.findYearsBefore(user.getId(), LocalDateTime.of(2025, 1, 1, 0, 0)).isEmpty());
+        assertEquals(pagesBefore, filters.stream().map(filter -> allIds(user, filter)).toList());
+        assertEquals(summaryBefore, dashboardService.getSummary(user, LocalDate.of(2022, 3, 1), LocalDate.of(2024, 2, 10)).categories().toString());
+        assertEquals(0, rollupService.checkDrift().differences().size());
+    }
+
+    //percorre todas as páginas com um tamanho pequeno para cruzar a fronteira entre banco e arquivo
+    private List<Long> allIds(User user, TransactionFilterDTO filter) {
+        List<Long> ids = new ArrayList<>();
+        String cursor = null;
+        do {
+            TransactionPageDTO page = transactionService.findPageDto(user, filter, cursor, 7);
+            page.content().stream().map(TransactionDTO::getId).forEach(ids::add);
+            cursor = page.nextCursor();
+        } while (cursor != null);
+        return ids;
+    }
+
+    private User newUser() {
+        String suffix = UUID.randomUUID().toString();
+        User user = new User();
+        user.setName("archive-" + suffix);
+        user.setEmail(suffix + "@test.com");
+        user.setCpf(suffix);
+        user.setPassword("password");
+        user.setDateOfBirth(LocalDate.of(1990, 1, 1));
+        return userRepository.save(user);
+    }
+}
@@ -0,0 +1,148 @@
+package com.example.loginauthapi.services;
+
+import com.example.loginauthapi.domain.Account;
+import com.example.loginauthapi.domain.User;
+import com.example.loginauthapi.dto.TransactionBatchItemDTO;
+import com.example.loginauthapi.dto.TransactionBatchResultDTO;
+import com.example.loginauthapi.dto.TransactionRequestDTO;
+import com.example.loginauthapi.repositories.AccountRepository;
+import com.example.loginauthapi.repositories.UserRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.io.ByteArrayInputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Lote com itens válidos e inválidos: só os válidos são gravados, cada conta termina com a soma
+ * dos seus lançamentos e o número de comandos não cresce com um UPDATE por item.
+ */
+@SpringBootTest(properties = {"spring.jpa.properties.hibernate.generate_statistics=true", "api.transactions.batch.chunk-size=100"})
+class TransactionBatchServiceTest {
+
+    private static final int ITEMS = 300;
+
+    @Autowired
+    private TransactionBatchService batchService;
+
+    @Autowired
+    private LedgerReconciliationService reconciliationService;
+
+    @Autowired
+    private ReferenceDataCache referenceDataCache;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private AccountRepository accountRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private User user;
+    private Long incomeTypeId;
+    private Long expenseTypeId;
+    private Long categoryId;
+
+    @BeforeEach
+    void setUp() {
+        String suffix = UUID.randomUUID().toString();
+        user = new User();
+        user.setName("batch-" + suffix);
+        user.setEmail(suffix + "@test.com");
+        user.setCpf(suffix);
+        user.setPassword("secret");
+        user.setDateOfBirth(LocalDate.of(1990, 1, 1));
+        user = userRepository.save(user);
+        // Tipos semeados pela V5
+        incomeTypeId = typeId("RECEITA");
+        expenseTypeId = typeId("DESPESA");
+        categoryId = referenceDataCache.getCategories().get(0).id();
+    }
+
+    @Test
+    void insertsValidItemsAndUpdatesEachAccountOnce() {
+        List<Account> accounts = List.of(newAccount(new BigDecimal("50")), newAccount(new BigDecimal("50")), newAccount(new BigDecimal("50")));
+        List<TransactionRequestDTO> items = new ArrayList<>();
+        BigDecimal[] expected = {new BigDecimal("50"), new BigDecimal("50"), new BigDecimal("50")};
+        for (int i = 0; i < ITEMS; i++) {
+            int account = i % 3;
+            boolean income = i % 4 != 3;
+            BigDecimal amount = BigDecimal.valueOf(i % 7 + 1);
+            items.add(new TransactionRequestDTO("Lote " + i, amount, LocalDateTime.now().minusDays(i % 10), categoryId,
+                    income ? incomeTypeId : expenseTypeId, user.getId(), accounts.get(account).getId()));
+            expected[account] = income ? expected[account].add(amount) : expected[account].subtract(amount);
+        }
+        // Inválidos: usuário inexistente, conta inexistente e saque acima do saldo
+        items.add(new TransactionRequestDTO("Sem usuário", BigDecimal.ONE, LocalDateTime.now(), categoryId, incomeTypeId, -1L, null));
+        items.add(new TransactionRequestDTO("Sem conta", BigDecimal.ONE, LocalDateTime.now(), categoryId, incomeTypeId, user.getId(), -1L));
+        items.add(new TransactionRequestDTO("Saque alto", new BigDecimal("100000"), LocalDateTime.now(), categoryId, expenseTypeId,
+                user.getId(), accounts.get(0).getId()));
+
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        TransactionBatchResultDTO result = batchService.insertAll(items);
+
+        assertEquals(ITEMS, result.created());
+        assertEquals(3, result.rejected());
+        assertTrue(result.items().subList(0, ITEMS).stream().allMatch(item -> item.transactionId() != null));
+        assertEquals(List.of("User not found", "Account not found", "Saldo insuficiente para saque."),
+                result.items().subList(ITEMS, ITEMS + 3).stream().map(TransactionBatchItemDTO::error).toList());
+        for (int i = 0; i < accounts.size(); i++) {
+            assertEquals(0, expected[i].compareTo(accountRepository.findById(accounts.get(i).getId()).orElseThrow().getBalance()));
+        }
+        assertEquals(ITEMS, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM tb_movements WHERE transaction_id IN ("
+                + "SELECT id FROM transactions WHERE user_id = ?)", Integer.class, user.getId()));
+        // Bem menos comandos do que os ~7 por transação do lançamento individual
+        assertTrue(statistics.getPrepareStatementCount() < ITEMS);
+        assertTrue(reconciliationService.reconcile().drift().stream()
+                .noneMatch(drift -> accounts.stream().anyMatch(account -> account.getId().equals(drift.accountId()))));
+    }
+
+    @Test
+    void readsNdjsonLineByLine() throws Exception {
+        Account account = newAccount(BigDecimal.ZERO);
+        String ndjson = """
+                {"description":"Salário","amount":100.00,"date":"2024-05-01T10:00:00","categoryId":%d,"transactionTypeId":%d,"userId":%d,"accountId":%d}
+
+                {"description":
+                {"description":"Mercado","amount":30.00,"date":"2024-05-02T10:00:00","categoryId":%d,"transactionTypeId":%d,"userId":%d,"accountId":%d}
+                """.formatted(categoryId, incomeTypeId, user.getId(), account.getId(), categoryId, expenseTypeId, user.getId(), account.getId());
+
+        TransactionBatchResultDTO result = batchService.insertAll(new ByteArrayInputStream(ndjson.getBytes(StandardCharsets.UTF_8)));
+
+        assertEquals(3, result.received());
+        assertEquals(2, result.created());
+        assertEquals("REJECTED", result.items().get(1).status());
+        assertNotNull(result.items().get(2).transactionId());
+        assertEquals(0, new BigDecimal("70.00").compareTo(accountRepository.findById(account.getId()).orElseThrow().getBalance()));
+    }
+
+    private Account newAccount(BigDecimal balance) {
+        return accountRepository.save(new Account(null, "Conta lote", "00000000000", LocalDate.of(1990, 1, 1), "Banco", balance));
+    }
+
+    private Long typeId(String name) {
+        return referenceDataCache.findTransactionTypeByName(name).orElseThrow().id();
+    }
+}
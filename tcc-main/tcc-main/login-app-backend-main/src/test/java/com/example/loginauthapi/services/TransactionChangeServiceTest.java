@@ -0,0 +1,146 @@
+package com.example.loginauthapi.services;
+
+import com.example.loginauthapi.domain.Transaction;
+import com.example.loginauthapi.domain.User;
+import com.example.loginauthapi.dto.TransactionChangeDTO;
+import com.example.loginauthapi.dto.TransactionChangesDTO;
+import com.example.loginauthapi.dto.TransactionDTO;
+import com.example.loginauthapi.dto.TransactionFilterDTO;
+import com.example.loginauthapi.dto.TransactionPageDTO;
+import com.example.loginauthapi.dto.TransactionRequestDTO;
+import com.example.loginauthapi.repositories.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * O feed devolve só o que mudou depois do cursor (inclusões, alterações e exclusões) na ordem da
+ * sequência do usuário, e pagina pelo limite sem perder nem repetir alterações. Anos arquivados
+ * ficam fora do feed, sem lápide, e continuam na listagem.
+ */
+@SpringBootTest(properties = "api.transactions.archive.dir=target/test-archive/transactions")
+class TransactionChangeServiceTest {
+
+    @Autowired
+    private TransactionChangeService changeService;
+
+    @Autowired
+    private TransactionService transactionService;
+
+    @Autowired
+    private TransactionBatchService batchService;
+
+    @Autowired
+    private ReferenceDataCache referenceDataCache;
+
+    @Autowired
+    private TransactionArchiveService archiveService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    private User user;
+    private Long categoryId;
+    private Long typeId;
+
+    @BeforeEach
+    void setUp() {
+        String suffix = UUID.randomUUID().toString();
+        user = new User();
+        user.setName("feed-" + suffix);
+        user.setEmail(suffix + "@test.com");
+        user.setCpf(suffix);
+        user.setPassword("secret");
+        user.setDateOfBirth(LocalDate.of(1990, 1, 1));
+        user = userRepository.save(user);
+        categoryId = referenceDataCache.getCategories().get(0).id();
+        typeId = referenceDataCache.getTransactionTypes().get(0).id();
+    }
+
+    @Test
+    void returnsOnlyChangesAfterTheCursor() {
+        Transaction first = transactionService.newTransaction(request("Primeira", "10.00"));
+        Transaction second = transactionService.newTransaction(request("Segunda", "20.00"));
+        batchService.insertAll(List.of(request("Lote 1", "1.00"), request("Lote 2", "2.00")));
+
+        TransactionChangesDTO initial = changeService.findChangesSince(user, null, null);
+        assertEquals(List.of("Primeira", "Segunda", "Lote 1", "Lote 2"),
+                initial.changes().stream().map(change -> change.transaction().getDescription()).toList());
+        assertFalse(initial.hasMore());
+
+        transactionService.update(first.getId(), request("Primeira editada", "15.00"));
+        transactionService.delete(second.getId());
+
+        TransactionChangesDTO delta = changeService.findChangesSince(user, initial.cursor(), null);
+        assertEquals(2, delta.changes().size());
+        TransactionChangeDTO updated = delta.changes().get(0);
+        assertEquals("UPSERT", updated.type());
+        assertEquals("Primeira editada", updated.transaction().getDescription());
+        TransactionChangeDTO deleted = delta.changes().get(1);
+        assertEquals("DELETE", deleted.type());
+        assertEquals(second.getId(), deleted.transactionId());
+
+        assertTrue(changeService.findChangesSince(user, delta.cursor(), null).changes().isEmpty());
+    }
+
+    @Test
+    void pagesThroughTheFeedWithTheCursor() {
+        for (int i = 0; i < 5; i++) {
+            transactionService.newTransaction(request("Item " + i, "1.00"));
+        }
+        Long deletedId = transactionService.newTransaction(request("Excluída", "1.00")).getId();
+        transactionService.delete(deletedId);
+
+        long cursor = 0;
+        int pages = 0;
+        StringBuilder seen = new StringBuilder();
+        TransactionChangesDTO page;
+        do {
+            page = changeService.findChangesSince(user, cursor, 2);
+            page.changes().forEach(change -> seen.append(change.type()).append(' '));
+            assertTrue(page.changes().stream().allMatch(change -> change.seq() > 0));
+            cursor = page.cursor();
+            pages++;
+        } while (page.hasMore());
+
+        // A transação excluída só aparece como lápide; as outras cinco como inclusões
+        assertEquals("UPSERT UPSERT UPSERT UPSERT UPSERT DELETE ", seen.toString());
+        assertEquals(3, pages);
+    }
+
+    @Test
+    void archivedYearsAreLeftOutOfTheFeed() {
+        Long archivedId = transactionService.newTransaction(request("Antiga", "10.00", LocalDateTime.of(2015, 5, 1, 12, 0))).getId();
+        Long liveId = transactionService.newTransaction(request("Atual", "20.00")).getId();
+
+        archiveService.archiveBefore(LocalDateTime.of(2016, 1, 1, 0, 0));
+
+        // O arquivamento não grava lápide: a carga inicial traz só o que continua no banco
+        TransactionChangesDTO initial = changeService.findChangesSince(user, 0L, null);
+        assertEquals(List.of("UPSERT " + liveId),
+                initial.changes().stream().map(change -> change.type() + " " + change.transactionId()).toList());
+
+        TransactionPageDTO listing = transactionService.findPageDto(user,
+                new TransactionFilterDTO(null, null, null, null, null, null), null, null);
+        assertEquals(List.of(liveId, archivedId), listing.content().stream().map(TransactionDTO::getId).toList());
+    }
+
+    private TransactionRequestDTO request(String description, String amount) {
+        return request(description, amount, LocalDateTime.now());
+    }
+
+    private TransactionRequestDTO request(String description, String amount, LocalDateTime date) {
+        return new TransactionRequestDTO(description, new BigDecimal(amount), date, categoryId, typeId, user.getId(), null);
+    }
+}
@@ -0,0 +1,104 @@
+package com.example.loginauthapi.services;
+
+import com.example.loginauthapi.domain.Account;
+import com.example.loginauthapi.domain.Movement;
+import com.example.loginauthapi.domain.Transaction;
+import com.example.loginauthapi.domain.User;
+import com.example.loginauthapi.dto.TransactionRequestDTO;
+import com.example.loginauthapi.repositories.AccountRepository;
+import com.example.loginauthapi.repositories.UserRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Uma transação lançada em conta gera exatamente uma movimentação ligada a ela.
+ */
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+class TransactionPostingTest {
+
+    private static final int POSTINGS = 200;
+    private static final int MAX_STATEMENTS_PER_POSTING = 10;
+
+    @Autowired
+    private TransactionService transactionService;
+
+    @Autowired
+    private ReferenceDataCache referenceDataCache;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private AccountRepository accountRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    private User user;
+    private Account account;
+    private Long incomeTypeId;
+
+    @BeforeEach
+    void setUp() {
+        String suffix = UUID.randomUUID().toString();
+        user = new User();
+        user.setName("posting-" + suffix);
+        user.setEmail(suffix + "@test.com");
+        user.setCpf(suffix);
+        user.setPassword("secret");
+        user.setDateOfBirth(LocalDate.of(1990, 1, 1));
+        user = userRepository.save(user);
+        account = accountRepository.save(new Account(null, "Conta lançamentos", "00000000000",
+                LocalDate.of(1990, 1, 1), "Banco", BigDecimal.ZERO));
+
+        // Tipo de receita semeado pela V5
+        incomeTypeId = referenceDataCache.findTransactionTypeByName("RECEITA").orElseThrow().id();
+    }
+
+    @Test
+    void eachPostingWritesOneLinkedMovement() {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        for (int i = 0; i < POSTINGS; i++) {
+            transactionService.newTransaction(new TransactionRequestDTO("Salário " + i, BigDecimal.ONE,
+                    LocalDateTime.now().minusDays(1), referenceDataCache.getCategories().get(0).id(), incomeTypeId,
+                    user.getId(), account.getId()));
+        }
+        long statements = statistics.getPrepareStatementCount();
+        // Hoje são 9 statements por lançamento; o limite acusa consultas extras por linha (N+1)
+        assertTrue(statements <= POSTINGS * MAX_STATEMENTS_PER_POSTING,
+                "statements por lançamento: " + statements / (double) POSTINGS);
+
+        assertEquals(0, new BigDecimal(POSTINGS).compareTo(accountRepository.findById(account.getId()).orElseThrow().getBalance()));
+        transactionTemplate.executeWithoutResult(status -> {
+            List<Movement> movements = entityManager.createQuery(
+                    "select m from Movement m join fetch m.transaction where m.account.id = :accountId", Movement.class)
+                    .setParameter("accountId", account.getId())
+                    .getResultList();
+            assertEquals(POSTINGS, movements.size());
+            assertEquals(POSTINGS, movements.stream().map(Movement::getTransaction).map(Transaction::getId).distinct().count());
+        });
+    }
+}
@@ -0,0 +1,149 @@
+package com.example.loginauthapi.services;
+
+import com.example.loginauthapi.domain.Account;
+import com.example.loginauthapi.domain.Transaction;
+import com.example.loginauthapi.domain.User;
+import com.example.loginauthapi.dto.TransactionFilterDTO;
+import com.example.loginauthapi.dto.TransactionPageDTO;
+import com.example.loginauthapi.dto.TransactionRequestDTO;
+import com.example.loginauthapi.repositories.AccountRepository;
+import com.example.loginauthapi.repositories.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+/**
+ * Listagem de transações: sem limit nem cursor a lista vem completa; com eles, paginada por keyset.
+ * Alterar ou excluir uma transação lançada em conta aplica só a diferença líquida, com uma
+ * movimentação por conta afetada.
+ */
+@SpringBootTest
+class TransactionServiceTest {
+
+    private static final TransactionFilterDTO NO_FILTER = new TransactionFilterDTO(null, null, null, null, null, null);
+
+    @Autowired
+    private TransactionService transactionService;
+
+    @Autowired
+    private ReferenceDataCache referenceDataCache;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private AccountRepository accountRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private User user;
+
+    @BeforeEach
+    void setUp() {
+        String suffix = UUID.randomUUID().toString();
+        user = new User();
+        user.setName("service-" + suffix);
+        user.setEmail(suffix + "@test.com");
+        user.setCpf(suffix);
+        user.setPassword("secret");
+        user.setDateOfBirth(LocalDate.of(1990, 1, 1));
+        user = userRepository.save(user);
+    }
+
+    @Test
+    void listsEverythingWithoutLimitOrCursor() {
+        int count = TransactionService.DEFAULT_PAGE_SIZE + 10;
+        for (int i = 0; i < count; i++) {
+            transactionService.newTransaction(new TransactionRequestDTO("Item " + i, BigDecimal.ONE, LocalDateTime.now().minusMinutes(i),
+                    referenceDataCache.getCategories().get(0).id(), referenceDataCache.getTransactionTypes().get(0).id(),
+                    user.getId(), null));
+        }
+
+        TransactionPageDTO all = transactionService.findPageDto(user, NO_FILTER, null, null);
+        assertEquals(count, all.content().size());
+        assertNull(all.nextCursor());
+
+        TransactionPageDTO first = transactionService.findPageDto(user, NO_FILTER, null, 10);
+        assertEquals(10, first.content().size());
+        assertNotNull(first.nextCursor());
+        // Só o cursor: páginas seguintes usam o tamanho padrão
+        TransactionPageDTO rest = transactionService.findPageDto(user, NO_FILTER, first.nextCursor(), null);
+        assertEquals(TransactionService.DEFAULT_PAGE_SIZE, rest.content().size());
+        assertNull(rest.nextCursor());
+    }
+
+    @Test
+    void reducingAnExpensePostsOnlyTheDifference() {
+        Account account = newAccount("100.00");
+        Transaction expense = transactionService.newTransaction(posting("Aluguel", "90.00", "DESPESA", account));
+
+        // Saldo 10: estornar e relançar em dois passos falharia se o saque viesse antes do estorno
+        transactionService.update(expense.getId(), posting("Aluguel", "50.00", "DESPESA", account));
+
+        assertBalance(account, "50.00");
+        assertEquals(List.of("WITHDRAW 90.00", "DEPOSIT 40.00"), movements(account));
+    }
+
+    @Test
+    void movingBetweenAccountsPostsOneAdjustmentPerAccount() {
+        Account from = newAccount("0.00");
+        Account to = newAccount("0.00");
+        Transaction income = transactionService.newTransaction(posting("Salário", "100.00", "RECEITA", from));
+
+        transactionService.update(income.getId(), posting("Salário", "100.00", "RECEITA", to));
+
+        assertBalance(from, "0.00");
+        assertBalance(to, "100.00");
+        assertEquals(List.of("DEPOSIT 100.00", "WITHDRAW 100.00"), movements(from));
+        assertEquals(List.of("DEPOSIT 100.00"), movements(to));
+    }
+
+    @Test
+    void deletingPostsOneReversingMovement() {
+        Account account = newAccount("100.00");
+        Transaction expense = transactionService.newTransaction(posting("Mercado", "30.00", "DESPESA", account));
+
+        transactionService.delete(expense.getId());
+
+        assertBalance(account, "100.00");
+        assertEquals(List.of("WITHDRAW 30.00", "DEPOSIT 30.00"), movements(account));
+    }
+
+    private TransactionRequestDTO posting(String description, String amount, String type, Account account) {
+        return new TransactionRequestDTO(description, new BigDecimal(amount), LocalDateTime.now().minusDays(1),
+                referenceDataCache.getCategories().get(0).id(), typeId(type), user.getId(), account.getId());
+    }
+
+    private Account newAccount(String balance) {
+        return accountRepository.save(new Account(null, "Conta " + UUID.randomUUID(), "00000000000",
+                LocalDate.of(1990, 1, 1), "Banco", new BigDecimal(balance)));
+    }
+
+    private void assertBalance(Account account, String expected) {
+        assertEquals(0, new BigDecimal(expected).compareTo(accountRepository.findById(account.getId()).orElseThrow().getBalance()));
+    }
+
+    //movimentações da conta na ordem em que foram gravadas, como "TIPO valor"
+    private List<String> movements(Account account) {
+        return jdbcTemplate.query("SELECT type, amount FROM tb_movements WHERE account_id = ? ORDER BY id",
+                (rs, i) -> rs.getString(1) + " " + rs.getBigDecimal(2).setScale(2).toPlainString(), account.getId());
+    }
+
+    //tipos de receita e despesa semeados pela V5
+    private Long typeId(String name) {
+        return referenceDataCache.findTransactionTypeByName(name).orElseThrow().id();
+    }
+}